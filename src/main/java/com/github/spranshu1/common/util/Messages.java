@@ -60,6 +60,46 @@ public final class Messages {
      */
     public static final String ERR_FILE_UNZIP = "File could not be unzipped due to exception";
 
+    /**
+     * The constant ERR_TAR.
+     */
+    public static final String ERR_TAR = "Tar archive could not be created due to exception,"+ERR_FILE_NAME_MISSING;
+
+    /**
+     * The constant ERR_UNTAR.
+     */
+    public static final String ERR_UNTAR = "Tar archive could not be extracted due to exception";
+
+    /**
+     * The constant ERR_UNZIP_OUTSIDE.
+     */
+    public static final String ERR_UNZIP_OUTSIDE = "Entry is outside of the destination directory: ";
+
+    /**
+     * The constant ERR_UNZIP_MAX_ENTRIES.
+     */
+    public static final String ERR_UNZIP_MAX_ENTRIES = "Archive has more entries than allowed: ";
+
+    /**
+     * The constant ERR_UNZIP_MAX_SIZE.
+     */
+    public static final String ERR_UNZIP_MAX_SIZE = "Archive inflates to more bytes than allowed: ";
+
+    /**
+     * The constant ERR_UNZIP_MAX_RATIO.
+     */
+    public static final String ERR_UNZIP_MAX_RATIO = "Entry inflates beyond the allowed compression ratio: ";
+
+    /**
+     * The constant ERR_UNZIP_ENTRY_SIZE.
+     */
+    public static final String ERR_UNZIP_ENTRY_SIZE = "Entry inflates to more bytes than declared: ";
+
+    /**
+     * The constant ERR_ZIP_INCREMENTAL.
+     */
+    public static final String ERR_ZIP_INCREMENTAL = "Existing archive could not be read, it is rebuilt in full";
+
     /**
      * The constant ERR_FILE_NULL.
      */
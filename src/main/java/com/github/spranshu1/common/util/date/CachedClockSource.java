@@ -0,0 +1,83 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.date;
+
+import com.github.spranshu1.common.util.Assert;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A coarse-grained clock, reading a cached time that a background ticker thread refreshes at a fixed resolution.
+ * <p>
+ * Reads are a single volatile load, which suits callers that stamp every log or audit record and
+ * can tolerate the time lagging by up to one resolution. The ticker is a daemon thread, {@link #close()} stops it.
+ * <pre class="code">
+ *     CachedClockSource clock = new CachedClockSource(1);
+ *     DateTimeUtil.setClockSource(clock);
+ * </pre>
+ */
+public final class CachedClockSource implements ClockSource, AutoCloseable {
+
+    /**
+     * The cached time.
+     */
+    private volatile long now;
+
+    /**
+     * Whether the ticker should keep running.
+     */
+    private volatile boolean running = true;
+
+    /**
+     * The ticker thread.
+     */
+    private final Thread ticker;
+
+    /**
+     * Starts a cached clock refreshed every {@code resolutionMillis} milliseconds.
+     *
+     * @param resolutionMillis the refresh interval in milliseconds
+     */
+    public CachedClockSource(final long resolutionMillis) {
+        Assert.isTrue(resolutionMillis > 0, "The resolution must be greater than zero");
+        final long resolutionNanos = resolutionMillis * 1_000_000L;
+        now = System.currentTimeMillis();
+        ticker = new Thread(() -> {
+            while (running) {
+                now = System.currentTimeMillis();
+                LockSupport.parkNanos(resolutionNanos);
+            }
+        }, "cached-clock-ticker");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return now;
+    }
+
+    /**
+     * Stops the ticker thread, the clock keeps returning the last cached time.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(ticker);
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.date;
+
+import java.time.Instant;
+
+/**
+ * A source of the current time, used by {@link DateTimeUtil#getTimestamp()} and {@link DateTimeUtil#currentTimeMillis()}.
+ * <p>
+ * Implementations must be thread-safe. Reading epoch millis as a primitive does not allocate.
+ *
+ * @see CachedClockSource
+ * @see MonotonicClockSource
+ * @see ManualClockSource
+ */
+@FunctionalInterface
+public interface ClockSource {
+
+    /**
+     * The system clock, reads {@link System#currentTimeMillis()} on every call.
+     */
+    ClockSource SYSTEM = System::currentTimeMillis;
+
+    /**
+     * Gets the current time.
+     *
+     * @return the milliseconds since the epoch
+     */
+    long currentTimeMillis();
+
+    /**
+     * Gets the current time as an {@link Instant}.
+     *
+     * @return the current instant
+     */
+    default Instant instant() {
+        return Instant.ofEpochMilli(currentTimeMillis());
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.date;
+
+/**
+ * Encoder for the fixed UTC layouts of {@link DateTimeUtil}.
+ * <p>
+ * Digits are computed arithmetically from epoch millis (proleptic Gregorian calendar)
+ * and written straight into a {@code char[]}, so the encoder is stateless and thread-safe.
+ * Only years {@code 0000} to {@code 9999} fit the fixed layouts, callers fall back to
+ * {@link java.time.format.DateTimeFormatter} outside that range.
+ * <p>
+ * The decoders read the fixed positions of the canonical ISO layout directly and return
+ * {@link #INVALID} for anything else, so callers can fall back to a general parser.
+ */
+final class DateCodec {
+
+    /**
+     * The milliseconds per day.
+     */
+    static final long MILLIS_PER_DAY = 86_400_000L;
+
+    /**
+     * Length of {@code yyyy-MM-dd}.
+     */
+    static final int DATE_LENGTH = 10;
+
+    /**
+     * Length of {@code yyyy-MM-dd'T'HH:mm:ss.SSS}.
+     */
+    static final int TIMESTAMP_LENGTH = 23;
+
+    /**
+     * Length of {@code yyyy-MM-dd'T'HH:mm:ss.SSS'Z'}.
+     */
+    static final int ISO_LENGTH = 24;
+
+    /**
+     * Epoch millis of 0000-01-01T00:00:00.000Z.
+     */
+    static final long MIN_MILLIS = -62_167_219_200_000L;
+
+    /**
+     * Epoch millis of 9999-12-31T23:59:59.999Z.
+     */
+    static final long MAX_MILLIS = 253_402_300_799_999L;
+
+    /**
+     * Returned by the decoders for input that is not in the canonical ISO layout.
+     */
+    static final long INVALID = Long.MIN_VALUE;
+
+    private DateCodec() {
+        // constructor intentionally kept empty
+    }
+
+    /**
+     * Checks if the instant fits the four digit year of the fixed layouts.
+     *
+     * @param epochMillis the epoch millis
+     * @return true, if the instant can be encoded
+     */
+    static boolean inRange(final long epochMillis) {
+        return epochMillis >= MIN_MILLIS && epochMillis <= MAX_MILLIS;
+    }
+
+    /**
+     * Writes {@code yyyy-MM-dd} into the buffer.
+     *
+     * @param epochMillis the epoch millis, must be {@link #inRange(long) in range}
+     * @param buf         the target buffer
+     * @param off         the offset in the buffer
+     * @return the number of chars written
+     */
+    static int encodeDate(final long epochMillis, final char[] buf, final int off) {
+        final long epochDay = Math.floorDiv(epochMillis, MILLIS_PER_DAY);
+        final long yearMonthDay = civilFromDays(epochDay);
+        write4(buf, off, (int) (yearMonthDay >> 9));
+        buf[off + 4] = '-';
+        write2(buf, off + 5, (int) (yearMonthDay >> 5) & 0xF);
+        buf[off + 7] = '-';
+        write2(buf, off + 8, (int) yearMonthDay & 0x1F);
+        return DATE_LENGTH;
+    }
+
+    /**
+     * Writes {@code yyyy-MM-dd'T'HH:mm:ss.SSS} into the buffer.
+     *
+     * @param epochMillis the epoch millis, must be {@link #inRange(long) in range}
+     * @param buf         the target buffer
+     * @param off         the offset in the buffer
+     * @return the number of chars written
+     */
+    static int encodeTimestamp(final long epochMillis, final char[] buf, final int off) {
+        encodeDate(epochMillis, buf, off);
+        final int millisOfDay = (int) Math.floorMod(epochMillis, MILLIS_PER_DAY);
+        final int secondOfDay = millisOfDay / 1000;
+        buf[off + 10] = 'T';
+        write2(buf, off + 11, secondOfDay / 3600);
+        buf[off + 13] = ':';
+        write2(buf, off + 14, secondOfDay / 60 % 60);
+        buf[off + 16] = ':';
+        write2(buf, off + 17, secondOfDay % 60);
+        buf[off + 19] = '.';
+        write3(buf, off + 20, millisOfDay % 1000);
+        return TIMESTAMP_LENGTH;
+    }
+
+    /**
+     * Writes {@code yyyy-MM-dd'T'HH:mm:ss.SSS'Z'} into the buffer.
+     *
+     * @param epochMillis the epoch millis, must be {@link #inRange(long) in range}
+     * @param buf         the target buffer
+     * @param off         the offset in the buffer
+     * @return the number of chars written
+     */
+    static int encodeIso(final long epochMillis, final char[] buf, final int off) {
+        encodeTimestamp(epochMillis, buf, off);
+        buf[off + 23] = 'Z';
+        return ISO_LENGTH;
+    }
+
+    /**
+     * Converts an epoch day to a civil date, using the algorithm of Howard Hinnant's {@code civil_from_days}.
+     *
+     * @param epochDay the days since 1970-01-01
+     * @return the date packed as {@code year << 9 | month << 5 | day}
+     */
+    static long civilFromDays(final long epochDay) {
+        final long z = epochDay + 719_468;
+        final long era = Math.floorDiv(z, 146_097);
+        final long dayOfEra = z - era * 146_097;
+        final long yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        final long dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final long mp = (5 * dayOfYear + 2) / 153;
+        final long day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        final long month = mp < 10 ? mp + 3 : mp - 9;
+        final long year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year << 9 | month << 5 | day;
+    }
+
+    /**
+     * Decodes {@code yyyy-MM-dd'T'HH:mm:ss.SSS'Z'} from the given chars.
+     *
+     * @param text the text
+     * @param off  the offset of the first char
+     * @param len  the number of chars
+     * @return the epoch millis, or {@link #INVALID} if the text is not in the canonical layout
+     */
+    static long decodeIso(final CharSequence text, final int off, final int len) {
+        if (len != ISO_LENGTH || text.charAt(off + 4) != '-' || text.charAt(off + 7) != '-'
+                || text.charAt(off + 10) != 'T' || text.charAt(off + 13) != ':' || text.charAt(off + 16) != ':'
+                || text.charAt(off + 19) != '.' || text.charAt(off + 23) != 'Z') {
+            return INVALID;
+        }
+        return toEpochMillis(
+                digits(text.charAt(off), text.charAt(off + 1), text.charAt(off + 2), text.charAt(off + 3)),
+                digits(text.charAt(off + 5), text.charAt(off + 6)),
+                digits(text.charAt(off + 8), text.charAt(off + 9)),
+                digits(text.charAt(off + 11), text.charAt(off + 12)),
+                digits(text.charAt(off + 14), text.charAt(off + 15)),
+                digits(text.charAt(off + 17), text.charAt(off + 18)),
+                digits(text.charAt(off + 20), text.charAt(off + 21), text.charAt(off + 22)));
+    }
+
+    /**
+     * Decodes {@code yyyy-MM-dd'T'HH:mm:ss.SSS'Z'} from the given ASCII (or UTF-8) bytes.
+     *
+     * @param buf the buffer
+     * @param off the offset of the first byte
+     * @param len the number of bytes
+     * @return the epoch millis, or {@link #INVALID} if the bytes are not in the canonical layout
+     */
+    static long decodeIso(final byte[] buf, final int off, final int len) {
+        if (len != ISO_LENGTH || buf[off + 4] != '-' || buf[off + 7] != '-' || buf[off + 10] != 'T'
+                || buf[off + 13] != ':' || buf[off + 16] != ':' || buf[off + 19] != '.' || buf[off + 23] != 'Z') {
+            return INVALID;
+        }
+        return toEpochMillis(
+                digits(buf[off], buf[off + 1], buf[off + 2], buf[off + 3]),
+                digits(buf[off + 5], buf[off + 6]),
+                digits(buf[off + 8], buf[off + 9]),
+                digits(buf[off + 11], buf[off + 12]),
+                digits(buf[off + 14], buf[off + 15]),
+                digits(buf[off + 17], buf[off + 18]),
+                digits(buf[off + 20], buf[off + 21], buf[off + 22]));
+    }
+
+    /**
+     * Validates the fields and converts them to epoch millis, any negative field marks a non-digit.
+     */
+    private static long toEpochMillis(final int year, final int month, final int day,
+                                      final int hour, final int minute, final int second, final int millis) {
+        if (year < 0 || month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)
+                || hour < 0 || hour > 23 || minute < 0 || minute > 59 || second < 0 || second > 59 || millis < 0) {
+            return INVALID;
+        }
+        return daysFromCivil(year, month, day) * MILLIS_PER_DAY
+                + hour * 3_600_000L + minute * 60_000L + second * 1000L + millis;
+    }
+
+    /**
+     * Converts a civil date to an epoch day, using the algorithm of Howard Hinnant's {@code days_from_civil}.
+     *
+     * @param year  the year
+     * @param month the month, 1 to 12
+     * @param day   the day of month
+     * @return the days since 1970-01-01
+     */
+    static long daysFromCivil(final long year, final int month, final int day) {
+        final long y = month <= 2 ? year - 1 : year;
+        final long era = Math.floorDiv(y, 400);
+        final long yearOfEra = y - era * 400;
+        final long dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+        final long dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146_097 + dayOfEra - 719_468;
+    }
+
+    /**
+     * Gets the number of days in a month of the proleptic Gregorian calendar.
+     *
+     * @param year  the year
+     * @param month the month, 1 to 12
+     * @return the length of the month
+     */
+    static int lengthOfMonth(final long year, final int month) {
+        if (month == 2) {
+            return (year % 4 == 0 && (year % 100 != 0 || year % 400 == 0)) ? 29 : 28;
+        }
+        return (month == 4 || month == 6 || month == 9 || month == 11) ? 30 : 31;
+    }
+
+    private static int digit(final int c) {
+        final int d = c - '0';
+        return d >= 0 && d <= 9 ? d : -1;
+    }
+
+    private static int digits(final int c1, final int c2) {
+        final int d1 = digit(c1);
+        final int d2 = digit(c2);
+        return (d1 | d2) < 0 ? -1 : d1 * 10 + d2;
+    }
+
+    private static int digits(final int c1, final int c2, final int c3) {
+        final int d1 = digits(c1, c2);
+        final int d3 = digit(c3);
+        return (d1 | d3) < 0 ? -1 : d1 * 10 + d3;
+    }
+
+    private static int digits(final int c1, final int c2, final int c3, final int c4) {
+        final int d1 = digits(c1, c2);
+        final int d3 = digits(c3, c4);
+        return (d1 | d3) < 0 ? -1 : d1 * 100 + d3;
+    }
+
+    private static void write2(final char[] buf, final int off, final int value) {
+        buf[off] = (char) ('0' + value / 10);
+        buf[off + 1] = (char) ('0' + value % 10);
+    }
+
+    private static void write3(final char[] buf, final int off, final int value) {
+        buf[off] = (char) ('0' + value / 100);
+        write2(buf, off + 1, value % 100);
+    }
+
+    private static void write4(final char[] buf, final int off, final int value) {
+        write2(buf, off, value / 100);
+        write2(buf, off + 2, value % 100);
+    }
+}
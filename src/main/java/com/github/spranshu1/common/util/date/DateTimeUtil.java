@@ -17,19 +17,26 @@
  */
 package com.github.spranshu1.common.util.date;
 
+import com.github.spranshu1.common.util.Assert;
 import com.github.spranshu1.common.util.string.StringUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.sql.Timestamp;
-import java.text.DateFormat;
+import java.nio.charset.StandardCharsets;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
+import java.time.DateTimeException;
 import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
-import java.util.Calendar;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
+import java.util.List;
 import java.util.TimeZone;
 
 /**
@@ -41,31 +48,65 @@ public final class DateTimeUtil {
      * The ISO date format {@value}
      */
     public static final String ISO_DATE_FMT = "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'";  // Quoted "Z" to indicate UTC, no timezone offset
+    /**
+     * The size of a buffer that holds any formatted timestamp.
+     */
+    public static final int MAX_FORMATTED_LENGTH = 32;
     /**
      * The logger.
      */
     private final static Logger logger = LoggerFactory.getLogger(DateTimeUtil.class);
     /**
-     * The constant for Timestamp format object
+     * The timestamp format {@value}
+     */
+    private static final String TIMESTAMP_FMT = "yyyy-MM-dd'T'HH:mm:ss.SSS";
+
+    /**
+     * The date format {@value}
+     */
+    private static final String DATE_FMT = "yyyy-MM-dd";
+
+    /**
+     * The constant for Timestamp format object, used for years outside 0000-9999.
      */
-    private static final DateFormat TF = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS");
+    private static final DateTimeFormatter TF = DateTimeFormatter.ofPattern(TIMESTAMP_FMT).withZone(ZoneOffset.UTC);
 
     /**
-     * The Constant for DateFormat object.
+     * The Constant for DateFormat object, used for years outside 0000-9999.
      */
-    private static final DateFormat DF = new SimpleDateFormat("yyyy-MM-dd");
+    private static final DateTimeFormatter DF = DateTimeFormatter.ofPattern(DATE_FMT).withZone(ZoneOffset.UTC);
 
     /**
      * The Constant for ISO DateFormat object.
      */
-    private static final DateFormat isoDF = new SimpleDateFormat(ISO_DATE_FMT);
+    private static final DateTimeFormatter isoDF = DateTimeFormatter.ofPattern(ISO_DATE_FMT).withZone(ZoneOffset.UTC);
 
-    static {
-        isoDF.setTimeZone(TimeZone.getTimeZone("UTC"));
-        DF.setTimeZone(TimeZone.getTimeZone("UTC"));
-        TF.setTimeZone(TimeZone.getTimeZone("UTC"));
-    }
+    /**
+     * The general ISO-8601 parser, for input not in the {@value ISO_DATE_FMT} layout. Assumes UTC if no offset is given.
+     */
+    private static final DateTimeFormatter GENERAL_ISO_DF = DateTimeFormatter.ISO_DATE_TIME.withZone(ZoneOffset.UTC);
+
+    /**
+     * The maximum number of patterns kept by each formatter cache.
+     */
+    private static final int FORMATTER_CACHE_SIZE = 256;
 
+    /**
+     * The compiled {@link DateTimeFormatter}s, by pattern.
+     */
+    private static final FormatterCache<DateTimeFormatter> DATE_TIME_FORMATTERS =
+            new FormatterCache<>(DateTimeFormatter::ofPattern, FORMATTER_CACHE_SIZE);
+
+    /**
+     * The compiled non-lenient {@link SimpleDateFormat} prototypes, by pattern. Never used directly, only cloned.
+     */
+    private static final FormatterCache<SimpleDateFormat> DATE_FORMATS =
+            new FormatterCache<>(DateTimeUtil::compileDateFormat, FORMATTER_CACHE_SIZE);
+
+    /**
+     * The clock used for the current time.
+     */
+    private static volatile ClockSource clockSource = ClockSource.SYSTEM;
 
     /**
      * Checks if firstDate date is equal to or greater than secondDate.
@@ -92,16 +133,45 @@ public final class DateTimeUtil {
 
 
     /**
-     * Gets current timestamp in system default locale.
+     * Gets current timestamp from the configured {@link ClockSource}.
      *
      * @return {@link Instant} current time-stamp
      */
     public static Instant getTimestamp() {
-        return new Timestamp(System.currentTimeMillis()).toInstant();
+        return clockSource.instant();
+    }
+
+    /**
+     * Gets the current time from the configured {@link ClockSource}, without allocating.
+     *
+     * @return the milliseconds since the epoch
+     */
+    public static long currentTimeMillis() {
+        return clockSource.currentTimeMillis();
+    }
+
+    /**
+     * Sets the clock used by {@link #getTimestamp()} and {@link #currentTimeMillis()}.
+     *
+     * @param source the clock source, e.g. a {@link CachedClockSource} for hot paths or a {@link ManualClockSource} in tests
+     */
+    public static void setClockSource(final ClockSource source) {
+        Assert.notNull(source, "The clock source must not be null");
+        clockSource = source;
+    }
+
+    /**
+     * Gets the clock used by {@link #getTimestamp()} and {@link #currentTimeMillis()}, {@link ClockSource#SYSTEM} by default.
+     *
+     * @return the clock source
+     */
+    public static ClockSource getClockSource() {
+        return clockSource;
     }
 
     /**
      * Convert string to {@link LocalDateTime}.
+     * The compiled pattern is cached, see {@link #getDateTimeFormatterCache()}.
      * Example,
      * <pre><code>
      * 	//Convert String to LocalDateTime
@@ -113,13 +183,51 @@ public final class DateTimeUtil {
      * @return the parsed {@link LocalDateTime} time
      */
     public static LocalDateTime stringToLocalDateTime(final String dateTime, final String format) {
-        final DateTimeFormatter formatter = DateTimeFormatter.ofPattern(format);
+        final DateTimeFormatter formatter = DATE_TIME_FORMATTERS.get(format);
         return (StringUtil.strFieldIsEmpty(dateTime)) ? null : LocalDateTime.parse(dateTime, formatter);
     }
 
+    /**
+     * Convert a column of strings to {@link LocalDateTime}, resolving the formatter once for all values.
+     * Empty values are converted to null, like {@link #stringToLocalDateTime(String, String)}.
+     * Example,
+     * <pre><code>
+     * 	List&lt;LocalDateTime&gt; result = DateTimeUtil.<b>parseAll</b>(new String[]{"10/06/2020 10:15", ""}, "dd/MM/uuuu HH:mm");
+     * </code></pre>
+     *
+     * @param values the date time strings
+     * @param format the format
+     * @return the parsed values, in input order
+     * @throws java.time.format.DateTimeParseException if a value cannot be parsed
+     */
+    public static List<LocalDateTime> parseAll(final CharSequence[] values, final String format) {
+        return parseAll(Arrays.asList(values), format);
+    }
+
+    /**
+     * Convert a column of strings to {@link LocalDateTime}, resolving the formatter once for all values.
+     * Empty values are converted to null, like {@link #stringToLocalDateTime(String, String)}.
+     *
+     * @param values the date time strings
+     * @param format the format
+     * @return the parsed values, in input order
+     * @throws java.time.format.DateTimeParseException if a value cannot be parsed
+     */
+    public static List<LocalDateTime> parseAll(final List<? extends CharSequence> values, final String format) {
+        final DateTimeFormatter formatter = DATE_TIME_FORMATTERS.get(format);
+        final List<LocalDateTime> result = new ArrayList<>(values.size());
+        for (CharSequence value : values) {
+            result.add(value == null || StringUtil.strFieldIsEmpty(value.toString())
+                    ? null : LocalDateTime.parse(value, formatter));
+        }
+        return result;
+    }
+
 
     /**
-     * Converts given String field 'dtField' to a Date object, using given date format 'dtFormat'.
+     * Converts given String field 'dtField' to a Date object, using given date format 'dtFormat',
+     * in the current default time zone.
+     * The compiled pattern is cached, see {@link #getDateFormatCache()}.
      *
      * @param dtField  String field which is to be converted to Date object
      * @param dtFormat String representing expected date pattern (as per SimpleDateFormat class)
@@ -128,8 +236,9 @@ public final class DateTimeUtil {
      */
     public static Date stringToDate(final String dtField, final String dtFormat) {
         Date retDate = null;
-        final SimpleDateFormat fmt = new SimpleDateFormat(dtFormat);
-        fmt.setLenient(false);
+        final SimpleDateFormat fmt = (SimpleDateFormat) DATE_FORMATS.get(dtFormat).clone();
+        // the prototype keeps the default zone of the time it was compiled, parse in the current one
+        fmt.setTimeZone(TimeZone.getDefault());
         try {
             retDate = fmt.parse(dtField);
         } catch (ParseException e) {
@@ -140,62 +249,219 @@ public final class DateTimeUtil {
     }
 
     /**
-     * Convert date to ISO {@value ISO_DATE_FMT} string format.
+     * Compiles a non-lenient {@link SimpleDateFormat}.
+     *
+     * @param pattern the pattern
+     * @return the date format
+     */
+    private static SimpleDateFormat compileDateFormat(final String pattern) {
+        final SimpleDateFormat fmt = new SimpleDateFormat(pattern);
+        fmt.setLenient(false);
+        return fmt;
+    }
+
+    /**
+     * Returns the cache of patterns compiled by {@link #stringToLocalDateTime(String, String)} and {@link #parseAll},
+     * for monitoring.
+     *
+     * @return the formatter cache
+     */
+    public static FormatterCache<DateTimeFormatter> getDateTimeFormatterCache() {
+        return DATE_TIME_FORMATTERS;
+    }
+
+    /**
+     * Returns the cache of patterns compiled by {@link #stringToDate(String, String)}, for monitoring.
+     *
+     * @return the formatter cache
+     */
+    public static FormatterCache<SimpleDateFormat> getDateFormatCache() {
+        return DATE_FORMATS;
+    }
+
+    /**
+     * Convert date to ISO {@value ISO_DATE_FMT} string format in UTC.
+     * Safe for concurrent use.
      *
      * @param date the date
      * @return the string
      */
     public static String dateToISOString(final Date date) {
-        return date == null ? null : isoDF.format(date);
+        return date == null ? null : dateToISOString(date.getTime());
     }
 
     /**
-     * Convert date to "yyyy-MM-dd" string format.
+     * Convert epoch millis to ISO {@value ISO_DATE_FMT} string format in UTC.
+     *
+     * @param epochMillis the epoch millis
+     * @return the string
+     */
+    public static String dateToISOString(final long epochMillis) {
+        if (!DateCodec.inRange(epochMillis)) {
+            return isoDF.format(Instant.ofEpochMilli(epochMillis));
+        }
+        final char[] buf = new char[DateCodec.ISO_LENGTH];
+        return new String(buf, 0, DateCodec.encodeIso(epochMillis, buf, 0));
+    }
+
+    /**
+     * Convert date to "yyyy-MM-dd" string format in UTC.
+     * Safe for concurrent use.
      *
      * @param date the date
      * @return the string
      */
     public static String dateToString(final Date date) {
-        return date == null ? null : DF.format(date);
+        return date == null ? null : dateToString(date.getTime());
+    }
+
+    /**
+     * Convert epoch millis to "yyyy-MM-dd" string format in UTC.
+     *
+     * @param epochMillis the epoch millis
+     * @return the string
+     */
+    public static String dateToString(final long epochMillis) {
+        if (!DateCodec.inRange(epochMillis)) {
+            return DF.format(Instant.ofEpochMilli(epochMillis));
+        }
+        final char[] buf = new char[DateCodec.DATE_LENGTH];
+        return new String(buf, 0, DateCodec.encodeDate(epochMillis, buf, 0));
     }
 
 
     /**
-     * Convert date to "yyyy-MM-dd'T'HH:mm:ss.SSS" timestamp string format.
+     * Convert date to "yyyy-MM-dd'T'HH:mm:ss.SSS" timestamp string format in UTC.
+     * Safe for concurrent use.
      *
      * @param date the date
      * @return the string
      */
     public static String timestampToString(final Date date) {
-        return date == null ? null : TF.format(date);
+        return date == null ? null : timestampToString(date.getTime());
+    }
+
+    /**
+     * Convert epoch millis to "yyyy-MM-dd'T'HH:mm:ss.SSS" timestamp string format in UTC.
+     *
+     * @param epochMillis the epoch millis
+     * @return the string
+     */
+    public static String timestampToString(final long epochMillis) {
+        if (!DateCodec.inRange(epochMillis)) {
+            return TF.format(Instant.ofEpochMilli(epochMillis));
+        }
+        final char[] buf = new char[DateCodec.TIMESTAMP_LENGTH];
+        return new String(buf, 0, DateCodec.encodeTimestamp(epochMillis, buf, 0));
+    }
+
+    /**
+     * Writes epoch millis in "yyyy-MM-dd'T'HH:mm:ss.SSS" timestamp format in UTC into the given buffer,
+     * without allocating for years 0000 to 9999.
+     * Example,
+     * <pre><code>
+     * 	char[] buf = new char[DateTimeUtil.MAX_FORMATTED_LENGTH];
+     * 	int len = DateTimeUtil.<b>formatTimestamp</b>(System.currentTimeMillis(), buf, 0);
+     * 	generator.writeString(buf, 0, len);
+     * </code></pre>
+     *
+     * @param epochMillis the epoch millis
+     * @param buf         the target buffer, with room for {@link #MAX_FORMATTED_LENGTH} chars from {@code off}
+     * @param off         the offset in the buffer
+     * @return the number of chars written
+     */
+    public static int formatTimestamp(final long epochMillis, final char[] buf, final int off) {
+        if (DateCodec.inRange(epochMillis)) {
+            return DateCodec.encodeTimestamp(epochMillis, buf, off);
+        }
+        final String formatted = TF.format(Instant.ofEpochMilli(epochMillis));
+        formatted.getChars(0, formatted.length(), buf, off);
+        return formatted.length();
     }
 
 
     /**
-     * Convert string to date format.
+     * Convert ISO {@value ISO_DATE_FMT} string to date.
+     * Safe for concurrent use, see {@link #parseIsoMillis(CharSequence)} for the accepted input.
      *
      * @param isoDateStr the iso date str
-     * @return the date
+     * @return the date, or null if the string is null or cannot be parsed
      */
     public static Date isoStringToDate(final String isoDateStr) {
+        if (isoDateStr == null) {
+            return null;
+        }
         try {
-            return isoDF.parse(isoDateStr);
-        } catch (ParseException e) {
+            return new Date(parseIsoMillis(isoDateStr));
+        } catch (DateTimeParseException e) {
             return null;
         }
     }
 
     /**
-     * Returns the minute part of the given input parameter date.
+     * Parses an ISO-8601 date-time to epoch millis.
+     * <p>
+     * Text in the canonical {@value ISO_DATE_FMT} layout is decoded straight from its fixed positions,
+     * without allocating. Any other ISO-8601 date-time, e.g. with an offset or without millis, goes through the
+     * general {@link DateTimeFormatter#ISO_DATE_TIME} parser and is read as UTC when it carries no offset.
+     * Example,
+     * <pre><code>
+     * 	long millis = DateTimeUtil.<b>parseIsoMillis</b>("2020-06-10T12:00:00.123Z"); // 1591790400123
+     * </code></pre>
+     *
+     * @param text the ISO-8601 text
+     * @return the epoch millis
+     * @throws DateTimeParseException if the text is not a valid ISO-8601 date-time
+     */
+    public static long parseIsoMillis(final CharSequence text) {
+        Assert.notNull(text, "The text to parse must not be null");
+        final long millis = DateCodec.decodeIso(text, 0, text.length());
+        return millis != DateCodec.INVALID ? millis : parseIsoGeneral(text);
+    }
+
+    /**
+     * Parses an ISO-8601 date-time from a slice of ASCII (or UTF-8) bytes to epoch millis,
+     * e.g. straight from a network buffer. Behaves as {@link #parseIsoMillis(CharSequence)}.
+     *
+     * @param buf the buffer
+     * @param off the offset of the first byte
+     * @param len the number of bytes
+     * @return the epoch millis
+     * @throws DateTimeParseException if the bytes are not a valid ISO-8601 date-time
+     */
+    public static long parseIsoMillis(final byte[] buf, final int off, final int len) {
+        final long millis = DateCodec.decodeIso(buf, off, len);
+        return millis != DateCodec.INVALID ? millis : parseIsoGeneral(new String(buf, off, len, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses any ISO-8601 date-time with the general parser.
+     *
+     * @param text the text
+     * @return the epoch millis
+     * @throws DateTimeParseException if the text is not a valid ISO-8601 date-time
+     */
+    private static long parseIsoGeneral(final CharSequence text) {
+        final TemporalAccessor parsed = GENERAL_ISO_DF.parse(text);
+        try {
+            return Instant.from(parsed).toEpochMilli();
+        } catch (DateTimeException | ArithmeticException e) {
+            throw new DateTimeParseException("Text '" + text + "' is out of range for an instant", text, 0, e);
+        }
+    }
+
+    /**
+     * Returns the minute part of the given input parameter date, in the system default time zone.
+     * See {@link EpochUtil} for field extraction in UTC or at a fixed offset.
      *
      * @param date
      *            {@link Date}
      * @return int minute in the date
      */
     public static int getMinute(Date date) {
-        Calendar cal = Calendar.getInstance();
-        cal.setTime(date);
-        return cal.get(Calendar.MINUTE);
+        final long millis = date.getTime();
+        final ZoneOffset offset = ZoneId.systemDefault().getRules().getOffset(Instant.ofEpochMilli(millis));
+        return EpochUtil.minuteOfHour(millis, offset.getTotalSeconds());
     }
 
 
@@ -0,0 +1,221 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.date;
+
+import com.github.spranshu1.common.util.Assert;
+
+/**
+ * Calendar field extraction on epoch millis, by plain arithmetic.
+ * <p>
+ * Every method works on a primitive {@code long} in UTC or at a fixed offset from UTC, in the
+ * proleptic Gregorian calendar, and allocates nothing, so they can be used from tight loops
+ * that aggregate events into time windows.
+ * <pre class="code">
+ *     EpochUtil.hourOfDay(1591790400123L) = 12
+ *     EpochUtil.hourOfDay(1591790400123L, 19800) = 17 // +05:30
+ *     EpochUtil.floorToBucket(1591790400123L, 300_000L) = 1591790400000 // 5 minute window
+ * </pre>
+ */
+public final class EpochUtil {
+
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+
+    private static final long MILLIS_PER_DAY = DateCodec.MILLIS_PER_DAY;
+
+    private EpochUtil() {
+        // constructor intentionally kept empty
+    }
+
+    /**
+     * Gets the minute of hour in UTC.
+     *
+     * @param epochMillis the epoch millis
+     * @return the minute, 0 to 59
+     */
+    public static int minuteOfHour(final long epochMillis) {
+        return minuteOfHour(epochMillis, 0);
+    }
+
+    /**
+     * Gets the minute of hour at a fixed offset.
+     *
+     * @param epochMillis   the epoch millis
+     * @param offsetSeconds the offset from UTC in seconds, e.g. {@code ZoneOffset.getTotalSeconds()}
+     * @return the minute, 0 to 59
+     */
+    public static int minuteOfHour(final long epochMillis, final int offsetSeconds) {
+        return (int) (Math.floorMod(local(epochMillis, offsetSeconds), MILLIS_PER_HOUR) / MILLIS_PER_MINUTE);
+    }
+
+    /**
+     * Gets the hour of day in UTC.
+     *
+     * @param epochMillis the epoch millis
+     * @return the hour, 0 to 23
+     */
+    public static int hourOfDay(final long epochMillis) {
+        return hourOfDay(epochMillis, 0);
+    }
+
+    /**
+     * Gets the hour of day at a fixed offset.
+     *
+     * @param epochMillis   the epoch millis
+     * @param offsetSeconds the offset from UTC in seconds
+     * @return the hour, 0 to 23
+     */
+    public static int hourOfDay(final long epochMillis, final int offsetSeconds) {
+        return (int) (Math.floorMod(local(epochMillis, offsetSeconds), MILLIS_PER_DAY) / MILLIS_PER_HOUR);
+    }
+
+    /**
+     * Gets the day of month in UTC.
+     *
+     * @param epochMillis the epoch millis
+     * @return the day, 1 to 31
+     */
+    public static int dayOfMonth(final long epochMillis) {
+        return dayOfMonth(epochMillis, 0);
+    }
+
+    /**
+     * Gets the day of month at a fixed offset.
+     *
+     * @param epochMillis   the epoch millis
+     * @param offsetSeconds the offset from UTC in seconds
+     * @return the day, 1 to 31
+     */
+    public static int dayOfMonth(final long epochMillis, final int offsetSeconds) {
+        return (int) (DateCodec.civilFromDays(epochDay(epochMillis, offsetSeconds)) & 0x1F);
+    }
+
+    /**
+     * Gets the ISO day of week in UTC.
+     *
+     * @param epochMillis the epoch millis
+     * @return the day of week, 1 (Monday) to 7 (Sunday)
+     */
+    public static int dayOfWeek(final long epochMillis) {
+        return dayOfWeek(epochMillis, 0);
+    }
+
+    /**
+     * Gets the ISO day of week at a fixed offset.
+     *
+     * @param epochMillis   the epoch millis
+     * @param offsetSeconds the offset from UTC in seconds
+     * @return the day of week, 1 (Monday) to 7 (Sunday)
+     */
+    public static int dayOfWeek(final long epochMillis, final int offsetSeconds) {
+        return isoDayOfWeek(epochDay(epochMillis, offsetSeconds));
+    }
+
+    /**
+     * Gets the ISO-8601 week of the week-based year in UTC.
+     *
+     * @param epochMillis the epoch millis
+     * @return the week, 1 to 53
+     */
+    public static int weekOfYear(final long epochMillis) {
+        return weekOfYear(epochMillis, 0);
+    }
+
+    /**
+     * Gets the ISO-8601 week of the week-based year at a fixed offset.
+     * Weeks start on Monday and week 1 is the week holding the first Thursday of the year.
+     *
+     * @param epochMillis   the epoch millis
+     * @param offsetSeconds the offset from UTC in seconds
+     * @return the week, 1 to 53
+     */
+    public static int weekOfYear(final long epochMillis, final int offsetSeconds) {
+        final long epochDay = epochDay(epochMillis, offsetSeconds);
+        final long thursday = epochDay - isoDayOfWeek(epochDay) + 4;
+        final long weekYear = DateCodec.civilFromDays(thursday) >> 9;
+        return (int) ((thursday - DateCodec.daysFromCivil(weekYear, 1, 1)) / 7 + 1);
+    }
+
+    /**
+     * Rounds down to the start of the fixed-size time bucket holding the instant, buckets are aligned to the epoch.
+     *
+     * @param epochMillis  the epoch millis
+     * @param bucketMillis the bucket size in milliseconds
+     * @return the start of the bucket in epoch millis
+     */
+    public static long floorToBucket(final long epochMillis, final long bucketMillis) {
+        return floorToBucket(epochMillis, bucketMillis, 0);
+    }
+
+    /**
+     * Rounds down to the start of the fixed-size time bucket holding the instant, buckets are aligned to
+     * local midnight at the given offset, e.g. daily buckets start at 00:00 local time.
+     *
+     * @param epochMillis   the epoch millis
+     * @param bucketMillis  the bucket size in milliseconds
+     * @param offsetSeconds the offset from UTC in seconds
+     * @return the start of the bucket in epoch millis
+     */
+    public static long floorToBucket(final long epochMillis, final long bucketMillis, final int offsetSeconds) {
+        Assert.isTrue(bucketMillis > 0, "The bucket size must be greater than zero");
+        final long local = local(epochMillis, offsetSeconds);
+        return local - Math.floorMod(local, bucketMillis) - offsetSeconds * 1000L;
+    }
+
+    /**
+     * Rounds up to the nearest bucket boundary, buckets are aligned to the epoch.
+     * An instant on a boundary is returned as it is.
+     *
+     * @param epochMillis  the epoch millis
+     * @param bucketMillis the bucket size in milliseconds
+     * @return the bucket boundary in epoch millis
+     */
+    public static long ceilToBucket(final long epochMillis, final long bucketMillis) {
+        return ceilToBucket(epochMillis, bucketMillis, 0);
+    }
+
+    /**
+     * Rounds up to the nearest bucket boundary, buckets are aligned to local midnight at the given offset.
+     * An instant on a boundary is returned as it is.
+     *
+     * @param epochMillis   the epoch millis
+     * @param bucketMillis  the bucket size in milliseconds
+     * @param offsetSeconds the offset from UTC in seconds
+     * @return the bucket boundary in epoch millis
+     */
+    public static long ceilToBucket(final long epochMillis, final long bucketMillis, final int offsetSeconds) {
+        final long floor = floorToBucket(epochMillis, bucketMillis, offsetSeconds);
+        return floor == epochMillis ? floor : floor + bucketMillis;
+    }
+
+    private static long local(final long epochMillis, final int offsetSeconds) {
+        return epochMillis + offsetSeconds * 1000L;
+    }
+
+    private static long epochDay(final long epochMillis, final int offsetSeconds) {
+        return Math.floorDiv(local(epochMillis, offsetSeconds), MILLIS_PER_DAY);
+    }
+
+    /**
+     * 1970-01-01 was a Thursday.
+     */
+    private static int isoDayOfWeek(final long epochDay) {
+        return (int) Math.floorMod(epochDay + 3, 7L) + 1;
+    }
+}
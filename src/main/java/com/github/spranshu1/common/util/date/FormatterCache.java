@@ -0,0 +1,147 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.date;
+
+import com.github.spranshu1.common.util.Assert;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * A bounded, concurrent cache of compiled date formatters keyed by pattern string.
+ * <p>
+ * Compiling a pattern is far more expensive than using the compiled formatter, so {@link DateTimeUtil}
+ * compiles every pattern once and keeps it here. When the cache is full an arbitrary entry is evicted,
+ * which keeps the hot path lock-free. Hit, miss and eviction counts are kept for monitoring.
+ *
+ * @param <F> the type of the compiled formatter
+ */
+public final class FormatterCache<F> {
+
+    private final ConcurrentMap<String, F> formatters = new ConcurrentHashMap<>();
+
+    private final Function<String, F> compiler;
+
+    private final int maxSize;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Instantiates a new formatter cache.
+     *
+     * @param compiler the function compiling a pattern
+     * @param maxSize  the maximum number of cached patterns
+     */
+    FormatterCache(final Function<String, F> compiler, final int maxSize) {
+        Assert.isTrue(maxSize > 0, "The cache size must be greater than zero");
+        this.compiler = compiler;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the compiled formatter of a pattern, compiling it on first use.
+     *
+     * @param pattern the pattern
+     * @return the compiled formatter
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    F get(final String pattern) {
+        F formatter = formatters.get(pattern);
+        if (formatter != null) {
+            hits.increment();
+            return formatter;
+        }
+        misses.increment();
+        formatter = compiler.apply(pattern);
+        if (formatters.size() >= maxSize) {
+            final Iterator<String> keys = formatters.keySet().iterator();
+            if (keys.hasNext()) {
+                keys.next();
+                keys.remove();
+                evictions.increment();
+            }
+        }
+        final F existing = formatters.putIfAbsent(pattern, formatter);
+        return existing == null ? formatter : existing;
+    }
+
+    /**
+     * Gets the number of lookups served from the cache.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of lookups that compiled the pattern.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of patterns evicted to keep the cache within its bound.
+     *
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Gets the number of cached patterns.
+     *
+     * @return the size
+     */
+    public int size() {
+        return formatters.size();
+    }
+
+    /**
+     * Gets the maximum number of cached patterns.
+     *
+     * @return the max size
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Removes all cached patterns, the statistics are kept.
+     */
+    public void clear() {
+        formatters.clear();
+    }
+
+    @Override
+    public String toString() {
+        return "FormatterCache{size=" + size() + ", hits=" + getHitCount() + ", misses=" + getMissCount()
+                + ", evictions=" + getEvictionCount() + '}';
+    }
+}
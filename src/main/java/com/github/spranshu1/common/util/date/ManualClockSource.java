@@ -0,0 +1,72 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.date;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A clock that only moves when told to, for tests.
+ * <pre class="code">
+ *     ManualClockSource clock = new ManualClockSource(0);
+ *     DateTimeUtil.setClockSource(clock);
+ *     clock.advance(5, TimeUnit.SECONDS);
+ *     DateTimeUtil.currentTimeMillis() = 5000
+ * </pre>
+ */
+public final class ManualClockSource implements ClockSource {
+
+    /**
+     * The current time.
+     */
+    private final AtomicLong now;
+
+    /**
+     * Instantiates a new manual clock.
+     *
+     * @param epochMillis the initial time in milliseconds since the epoch
+     */
+    public ManualClockSource(final long epochMillis) {
+        this.now = new AtomicLong(epochMillis);
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return now.get();
+    }
+
+    /**
+     * Sets the current time.
+     *
+     * @param epochMillis the milliseconds since the epoch
+     */
+    public void set(final long epochMillis) {
+        now.set(epochMillis);
+    }
+
+    /**
+     * Moves the clock forward, or backward for a negative amount.
+     *
+     * @param amount the amount
+     * @param unit   the unit of the amount
+     * @return the new time in milliseconds since the epoch
+     */
+    public long advance(final long amount, final TimeUnit unit) {
+        return now.addAndGet(unit.toMillis(amount));
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.date;
+
+/**
+ * A clock that never goes backwards.
+ * <p>
+ * The wall-clock time is read once when the clock is created, after that time advances by
+ * {@link System#nanoTime()}, so adjustments of the system clock (NTP steps, manual changes) are not observed.
+ */
+public final class MonotonicClockSource implements ClockSource {
+
+    /**
+     * The wall-clock time at creation.
+     */
+    private final long originMillis;
+
+    /**
+     * The {@link System#nanoTime()} at creation.
+     */
+    private final long originNanos;
+
+    /**
+     * Instantiates a new monotonic clock, anchored at the current wall-clock time.
+     */
+    public MonotonicClockSource() {
+        this.originMillis = System.currentTimeMillis();
+        this.originNanos = System.nanoTime();
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return originMillis + (System.nanoTime() - originNanos) / 1_000_000L;
+    }
+}
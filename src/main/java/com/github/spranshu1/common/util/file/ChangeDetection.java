@@ -0,0 +1,39 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.file;
+
+/**
+ * How an incremental zip decides that a file is unchanged since the existing archive was written,
+ * so that its entry is copied as it is instead of being compressed again.
+ *
+ * @see ZipOptions.ZipOptionsBuilder#withIncremental(ChangeDetection)
+ */
+public enum ChangeDetection {
+
+    /**
+     * Unchanged when the size and the modification time match the entry, to the 2 seconds of a zip timestamp.
+     * Reads nothing but the file attributes.
+     */
+    SIZE_AND_TIME,
+
+    /**
+     * Unchanged when the size and the CRC-32 of the content match the entry.
+     * Reads every file of the same size, for sources whose modification times are not reliable.
+     */
+    CONTENT
+}
@@ -0,0 +1,274 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.file;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * The I/O core shared by the zip and unzip paths.
+ * <p>
+ * File data moves with {@link FileChannel#transferTo(long, long, WritableByteChannel)} where both ends allow it,
+ * so the kernel copies it without a pass through the heap. Otherwise it is copied through a buffer pooled per
+ * thread, of {@link #DEFAULT_BUFFER_SIZE} bytes unless a larger one is asked for.
+ */
+final class ChannelIO {
+
+    /**
+     * The default copy buffer size, 64 KB.
+     */
+    static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Files at least this large are checksummed through a memory mapping rather than read.
+     */
+    private static final long MAP_THRESHOLD = 4L * 1024 * 1024;
+
+    /**
+     * The largest region mapped at once.
+     */
+    private static final long MAP_SEGMENT = 256L * 1024 * 1024;
+
+    private static final ThreadLocal<byte[]> BUFFERS = new ThreadLocal<>();
+
+    private ChannelIO() {
+        // constructor intentionally kept empty
+    }
+
+    /**
+     * Gets the copy buffer of the current thread, at least {@code size} bytes long.
+     * The buffer is reused by every later call on the thread, so it must not be held across calls.
+     *
+     * @param size the minimum size in bytes
+     * @return the buffer
+     */
+    static byte[] buffer(final int size) {
+        byte[] buffer = BUFFERS.get();
+        if (buffer == null || buffer.length < size) {
+            buffer = new byte[size];
+            BUFFERS.set(buffer);
+        }
+        return buffer;
+    }
+
+    /**
+     * Reads the first bytes of a file.
+     *
+     * @param file   the file
+     * @param length the number of bytes, fewer are returned if the file is shorter
+     * @return the bytes read, as a heap buffer
+     * @throws IOException the io exception
+     */
+    static ByteBuffer readPrefix(final Path file, final int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        if (length == 0) {
+            return buffer;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long position = 0;
+            while (buffer.hasRemaining()) {
+                final int read = channel.read(buffer, position);
+                if (read < 0) {
+                    break;
+                }
+                position += read;
+            }
+        }
+        return ByteBuffer.wrap(buffer.array(), 0, buffer.position());
+    }
+
+    /**
+     * Computes the CRC-32 of the first {@code size} bytes of a file in one pass,
+     * through a memory mapping for large files.
+     *
+     * @param file the file
+     * @param size the number of bytes
+     * @return the CRC-32
+     * @throws IOException the io exception, if the file is shorter than {@code size}
+     */
+    static long crc32(final Path file, final long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return crc32(channel, 0, size);
+        } catch (EOFException e) {
+            throw truncated(file);
+        }
+    }
+
+    /**
+     * Computes the CRC-32 of a region of a file channel in one pass, without moving the position of the channel,
+     * through a memory mapping for large regions.
+     *
+     * @param channel  the channel
+     * @param position the start of the region
+     * @param size     the length of the region
+     * @return the CRC-32
+     * @throws IOException the io exception, {@link EOFException} if the channel ends before the region
+     */
+    static long crc32(final FileChannel channel, final long position, final long size) throws IOException {
+        final CRC32 crc = new CRC32();
+        if (channel.size() - position < size) {
+            throw new EOFException("Unexpected end of data at position " + channel.size());
+        }
+        if (size >= MAP_THRESHOLD) {
+            for (long done = 0; done < size; done += MAP_SEGMENT) {
+                crc.update(channel.map(FileChannel.MapMode.READ_ONLY, position + done, Math.min(MAP_SEGMENT, size - done)));
+            }
+        } else {
+            final byte[] buffer = buffer(DEFAULT_BUFFER_SIZE);
+            final ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+            long done = 0;
+            while (done < size) {
+                final int read = readAt(channel, wrapped, position + done, size - done);
+                if (read < 0) {
+                    throw new EOFException("Unexpected end of data at position " + (position + done));
+                }
+                crc.update(buffer, 0, read);
+                done += read;
+            }
+        }
+        return crc.getValue();
+    }
+
+    /**
+     * Copies the first {@code size} bytes of a file to a stream.
+     *
+     * @param file   the file
+     * @param size   the number of bytes
+     * @param out    the target stream
+     * @param buffer the copy buffer
+     * @throws IOException the io exception, if the file is shorter than {@code size}
+     */
+    static void copy(final Path file, final long size, final OutputStream out, final byte[] buffer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < size) {
+                throw truncated(file);
+            }
+            copy(channel, 0, size, out, buffer);
+        }
+    }
+
+    /**
+     * Copies a region of a file channel to a stream, without moving the position of the channel.
+     *
+     * @param source   the source channel
+     * @param position the start of the region
+     * @param size     the length of the region
+     * @param out      the target stream
+     * @param buffer   the copy buffer
+     * @throws IOException the io exception, {@link EOFException} if the source ends before the region
+     */
+    static void copy(final FileChannel source, final long position, final long size, final OutputStream out,
+                     final byte[] buffer) throws IOException {
+        final ByteBuffer wrapped = ByteBuffer.wrap(buffer);
+        long done = 0;
+        while (done < size) {
+            final int read = readAt(source, wrapped, position + done, size - done);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of data at position " + (position + done));
+            }
+            out.write(buffer, 0, read);
+            done += read;
+        }
+    }
+
+    /**
+     * Transfers the first {@code size} bytes of a file to a channel.
+     *
+     * @param file   the file
+     * @param size   the number of bytes
+     * @param target the target channel
+     * @throws IOException the io exception, if the file is shorter than {@code size}
+     */
+    static void transfer(final Path file, final long size, final WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < size) {
+                throw truncated(file);
+            }
+            transfer(channel, 0, size, target);
+        }
+    }
+
+    /**
+     * Transfers a region of a file channel to another channel, without moving the position of the source.
+     *
+     * @param source   the source channel
+     * @param position the start of the region
+     * @param size     the length of the region
+     * @param target   the target channel
+     * @throws IOException the io exception, {@link EOFException} if the source ends before the region
+     */
+    static void transfer(final FileChannel source, final long position, final long size,
+                         final WritableByteChannel target) throws IOException {
+        long done = 0;
+        while (done < size) {
+            final long n = source.transferTo(position + done, size - done, target);
+            if (n <= 0 && position + done >= source.size()) {
+                throw new EOFException("Unexpected end of data at position " + (position + done));
+            }
+            done += n;
+        }
+    }
+
+    /**
+     * Copies a stream to its end.
+     *
+     * @param in     the source stream
+     * @param out    the target stream
+     * @param buffer the copy buffer
+     * @return the number of bytes copied
+     * @throws IOException the io exception
+     */
+    static long copy(final InputStream in, final OutputStream out, final byte[] buffer) throws IOException {
+        long copied = 0;
+        int len;
+        while ((len = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, len);
+            copied += len;
+        }
+        return copied;
+    }
+
+    /**
+     * Reads at most {@code remaining} bytes at a position into the start of the buffer.
+     *
+     * @return the number of bytes read, -1 at the end of the channel
+     */
+    private static int readAt(final FileChannel channel, final ByteBuffer buffer, final long position,
+                              final long remaining) throws IOException {
+        // through Buffer, the ByteBuffer overrides do not exist before Java 9
+        final Buffer view = buffer;
+        view.clear();
+        if (remaining < buffer.capacity()) {
+            view.limit((int) remaining);
+        }
+        return channel.read(buffer, position);
+    }
+
+    private static IOException truncated(final Path file) {
+        return new IOException("File " + file + " was truncated while it was being zipped");
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.file;
+
+import com.github.spranshu1.common.util.Assert;
+
+import java.nio.ByteBuffer;
+import java.util.zip.Deflater;
+
+/**
+ * Decides how every entry of an archive is compressed.
+ * <p>
+ * A policy returns a deflate level per entry, or {@link #STORE} to write the entry uncompressed, which
+ * is far cheaper for content that is already compressed (images, video, gz, parquet...).
+ * A policy that wants to look at the content asks for a sample of the first bytes of every entry
+ * through {@link #getSampleSize()}.
+ *
+ * @see StandardCompressionPolicy
+ */
+@FunctionalInterface
+public interface CompressionPolicy {
+
+    /**
+     * The level of entries written without compression, as {@link java.util.zip.ZipEntry#STORED}.
+     */
+    int STORE = Deflater.NO_COMPRESSION;
+
+    /**
+     * Gets the compression level of an entry.
+     *
+     * @param name   the entry name
+     * @param size   the uncompressed size, or -1 if it is not known before the entry is written
+     * @param sample the first bytes of the entry, empty if no sample was asked for or the size is not known
+     * @return {@link #STORE}, or a deflate level from {@link Deflater#BEST_SPEED} to
+     * {@link Deflater#BEST_COMPRESSION} or {@link Deflater#DEFAULT_COMPRESSION}
+     */
+    int compressionLevel(String name, long size, ByteBuffer sample);
+
+    /**
+     * Gets the number of leading bytes the policy wants to sample, 0 for none.
+     *
+     * @return the sample size
+     */
+    default int getSampleSize() {
+        return 0;
+    }
+
+    /**
+     * Gets a policy compressing every entry at the same level.
+     *
+     * @param level the deflate level, or {@link #STORE}
+     * @return the compression policy
+     */
+    static CompressionPolicy fixed(final int level) {
+        Assert.isTrue(level == Deflater.DEFAULT_COMPRESSION
+                        || (level >= Deflater.NO_COMPRESSION && level <= Deflater.BEST_COMPRESSION),
+                "The compression level must be between 0 and 9, or -1 for the default");
+        return (name, size, sample) -> level;
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.file;
+
+import com.github.spranshu1.common.util.Messages;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipException;
+
+/**
+ * Keeps an extraction inside its destination directory and within the limits of its {@link UnzipOptions}.
+ * <p>
+ * Entry names are normalised and must resolve under the destination. Every directory is created one level at a
+ * time and its real path is checked once, so a symbolic link already in the destination cannot lead outside of it,
+ * and files are opened without following links. Extracted bytes are counted by the copy loops as they are written,
+ * the first chunk over a limit aborts the whole extraction, on every thread.
+ * <p>
+ * Directories must be created from a single thread, counting is thread-safe.
+ */
+final class ExtractionGuard {
+
+    /**
+     * The options extracted files are opened with.
+     */
+    static final OpenOption[] WRITE_OPTIONS = {StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE, LinkOption.NOFOLLOW_LINKS};
+
+    private final Path root;
+
+    private final Path realRoot;
+
+    private final Set<Path> directories = new HashSet<>();
+
+    private final long maxTotalSize;
+
+    private final int maxEntries;
+
+    private final double maxCompressionRatio;
+
+    private final AtomicLong totalSize = new AtomicLong();
+
+    private volatile boolean aborted;
+
+    /**
+     * Instantiates a new extraction guard, creating the destination if missing.
+     *
+     * @param destination the destination directory
+     * @param options     the options holding the limits
+     * @throws IOException the io exception
+     */
+    ExtractionGuard(final Path destination, final UnzipOptions options) throws IOException {
+        this.root = destination.toAbsolutePath().normalize();
+        Files.createDirectories(root);
+        this.realRoot = root.toRealPath();
+        this.directories.add(root);
+        this.maxTotalSize = options.getMaxTotalSize();
+        this.maxEntries = options.getMaxEntries();
+        this.maxCompressionRatio = options.getMaxCompressionRatio();
+    }
+
+    /**
+     * Resolves an entry name against the destination, rejecting names that escape it.
+     *
+     * @param name the entry name
+     * @return the normalised target path
+     * @throws ZipException if the entry is outside of the destination
+     */
+    Path resolve(final String name) throws ZipException {
+        final Path target = root.resolve(name).normalize();
+        if (!target.startsWith(root) || target.equals(root)) {
+            throw new ZipException(Messages.ERR_UNZIP_OUTSIDE + name);
+        }
+        return target;
+    }
+
+    /**
+     * Creates a directory returned by {@link #resolve(String)} and its missing parents,
+     * checking the real path of every one not seen before.
+     *
+     * @param directory the directory
+     * @throws IOException the io exception, {@link ZipException} if the directory leads outside of the destination
+     */
+    void createDirectory(final Path directory) throws IOException {
+        if (directories.contains(directory)) {
+            return;
+        }
+        createDirectory(directory.getParent());
+        if (!Files.exists(directory, LinkOption.NOFOLLOW_LINKS)) {
+            Files.createDirectory(directory);
+        }
+        if (!directory.toRealPath().startsWith(realRoot)) {
+            throw new ZipException(Messages.ERR_UNZIP_OUTSIDE + root.relativize(directory));
+        }
+        directories.add(directory);
+    }
+
+    /**
+     * Checks the number of entries to extract.
+     *
+     * @param entries the number of entries
+     * @throws ZipException if there are too many
+     */
+    void checkEntries(final long entries) throws ZipException {
+        if (entries > maxEntries) {
+            throw abort(Messages.ERR_UNZIP_MAX_ENTRIES + maxEntries);
+        }
+    }
+
+    /**
+     * Checks the sizes the central directory declares before anything is extracted.
+     *
+     * @param declaredSize the sum of the uncompressed sizes of the entries to extract
+     * @throws ZipException if it is over the total size limit
+     */
+    void checkDeclaredSize(final long declaredSize) throws ZipException {
+        if (declaredSize > maxTotalSize) {
+            throw abort(Messages.ERR_UNZIP_MAX_SIZE + maxTotalSize);
+        }
+    }
+
+    /**
+     * Counts bytes about to be written for an entry.
+     *
+     * @param name           the entry name
+     * @param length         the number of bytes about to be written
+     * @param written        the number of bytes of the entry including them
+     * @param compressedSize the compressed size of the entry, -1 if unknown
+     * @param size           the declared uncompressed size of the entry, -1 if unknown
+     * @throws ZipException if a limit is crossed, or the extraction was aborted on another thread
+     */
+    void count(final String name, final long length, final long written, final long compressedSize,
+               final long size) throws ZipException {
+        if (aborted) {
+            throw new ZipException("Extraction aborted");
+        }
+        if (totalSize.addAndGet(length) > maxTotalSize) {
+            throw abort(Messages.ERR_UNZIP_MAX_SIZE + maxTotalSize);
+        }
+        if (size >= 0 && written > size) {
+            throw abort(Messages.ERR_UNZIP_ENTRY_SIZE + name);
+        }
+        if (compressedSize >= 0) {
+            checkRatio(name, written, compressedSize);
+        }
+    }
+
+    /**
+     * Checks the compression ratio of data being inflated.
+     *
+     * @param name           the name of the entry, or archive
+     * @param written        the number of bytes inflated so far
+     * @param compressedSize the compressed size of the data
+     * @throws ZipException if the ratio is over the limit
+     */
+    void checkRatio(final String name, final long written, final long compressedSize) throws ZipException {
+        if (written > UnzipOptions.RATIO_GRACE_SIZE && written > compressedSize * maxCompressionRatio) {
+            throw abort(Messages.ERR_UNZIP_MAX_RATIO + name);
+        }
+    }
+
+    private ZipException abort(final String message) {
+        aborted = true;
+        return new ZipException(message);
+    }
+}
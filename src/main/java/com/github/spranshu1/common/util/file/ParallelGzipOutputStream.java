@@ -0,0 +1,210 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.file;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * Gzips a stream as a sequence of independent gzip members, compressed in parallel.
+ * <p>
+ * Written bytes are gathered in blocks of {@code blockSize}, every block is deflated into a complete gzip member
+ * of its own on the pool, and the members are written in order with a bounded number in flight. Concatenated
+ * members are a valid gzip file, which {@code gunzip} and {@link java.util.zip.GZIPInputStream} read as one stream.
+ * Not thread-safe.
+ */
+final class ParallelGzipOutputStream extends OutputStream {
+
+    private static final int GZIP_MAGIC = 0x8b1f;
+
+    /**
+     * The operating system field of the gzip header: Unix.
+     */
+    private static final int OS_UNIX = 3;
+
+    private final OutputStream out;
+
+    private final ExecutorService pool;
+
+    private final int level;
+
+    private final int blockSize;
+
+    private final int maxInFlight;
+
+    private final ArrayDeque<Future<byte[]>> inFlight = new ArrayDeque<>();
+
+    private byte[] block;
+
+    private int count;
+
+    private boolean written;
+
+    private boolean finished;
+
+    /**
+     * Instantiates a new parallel gzip output stream.
+     *
+     * @param out       the target stream, written in whole members
+     * @param pool      the pool compressing the blocks
+     * @param threads   the number of threads of the pool
+     * @param level     the deflate level
+     * @param blockSize the number of uncompressed bytes in a member
+     */
+    ParallelGzipOutputStream(final OutputStream out, final ExecutorService pool, final int threads,
+                             final int level, final int blockSize) {
+        this.out = out;
+        this.pool = pool;
+        this.level = level;
+        this.blockSize = blockSize;
+        this.maxInFlight = threads * 2;
+        this.block = new byte[blockSize];
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        if (count == blockSize) {
+            submit();
+        }
+        block[count++] = (byte) b;
+    }
+
+    @Override
+    public void write(final byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            if (count == blockSize) {
+                submit();
+            }
+            final int n = Math.min(len, blockSize - count);
+            System.arraycopy(b, off, block, count, n);
+            count += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    /**
+     * Compresses the last block and writes all pending members, without closing the target.
+     *
+     * @throws IOException the io exception
+     */
+    void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (count > 0 || !written) {
+            // an empty input still makes one empty member
+            submit();
+        }
+        drain(0);
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void submit() throws IOException {
+        drain(maxInFlight - 1);
+        final byte[] data = block;
+        final int length = count;
+        inFlight.add(pool.submit(() -> member(data, length, level)));
+        written = true;
+        block = new byte[blockSize];
+        count = 0;
+    }
+
+    /**
+     * Writes finished members, in order, until at most {@code limit} are in flight.
+     */
+    private void drain(final int limit) throws IOException {
+        while (inFlight.size() > limit) {
+            out.write(await(inFlight.poll()));
+        }
+    }
+
+    /**
+     * Compresses a block into a complete gzip member.
+     *
+     * @param data   the block
+     * @param length the number of bytes of the block
+     * @param level  the deflate level
+     * @return the member, header and trailer included
+     */
+    static byte[] member(final byte[] data, final int length, final int level) {
+        final CRC32 crc = new CRC32();
+        crc.update(data, 0, length);
+        final Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            byte[] output = new byte[Math.max(64, length / 2)];
+            output[0] = (byte) GZIP_MAGIC;
+            output[1] = (byte) (GZIP_MAGIC >> 8);
+            output[2] = Deflater.DEFLATED;
+            output[9] = OS_UNIX;
+            int written = 10;
+            while (!deflater.finished()) {
+                if (written == output.length) {
+                    output = Arrays.copyOf(output, output.length * 2);
+                }
+                written += deflater.deflate(output, written, output.length - written);
+            }
+            output = Arrays.copyOf(output, written + 8);
+            putInt(output, written, crc.getValue());
+            putInt(output, written + 4, length);
+            return output;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void putInt(final byte[] b, final int off, final long value) {
+        b[off] = (byte) value;
+        b[off + 1] = (byte) (value >> 8);
+        b[off + 2] = (byte) (value >> 16);
+        b[off + 3] = (byte) (value >> 24);
+    }
+
+    /**
+     * Waits for a member, rethrowing its failure.
+     */
+    private static byte[] await(final Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Gzip interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Gzip failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.file;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * Extracts a zip archive through its central directory, with the entries inflated concurrently.
+ * <p>
+ * The central directory is read once into a {@link ZipIndex} to select the entries, check them against the
+ * {@link ExtractionGuard} and create every target directory up front, then the selected files are extracted on a fixed pool with positional reads of the archive.
+ * {@link ZipEntry#STORED} entries are transferred from the archive to their file channel to channel, compressed
+ * ones are inflated through the pooled copy buffer of the worker thread.
+ * Bytes, entries and the time of every phase are reported to the {@link ZipProgressListener} of the options.
+ */
+final class ParallelUnzipper {
+
+    private ParallelUnzipper() {
+        // constructor intentionally kept empty
+    }
+
+    /**
+     * Extracts the selected entries of an archive.
+     *
+     * @param zip         the archive
+     * @param destination the destination directory, created if missing
+     * @param options     the options
+     * @return the number of files extracted
+     * @throws IOException the io exception
+     */
+    static int unzip(final Path zip, final Path destination, final UnzipOptions options) throws IOException {
+        final ProgressTracker progress = new ProgressTracker(options.getProgressListener());
+        final long start = System.nanoTime();
+        try (ZipArchiveReader reader = ZipArchiveReader.open(zip)) {
+            final ExtractionGuard guard = new ExtractionGuard(destination, options);
+            final ZipIndex index = reader.getIndex();
+            // keyed by target, so that an entry repeated in the archive is extracted once, the last one winning
+            // as it does when the archive is extracted sequentially
+            final Map<Path, Integer> files = new LinkedHashMap<>();
+            final Set<Path> directories = new LinkedHashSet<>();
+            long declaredSize = 0;
+            for (int entry = 0; entry < index.size(); entry++) {
+                final String name = index.getName(entry);
+                if (!options.getEntryFilter().test(name)) {
+                    continue;
+                }
+                final Path target = guard.resolve(name);
+                if (name.endsWith("/")) {
+                    directories.add(target);
+                } else {
+                    directories.add(target.getParent());
+                    final Integer replaced = files.put(target, entry);
+                    if (replaced != null) {
+                        declaredSize -= index.getSize(replaced);
+                    }
+                    guard.checkEntries(files.size());
+                    declaredSize += index.getSize(entry);
+                }
+            }
+            guard.checkDeclaredSize(declaredSize);
+            for (Path directory : directories) {
+                guard.createDirectory(directory);
+            }
+            progress.addTime(ZipPhase.WALK, start);
+            extract(reader, files, options, guard, progress);
+            progress.complete();
+            return files.size();
+        }
+    }
+
+    private static void extract(final ZipArchiveReader reader, final Map<Path, Integer> files,
+                                final UnzipOptions options, final ExtractionGuard guard,
+                                final ProgressTracker progress) throws IOException {
+        final int threads = Math.min(options.getThreads(), Math.max(1, files.size()));
+        final ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>(files.size());
+            for (Map.Entry<Path, Integer> file : files.entrySet()) {
+                final int entry = file.getValue();
+                final Path target = file.getKey();
+                futures.add(pool.submit(() -> {
+                    if (reader.getIndex().getMethod(entry) == ZipEntry.STORED) {
+                        transfer(reader, entry, target, guard, progress);
+                    } else {
+                        copy(reader, entry, target, ChannelIO.buffer(options.getBufferSize()), guard, progress);
+                    }
+                    progress.entryDone(reader.getIndex().getName(entry));
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                await(future);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Transfers a stored entry from the archive to its file, once the CRC-32 of its region matches the index.
+     */
+    private static void transfer(final ZipArchiveReader reader, final int entry, final Path target,
+                                 final ExtractionGuard guard, final ProgressTracker progress) throws IOException {
+        final ZipIndex index = reader.getIndex();
+        final long size = index.getSize(entry);
+        if (index.getCompressedSize(entry) != size) {
+            throw new ZipException("Invalid size of stored entry " + index.getName(entry));
+        }
+        guard.count(index.getName(entry), size, size, size, size);
+        final long start = System.nanoTime();
+        final FileChannel archive = reader.getChannel();
+        final long position = index.getDataOffset(archive, entry);
+        // the archive is read only, so the region checked is the region transferred
+        final long crc = ChannelIO.crc32(archive, position, size);
+        if (crc != index.getCrc(entry)) {
+            throw new ZipException("Invalid CRC-32 of entry " + index.getName(entry) + ": expected "
+                    + Long.toHexString(index.getCrc(entry)) + ", found " + Long.toHexString(crc));
+        }
+        try (FileChannel out = FileChannel.open(target, ExtractionGuard.WRITE_OPTIONS)) {
+            ChannelIO.transfer(archive, position, size, out);
+        }
+        progress.addTime(ZipPhase.WRITE, start);
+        progress.addBytesRead(size);
+        progress.addBytesWritten(size);
+    }
+
+    /**
+     * Inflates a compressed entry to its file, counting every chunk against the limits before it is written.
+     * The entry stream checks the size and CRC-32 of the content at its end.
+     */
+    private static void copy(final ZipArchiveReader reader, final int entry, final Path target, final byte[] buffer,
+                             final ExtractionGuard guard, final ProgressTracker progress) throws IOException {
+        final ZipIndex index = reader.getIndex();
+        final String name = index.getName(entry);
+        final long compressedSize = index.getCompressedSize(entry);
+        final long size = index.getSize(entry);
+        try (InputStream in = reader.getInputStream(entry);
+             OutputStream out = Files.newOutputStream(target, ExtractionGuard.WRITE_OPTIONS)) {
+            long inflateNanos = 0;
+            long writeNanos = 0;
+            long written = 0;
+            int len;
+            while (true) {
+                final long readStart = System.nanoTime();
+                len = in.read(buffer);
+                final long writeStart = System.nanoTime();
+                inflateNanos += writeStart - readStart;
+                if (len < 0) {
+                    break;
+                }
+                written += len;
+                guard.count(name, len, written, compressedSize, size);
+                out.write(buffer, 0, len);
+                writeNanos += System.nanoTime() - writeStart;
+            }
+            if (written != size) {
+                throw new ZipException("Entry " + name + " inflated to " + written + " of its " + size + " bytes");
+            }
+            progress.addNanos(ZipPhase.INFLATE, inflateNanos);
+            progress.addNanos(ZipPhase.WRITE, writeNanos);
+            progress.addBytesRead(compressedSize);
+            progress.addBytesWritten(written);
+        }
+    }
+
+    /**
+     * Waits for an entry, rethrowing its failure.
+     */
+    private static void await(final Future<?> future) throws IOException {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Unzip interrupted", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Unzip failed", cause);
+        }
+    }
+}
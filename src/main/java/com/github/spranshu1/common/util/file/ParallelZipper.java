@@ -0,0 +1,500 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.file;
+
+import com.github.spranshu1.common.util.Messages;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+/**
+ * Zips files with their chunks deflated in parallel, the way pigz does for gzip.
+ * <p>
+ * Every chunk is deflated on its own with the last 32 KB before it as the preset dictionary, and all but the
+ * last chunk of a file end on a sync flush, so the compressed chunks concatenate into one valid deflate stream.
+ * The CRC-32 of the file is combined from the CRCs of its chunks. The calling thread walks the source and
+ * writes the finished chunks in order, with a bounded number of chunks in flight, so memory stays at about
+ * {@code 2 * threads * chunkSize} whatever the size of the source.
+ * <p>
+ * Files the {@link CompressionPolicy} stores are checksummed on the pool and transferred as they are to the
+ * archive by the writer, channel to channel.
+ * Bytes, entries and the time of every phase are reported to the {@link ZipProgressListener} of the options.
+ * <p>
+ * In incremental mode the archive is written next to the existing one, which then replaces it. The entries of
+ * unchanged files are copied from the existing archive still compressed, in order with the new entries.
+ */
+final class ParallelZipper {
+
+    /** The constant logger */
+    private static final Logger log = LoggerFactory.getLogger(ParallelZipper.class);
+
+    /**
+     * The deflate window, the most a chunk can refer back to.
+     */
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private final ZipOptions options;
+
+    private final ExecutorService pool;
+
+    private final ArrayDeque<PendingChunk> inFlight = new ArrayDeque<>();
+
+    private final int maxInFlight;
+
+    private final ProgressTracker progress;
+
+    private final ZipArchiveReader previous;
+
+    private long reportedBytes;
+
+    private ParallelZipper(final ZipOptions options, final ExecutorService pool, final ZipArchiveReader previous) {
+        this.options = options;
+        this.pool = pool;
+        this.previous = previous;
+        this.maxInFlight = options.getThreads() * 2;
+        this.progress = new ProgressTracker(options.getProgressListener());
+    }
+
+    /**
+     * Zips a file or all regular files under a directory.
+     *
+     * @param source  the file or directory
+     * @param output  the zip file, overwritten or updated if it exists
+     * @param options the options
+     * @throws IOException the io exception
+     */
+    static void zip(final Path source, final Path output, final ZipOptions options) throws IOException {
+        final ZipArchiveReader previous = options.getChangeDetection() == null ? null : openPrevious(output);
+        if (previous == null) {
+            write(source, output, output, options, null);
+            return;
+        }
+        final Path target = output.resolveSibling(output.getFileName() + ".tmp");
+        boolean written = false;
+        try {
+            write(source, target, output, options, previous);
+            written = true;
+        } finally {
+            previous.close();
+            if (written) {
+                Files.move(target, output, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } else {
+                Files.deleteIfExists(target);
+            }
+        }
+    }
+
+    /**
+     * Opens the archive being updated.
+     *
+     * @return the reader, null if there is no readable archive to update
+     */
+    private static ZipArchiveReader openPrevious(final Path output) {
+        if (!Files.isRegularFile(output)) {
+            return null;
+        }
+        try {
+            return ZipArchiveReader.open(output);
+        } catch (IOException e) {
+            log.warn(Messages.ERR_ZIP_INCREMENTAL, e);
+            return null;
+        }
+    }
+
+    /**
+     * Writes the archive of a file or directory.
+     */
+    private static void write(final Path source, final Path target, final Path output, final ZipOptions options,
+                              final ZipArchiveReader previous) throws IOException {
+        final ExecutorService pool = Executors.newFixedThreadPool(options.getThreads());
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             RawZipWriter writer = new RawZipWriter(
+                     new BufferedOutputStream(Channels.newOutputStream(channel), options.getBufferSize()), channel)) {
+            final ParallelZipper zipper = new ParallelZipper(options, pool, previous);
+            if (Files.isRegularFile(source)) {
+                zipper.submit(source, source.getFileName().toString(), writer);
+            } else {
+                final Path absoluteOutput = output.toAbsolutePath();
+                final Path absoluteTarget = target.toAbsolutePath();
+                try (Stream<Path> files = Files.walk(source)) {
+                    final Iterator<Path> it = files.filter(Files::isRegularFile).iterator();
+                    while (true) {
+                        final long start = System.nanoTime();
+                        final Path file = it.hasNext() ? it.next() : null;
+                        zipper.progress.addTime(ZipPhase.WALK, start);
+                        if (file == null) {
+                            break;
+                        }
+                        final Path absolute = file.toAbsolutePath();
+                        if (!absolute.equals(absoluteOutput) && !absolute.equals(absoluteTarget)) {
+                            zipper.submit(file, ZipUtil.entryName(source, file), writer);
+                        }
+                    }
+                }
+            }
+            zipper.drain(writer, 0);
+            final long start = System.nanoTime();
+            writer.finish();
+            zipper.progress.addTime(ZipPhase.WRITE, start);
+            zipper.reportWritten(writer);
+            zipper.progress.complete();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Queues the chunks of a file, writing finished chunks whenever too many are in flight.
+     */
+    private void submit(final Path file, final String name, final RawZipWriter writer) throws IOException {
+        final long size = Files.size(file);
+        final FileEntry entry = new FileEntry(name, Files.getLastModifiedTime(file).toMillis(), file);
+        if (previous != null) {
+            entry.previousEntry = unchangedEntry(file, name, size, entry.time);
+            if (entry.previousEntry >= 0) {
+                drain(writer, maxInFlight - 1);
+                inFlight.add(new PendingChunk(entry, true, true, CompletableFuture.completedFuture(null)));
+                return;
+            }
+        }
+        final CompressionPolicy policy = options.getCompressionPolicy();
+        final int sampleSize = (int) Math.min(policy.getSampleSize(), size);
+        final int level = policy.compressionLevel(name, size, ChannelIO.readPrefix(file, sampleSize));
+        if (level == CompressionPolicy.STORE) {
+            entry.stored = true;
+            drain(writer, maxInFlight - 1);
+            inFlight.add(new PendingChunk(entry, true, true, pool.submit(() -> {
+                final long start = System.nanoTime();
+                final Chunk chunk = new Chunk(null, 0, ChannelIO.crc32(file, size), size);
+                progress.addTime(ZipPhase.READ, start);
+                progress.addBytesRead(size);
+                return chunk;
+            })));
+            return;
+        }
+        final long chunkSize = options.getChunkSize();
+        long start = 0;
+        do {
+            final long offset = start;
+            final int length = (int) Math.min(chunkSize, size - start);
+            final boolean last = start + length >= size;
+            drain(writer, maxInFlight - 1);
+            inFlight.add(new PendingChunk(entry, offset == 0, last,
+                    pool.submit(() -> deflateChunk(file, offset, length, last, level, progress))));
+            start += length;
+        } while (start < size);
+    }
+
+    /**
+     * Finds the entry of the existing archive a file is unchanged from.
+     *
+     * @return the entry index, -1 if the file is new or changed
+     */
+    private int unchangedEntry(final Path file, final String name, final long size, final long time)
+            throws IOException {
+        final ZipIndex index = previous.getIndex();
+        final int entry = index.find(name);
+        if (entry < 0 || index.getSize(entry) != size) {
+            return -1;
+        }
+        final boolean unchanged;
+        if (options.getChangeDetection() == ChangeDetection.CONTENT) {
+            final long start = System.nanoTime();
+            unchanged = ChannelIO.crc32(file, size) == index.getCrc(entry);
+            progress.addTime(ZipPhase.READ, start);
+        } else {
+            unchanged = index.getDosTime(entry) == RawZipWriter.javaToDosTime(time);
+        }
+        return unchanged ? entry : -1;
+    }
+
+    /**
+     * Writes finished chunks, in order, until at most {@code limit} are in flight.
+     */
+    private void drain(final RawZipWriter writer, final int limit) throws IOException {
+        while (inFlight.size() > limit) {
+            final PendingChunk pending = inFlight.poll();
+            final Chunk chunk = await(pending.future);
+            final FileEntry entry = pending.entry;
+            final long start = System.nanoTime();
+            if (entry.previousEntry >= 0) {
+                copyPrevious(writer, entry);
+            } else if (entry.stored) {
+                writer.beginEntry(entry.name, entry.time, ZipEntry.STORED, chunk.crc, chunk.size, chunk.size);
+                writer.writeFile(entry.file, chunk.size, ChannelIO.buffer(options.getBufferSize()));
+                writer.endEntry(chunk.crc, chunk.size, chunk.size);
+            } else {
+                if (pending.first) {
+                    writer.beginEntry(entry.name, entry.time, ZipEntry.DEFLATED);
+                }
+                writer.write(chunk.data, 0, chunk.length);
+                entry.crc = crc32Combine(entry.crc, chunk.crc, chunk.size);
+                entry.compressedSize += chunk.length;
+                entry.size += chunk.size;
+                if (pending.last) {
+                    writer.endEntry(entry.crc, entry.compressedSize, entry.size);
+                }
+            }
+            progress.addTime(ZipPhase.WRITE, start);
+            reportWritten(writer);
+            if (pending.last) {
+                progress.entryDone(entry.name);
+            }
+        }
+    }
+
+    /**
+     * Copies the entry of an unchanged file from the existing archive, still compressed.
+     */
+    private void copyPrevious(final RawZipWriter writer, final FileEntry entry) throws IOException {
+        final ZipIndex index = previous.getIndex();
+        final int old = entry.previousEntry;
+        final long compressedSize = index.getCompressedSize(old);
+        final FileChannel archive = previous.getChannel();
+        writer.beginEntry(entry.name, entry.time, index.getMethod(old), index.getCrc(old), compressedSize,
+                index.getSize(old));
+        writer.writeRegion(archive, index.getDataOffset(archive, old), compressedSize,
+                ChannelIO.buffer(options.getBufferSize()));
+        writer.endEntry(index.getCrc(old), compressedSize, index.getSize(old));
+        progress.addBytesRead(index.getSize(old));
+    }
+
+    private void reportWritten(final RawZipWriter writer) {
+        final long written = writer.getBytesWritten();
+        progress.addBytesWritten(written - reportedBytes);
+        reportedBytes = written;
+    }
+
+    /**
+     * Deflates one chunk of a file, primed with the 32 KB before it.
+     *
+     * @param file     the file
+     * @param offset   the chunk offset
+     * @param length   the chunk length
+     * @param last     whether this is the last chunk, ending the deflate stream
+     * @param level    the deflate level
+     * @param progress the tracker of the read and deflate time
+     * @return the compressed chunk
+     * @throws IOException the io exception
+     */
+    static Chunk deflateChunk(final Path file, final long offset, final int length, final boolean last,
+                              final int level, final ProgressTracker progress) throws IOException {
+        final long readStart = System.nanoTime();
+        final int dictionaryLength = (int) Math.min(DICTIONARY_SIZE, offset);
+        final byte[] input = new byte[dictionaryLength + length];
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer buffer = ByteBuffer.wrap(input);
+            long position = offset - dictionaryLength;
+            while (buffer.hasRemaining()) {
+                final int read = channel.read(buffer, position);
+                if (read < 0) {
+                    throw new IOException("File " + file + " was truncated while it was being zipped");
+                }
+                position += read;
+            }
+        }
+        progress.addTime(ZipPhase.READ, readStart);
+        progress.addBytesRead(length);
+        final long deflateStart = System.nanoTime();
+        final CRC32 crc = new CRC32();
+        crc.update(input, dictionaryLength, length);
+
+        final Deflater deflater = new Deflater(level, true);
+        try {
+            if (dictionaryLength > 0) {
+                deflater.setDictionary(input, 0, dictionaryLength);
+            }
+            deflater.setInput(input, dictionaryLength, length);
+            if (last) {
+                deflater.finish();
+            }
+            final int flush = last ? Deflater.NO_FLUSH : Deflater.SYNC_FLUSH;
+            byte[] output = new byte[Math.max(64, length / 2)];
+            int written = 0;
+            while (true) {
+                if (written == output.length) {
+                    output = Arrays.copyOf(output, output.length * 2);
+                }
+                written += deflater.deflate(output, written, output.length - written, flush);
+                if (last ? deflater.finished() : deflater.needsInput() && written < output.length) {
+                    break;
+                }
+            }
+            return new Chunk(output, written, crc.getValue(), length);
+        } finally {
+            deflater.end();
+            progress.addTime(ZipPhase.DEFLATE, deflateStart);
+        }
+    }
+
+    /**
+     * Combines the CRC-32 of two consecutive blocks into the CRC-32 of both, as zlib's {@code crc32_combine}.
+     *
+     * @param crc1 the CRC-32 of the first block
+     * @param crc2 the CRC-32 of the second block
+     * @param len2 the length of the second block
+     * @return the CRC-32 of the concatenation
+     */
+    static long crc32Combine(long crc1, final long crc2, long len2) {
+        if (len2 <= 0) {
+            return crc1;
+        }
+        final long[] even = new long[32];
+        final long[] odd = new long[32];
+        // operator for one zero bit
+        odd[0] = 0xEDB88320L;
+        long row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        // operators for two and four zero bits
+        gf2MatrixSquare(even, odd);
+        gf2MatrixSquare(odd, even);
+        // apply len2 zero bytes to crc1, the first square gives the operator for one zero byte
+        do {
+            gf2MatrixSquare(even, odd);
+            if ((len2 & 1) != 0) {
+                crc1 = gf2MatrixTimes(even, crc1);
+            }
+            len2 >>= 1;
+            if (len2 == 0) {
+                break;
+            }
+            gf2MatrixSquare(odd, even);
+            if ((len2 & 1) != 0) {
+                crc1 = gf2MatrixTimes(odd, crc1);
+            }
+            len2 >>= 1;
+        } while (len2 != 0);
+        return crc1 ^ crc2;
+    }
+
+    private static long gf2MatrixTimes(final long[] mat, long vec) {
+        long sum = 0;
+        int i = 0;
+        while (vec != 0) {
+            if ((vec & 1) != 0) {
+                sum ^= mat[i];
+            }
+            vec >>>= 1;
+            i++;
+        }
+        return sum;
+    }
+
+    private static void gf2MatrixSquare(final long[] square, final long[] mat) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = gf2MatrixTimes(mat, mat[n]);
+        }
+    }
+
+    /**
+     * Waits for a chunk, rethrowing its failure.
+     */
+    private static Chunk await(final Future<Chunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Zip interrupted", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Zip failed", cause);
+        }
+    }
+
+    /**
+     * A deflated chunk.
+     */
+    static final class Chunk {
+        final byte[] data;
+        final int length;
+        final long crc;
+        final long size;
+
+        Chunk(final byte[] data, final int length, final long crc, final long size) {
+            this.data = data;
+            this.length = length;
+            this.crc = crc;
+            this.size = size;
+        }
+    }
+
+    /**
+     * A file being written, accumulating the CRC and sizes of its chunks.
+     */
+    private static final class FileEntry {
+        private final String name;
+        private final long time;
+        private final Path file;
+        private boolean stored;
+        private int previousEntry = -1;
+        private long crc;
+        private long compressedSize;
+        private long size;
+
+        FileEntry(final String name, final long time, final Path file) {
+            this.name = name;
+            this.time = time;
+            this.file = file;
+        }
+    }
+
+    /**
+     * A chunk queued for compression.
+     */
+    private static final class PendingChunk {
+        private final FileEntry entry;
+        private final boolean first;
+        private final boolean last;
+        private final Future<Chunk> future;
+
+        PendingChunk(final FileEntry entry, final boolean first, final boolean last, final Future<Chunk> future) {
+            this.entry = entry;
+            this.first = first;
+            this.last = last;
+            this.future = future;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.file;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates the counters and phase times of a job from any thread, and notifies its listener.
+ */
+final class ProgressTracker {
+
+    private final ZipProgressListener listener;
+
+    private final LongAdder bytesRead = new LongAdder();
+
+    private final LongAdder bytesWritten = new LongAdder();
+
+    private final LongAdder entriesDone = new LongAdder();
+
+    private final Map<ZipPhase, LongAdder> phaseNanos = new EnumMap<>(ZipPhase.class);
+
+    /**
+     * Instantiates a new progress tracker.
+     *
+     * @param listener the listener, may be null
+     */
+    ProgressTracker(final ZipProgressListener listener) {
+        this.listener = listener;
+        for (ZipPhase phase : ZipPhase.values()) {
+            phaseNanos.put(phase, new LongAdder());
+        }
+    }
+
+    /**
+     * Adds the time from a start to now to a phase.
+     *
+     * @param phase      the phase
+     * @param startNanos the start, from {@link System#nanoTime()}
+     */
+    void addTime(final ZipPhase phase, final long startNanos) {
+        addNanos(phase, System.nanoTime() - startNanos);
+    }
+
+    void addNanos(final ZipPhase phase, final long nanos) {
+        phaseNanos.get(phase).add(nanos);
+    }
+
+    void addBytesRead(final long bytes) {
+        bytesRead.add(bytes);
+    }
+
+    void addBytesWritten(final long bytes) {
+        bytesWritten.add(bytes);
+    }
+
+    /**
+     * Counts a complete entry and notifies the listener.
+     *
+     * @param name the entry name
+     */
+    void entryDone(final String name) {
+        entriesDone.increment();
+        if (listener != null) {
+            final ZipProgress progress = snapshot(name);
+            synchronized (this) {
+                listener.onEntry(progress);
+            }
+        }
+    }
+
+    /**
+     * Notifies the listener that the job is complete.
+     */
+    void complete() {
+        if (listener != null) {
+            final ZipProgress progress = snapshot(null);
+            synchronized (this) {
+                listener.onComplete(progress);
+            }
+        }
+    }
+
+    ZipProgress snapshot(final String currentEntry) {
+        final Map<ZipPhase, Long> nanos = new EnumMap<>(ZipPhase.class);
+        for (Map.Entry<ZipPhase, LongAdder> entry : phaseNanos.entrySet()) {
+            nanos.put(entry.getKey(), entry.getValue().sum());
+        }
+        return new ZipProgress(bytesRead.sum(), bytesWritten.sum(), entriesDone.intValue(), currentEntry, nanos);
+    }
+}
@@ -0,0 +1,477 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * Writes the ZIP container format around entry data that is already compressed (or stored).
+ * <p>
+ * Unlike {@link java.util.zip.ZipOutputStream}, which deflates the data itself, this writer takes raw entry
+ * bytes, so entries can be deflated elsewhere (e.g. in parallel) or copied from another archive as they are.
+ * An entry is either written with its CRC and sizes known up front, or streamed with a trailing data descriptor.
+ * ZIP64 records are written as needed, for entries or offsets of 4 GB and more and for 65535 entries and more.
+ * Not thread-safe.
+ */
+final class RawZipWriter implements Closeable {
+
+    private static final int LOCAL_HEADER_SIG = 0x04034b50;
+
+    private static final int DATA_DESCRIPTOR_SIG = 0x08074b50;
+
+    private static final int CENTRAL_HEADER_SIG = 0x02014b50;
+
+    private static final int END_OF_CENTRAL_DIR_SIG = 0x06054b50;
+
+    private static final int ZIP64_END_OF_CENTRAL_DIR_SIG = 0x06064b50;
+
+    private static final int ZIP64_LOCATOR_SIG = 0x07064b50;
+
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+
+    /**
+     * General purpose flag: sizes and CRC follow the data in a data descriptor.
+     */
+    private static final int FLAG_DATA_DESCRIPTOR = 0x08;
+
+    /**
+     * General purpose flag: the entry name is UTF-8.
+     */
+    private static final int FLAG_UTF8 = 0x800;
+
+    private static final int VERSION_NEEDED = 20;
+
+    private static final int VERSION_NEEDED_ZIP64 = 45;
+
+    private static final long MAX_32 = 0xFFFFFFFFL;
+
+    private static final int MAX_16 = 0xFFFF;
+
+    private final OutputStream out;
+
+    private final WritableByteChannel channel;
+
+    private final byte[] header = new byte[96];
+
+    private final List<Record> records = new ArrayList<>();
+
+    private long written;
+
+    private Record current;
+
+    private long entryStart;
+
+    private boolean finished;
+
+    /**
+     * Instantiates a new raw zip writer.
+     *
+     * @param out the target stream, should be buffered
+     */
+    RawZipWriter(final OutputStream out) {
+        this(out, null);
+    }
+
+    /**
+     * Instantiates a new raw zip writer over a channel, files written with {@link #writeFile(Path, long, byte[])}
+     * are transferred to the channel directly.
+     *
+     * @param out     the target stream, should be buffered, writing to the channel
+     * @param channel the channel the stream writes to, may be null
+     */
+    RawZipWriter(final OutputStream out, final WritableByteChannel channel) {
+        this.out = out;
+        this.channel = channel;
+    }
+
+    /**
+     * Starts an entry whose CRC and compressed size are not known yet, they are written in a data descriptor
+     * by {@link #endEntry(long, long, long)}. Must not be used for {@link ZipEntry#STORED} entries.
+     *
+     * @param name   the entry name, with {@code /} separators
+     * @param time   the modification time in epoch millis
+     * @param method {@link ZipEntry#DEFLATED}
+     * @throws IOException the io exception
+     */
+    void beginEntry(final String name, final long time, final int method) throws IOException {
+        startEntry(new Record(name, time, method, FLAG_UTF8 | FLAG_DATA_DESCRIPTOR));
+    }
+
+    /**
+     * Starts an entry whose CRC and sizes are known up front.
+     *
+     * @param name           the entry name, with {@code /} separators
+     * @param time           the modification time in epoch millis
+     * @param method         {@link ZipEntry#STORED} or {@link ZipEntry#DEFLATED}
+     * @param crc            the CRC-32 of the uncompressed data
+     * @param compressedSize the number of raw bytes that will be written
+     * @param size           the uncompressed size
+     * @throws IOException the io exception
+     */
+    void beginEntry(final String name, final long time, final int method, final long crc,
+                    final long compressedSize, final long size) throws IOException {
+        final Record record = new Record(name, time, method, FLAG_UTF8);
+        record.crc = crc;
+        record.compressedSize = compressedSize;
+        record.size = size;
+        startEntry(record);
+    }
+
+    /**
+     * Writes raw entry data.
+     *
+     * @param b   the data
+     * @param off the offset
+     * @param len the length
+     * @throws IOException the io exception
+     */
+    void write(final byte[] b, final int off, final int len) throws IOException {
+        out.write(b, off, len);
+        written += len;
+    }
+
+    /**
+     * Writes the first {@code size} bytes of a file as raw entry data. When the writer has a channel, the
+     * file is transferred to it without a copy through the heap, otherwise it is copied through the buffer.
+     *
+     * @param file   the file
+     * @param size   the number of bytes
+     * @param buffer the copy buffer
+     * @throws IOException the io exception
+     */
+    void writeFile(final Path file, final long size, final byte[] buffer) throws IOException {
+        if (channel == null) {
+            ChannelIO.copy(file, size, entryStream(), buffer);
+            return;
+        }
+        out.flush();
+        ChannelIO.transfer(file, size, channel);
+        written += size;
+    }
+
+    /**
+     * Writes a region of a file channel as raw entry data, e.g. the compressed data of an entry of another
+     * archive. When the writer has a channel, the region is transferred to it without a copy through the heap.
+     *
+     * @param source   the source channel
+     * @param position the start of the region
+     * @param size     the length of the region
+     * @param buffer   the copy buffer
+     * @throws IOException the io exception
+     */
+    void writeRegion(final FileChannel source, final long position, final long size, final byte[] buffer)
+            throws IOException {
+        if (channel == null) {
+            ChannelIO.copy(source, position, size, entryStream(), buffer);
+            return;
+        }
+        out.flush();
+        ChannelIO.transfer(source, position, size, channel);
+        written += size;
+    }
+
+    /**
+     * Gets the stream raw entry data can be copied to, bytes written to it count towards the current entry.
+     * Closing the returned stream has no effect.
+     *
+     * @return the entry data stream
+     */
+    OutputStream entryStream() {
+        return new OutputStream() {
+            @Override
+            public void write(final int b) throws IOException {
+                out.write(b);
+                written++;
+            }
+
+            @Override
+            public void write(final byte[] b, final int off, final int len) throws IOException {
+                RawZipWriter.this.write(b, off, len);
+            }
+        };
+    }
+
+    /**
+     * Ends the current entry.
+     *
+     * @param crc            the CRC-32 of the uncompressed data
+     * @param compressedSize the number of raw bytes written
+     * @param size           the uncompressed size
+     * @throws IOException the io exception
+     */
+    void endEntry(final long crc, final long compressedSize, final long size) throws IOException {
+        final Record record = current;
+        if (record == null) {
+            throw new ZipException("No current entry");
+        }
+        if (written - entryStart != compressedSize) {
+            throw new ZipException("Invalid compressed size for entry " + record.name + ": expected "
+                    + compressedSize + " but got " + (written - entryStart) + " bytes");
+        }
+        if ((record.flags & FLAG_DATA_DESCRIPTOR) != 0) {
+            record.crc = crc;
+            record.compressedSize = compressedSize;
+            record.size = size;
+            putInt(header, 0, DATA_DESCRIPTOR_SIG);
+            putInt(header, 4, crc);
+            if (compressedSize >= MAX_32 || size >= MAX_32) {
+                // readers switch to 8 byte sizes from the byte counts they have seen
+                putLong(header, 8, compressedSize);
+                putLong(header, 16, size);
+                writeHeader(24);
+            } else {
+                putInt(header, 8, compressedSize);
+                putInt(header, 12, size);
+                writeHeader(16);
+            }
+        } else if (record.crc != crc || record.size != size) {
+            throw new ZipException("Invalid CRC or size for entry " + record.name);
+        }
+        records.add(record);
+        current = null;
+    }
+
+    /**
+     * Gets the number of entries written so far.
+     *
+     * @return the entry count
+     */
+    int getEntryCount() {
+        return records.size();
+    }
+
+    /**
+     * Gets the number of bytes written so far.
+     *
+     * @return the bytes written
+     */
+    long getBytesWritten() {
+        return written;
+    }
+
+    /**
+     * Writes the central directory. The underlying stream is flushed but not closed.
+     *
+     * @throws IOException the io exception
+     */
+    void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        if (current != null) {
+            throw new ZipException("Entry " + current.name + " was not ended");
+        }
+        final long centralStart = written;
+        for (Record record : records) {
+            final boolean largeSize = record.size >= MAX_32;
+            final boolean largeCompressedSize = record.compressedSize >= MAX_32;
+            final boolean largeOffset = record.offset >= MAX_32;
+            final int extraLength = largeSize || largeCompressedSize || largeOffset
+                    ? 4 + (largeSize ? 8 : 0) + (largeCompressedSize ? 8 : 0) + (largeOffset ? 8 : 0) : 0;
+            final int version = extraLength > 0 ? VERSION_NEEDED_ZIP64 : record.version;
+            putInt(header, 0, CENTRAL_HEADER_SIG);
+            putShort(header, 4, version);
+            putShort(header, 6, version);
+            putShort(header, 8, record.flags);
+            putShort(header, 10, record.method);
+            putInt(header, 12, record.dosTime);
+            putInt(header, 16, record.crc);
+            putInt(header, 20, largeCompressedSize ? MAX_32 : record.compressedSize);
+            putInt(header, 24, largeSize ? MAX_32 : record.size);
+            putShort(header, 28, record.nameBytes.length);
+            putShort(header, 30, extraLength);
+            putShort(header, 32, 0);
+            putShort(header, 34, 0);
+            putShort(header, 36, 0);
+            putInt(header, 38, 0);
+            putInt(header, 42, largeOffset ? MAX_32 : record.offset);
+            writeHeader(46);
+            write(record.nameBytes, 0, record.nameBytes.length);
+            if (extraLength > 0) {
+                putShort(header, 0, ZIP64_EXTRA_ID);
+                putShort(header, 2, extraLength - 4);
+                int at = 4;
+                if (largeSize) {
+                    putLong(header, at, record.size);
+                    at += 8;
+                }
+                if (largeCompressedSize) {
+                    putLong(header, at, record.compressedSize);
+                    at += 8;
+                }
+                if (largeOffset) {
+                    putLong(header, at, record.offset);
+                    at += 8;
+                }
+                writeHeader(at);
+            }
+        }
+        final long centralSize = written - centralStart;
+        final int entries = records.size();
+        final boolean zip64 = entries >= MAX_16 || centralStart >= MAX_32 || centralSize >= MAX_32;
+        if (zip64) {
+            final long zip64Start = written;
+            putInt(header, 0, ZIP64_END_OF_CENTRAL_DIR_SIG);
+            putLong(header, 4, 44);
+            putShort(header, 12, VERSION_NEEDED_ZIP64);
+            putShort(header, 14, VERSION_NEEDED_ZIP64);
+            putInt(header, 16, 0);
+            putInt(header, 20, 0);
+            putLong(header, 24, entries);
+            putLong(header, 32, entries);
+            putLong(header, 40, centralSize);
+            putLong(header, 48, centralStart);
+            writeHeader(56);
+            putInt(header, 0, ZIP64_LOCATOR_SIG);
+            putInt(header, 4, 0);
+            putLong(header, 8, zip64Start);
+            putInt(header, 16, 1);
+            writeHeader(20);
+        }
+        putInt(header, 0, END_OF_CENTRAL_DIR_SIG);
+        putShort(header, 4, 0);
+        putShort(header, 6, 0);
+        putShort(header, 8, Math.min(entries, MAX_16));
+        putShort(header, 10, Math.min(entries, MAX_16));
+        putInt(header, 12, Math.min(centralSize, MAX_32));
+        putInt(header, 16, Math.min(centralStart, MAX_32));
+        putShort(header, 20, 0);
+        writeHeader(22);
+        out.flush();
+        finished = true;
+    }
+
+    /**
+     * Finishes the archive and closes the underlying stream.
+     *
+     * @throws IOException the io exception
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void startEntry(final Record record) throws IOException {
+        if (current != null) {
+            throw new ZipException("Entry " + current.name + " was not ended");
+        }
+        final boolean known = (record.flags & FLAG_DATA_DESCRIPTOR) == 0;
+        final boolean zip64 = known && (record.compressedSize >= MAX_32 || record.size >= MAX_32);
+        record.version = zip64 ? VERSION_NEEDED_ZIP64 : VERSION_NEEDED;
+        record.offset = written;
+        putInt(header, 0, LOCAL_HEADER_SIG);
+        putShort(header, 4, record.version);
+        putShort(header, 6, record.flags);
+        putShort(header, 8, record.method);
+        putInt(header, 10, record.dosTime);
+        putInt(header, 14, record.crc);
+        putInt(header, 18, zip64 ? MAX_32 : record.compressedSize);
+        putInt(header, 22, zip64 ? MAX_32 : record.size);
+        putShort(header, 26, record.nameBytes.length);
+        putShort(header, 28, zip64 ? 20 : 0);
+        writeHeader(30);
+        write(record.nameBytes, 0, record.nameBytes.length);
+        if (zip64) {
+            putShort(header, 0, ZIP64_EXTRA_ID);
+            putShort(header, 2, 16);
+            putLong(header, 4, record.size);
+            putLong(header, 12, record.compressedSize);
+            writeHeader(20);
+        }
+        entryStart = written;
+        current = record;
+    }
+
+    private void writeHeader(final int len) throws IOException {
+        write(header, 0, len);
+    }
+
+    private static void putShort(final byte[] b, final int off, final int value) {
+        b[off] = (byte) value;
+        b[off + 1] = (byte) (value >>> 8);
+    }
+
+    private static void putLong(final byte[] b, final int off, final long value) {
+        putInt(b, off, value);
+        putInt(b, off + 4, value >>> 32);
+    }
+
+    private static void putInt(final byte[] b, final int off, final long value) {
+        b[off] = (byte) value;
+        b[off + 1] = (byte) (value >>> 8);
+        b[off + 2] = (byte) (value >>> 16);
+        b[off + 3] = (byte) (value >>> 24);
+    }
+
+    /**
+     * Converts epoch millis to the MS-DOS date and time of the zip format, in the system default time zone.
+     *
+     * @param time the epoch millis
+     * @return the dos time
+     */
+    static long javaToDosTime(final long time) {
+        final LocalDateTime ldt = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+        final int year = ldt.getYear() - 1980;
+        if (year < 0) {
+            return (1 << 21) | (1 << 16);
+        }
+        return (long) year << 25 | ldt.getMonthValue() << 21 | ldt.getDayOfMonth() << 16
+                | ldt.getHour() << 11 | ldt.getMinute() << 5 | ldt.getSecond() >> 1;
+    }
+
+    /**
+     * An entry of the central directory.
+     */
+    private static final class Record {
+        private final String name;
+        private final byte[] nameBytes;
+        private final int method;
+        private final int flags;
+        private final long dosTime;
+        private long crc;
+        private long compressedSize;
+        private long size;
+        private long offset;
+        private int version;
+
+        Record(final String name, final long time, final int method, final int flags) {
+            this.name = name;
+            this.nameBytes = name.getBytes(StandardCharsets.UTF_8);
+            this.method = method;
+            this.flags = flags;
+            this.dosTime = javaToDosTime(time);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.file;
+
+import com.github.spranshu1.common.util.Assert;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+/**
+ * A {@link CompressionPolicy} deciding by file extension, size and sampled compressibility.
+ * <p>
+ * In order, an entry is stored when its extension is a known compressed format, when it is smaller than
+ * the minimum size worth compressing, or when a sample of its first bytes does not deflate below the
+ * given ratio. Otherwise it is deflated at the level of its extension, or at the default level.
+ * <p>
+ * Example,
+ * <pre><code>
+ * 	CompressionPolicy policy = new StandardCompressionPolicy.StandardCompressionPolicyBuilder()
+ * 	        .withStoredExtensions("dat")
+ * 	        .withExtensionLevel("log", Deflater.BEST_COMPRESSION)
+ * 	        .build();
+ *
+ * 	ZipOptions options = new ZipOptions.ZipOptionsBuilder().<b>withCompressionPolicy</b>(policy).build();
+ * </code></pre>
+ */
+public final class StandardCompressionPolicy implements CompressionPolicy {
+
+    /**
+     * The extensions of formats that are compressed already.
+     */
+    public static final Set<String> DEFAULT_STORED_EXTENSIONS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "jpg", "jpeg", "png", "gif", "webp", "heic", "mp3", "aac", "ogg", "flac", "mp4", "m4a", "m4v", "mkv",
+            "mov", "avi", "webm", "zip", "gz", "tgz", "bz2", "xz", "zst", "lz4", "7z", "rar", "jar", "war",
+            "parquet", "orc", "avro", "woff", "woff2", "docx", "xlsx", "pptx")));
+
+    /**
+     * The default sample size, 16 KB.
+     */
+    public static final int DEFAULT_SAMPLE_SIZE = 16 * 1024;
+
+    /**
+     * The default compressed to uncompressed ratio of a sample above which an entry is stored.
+     */
+    public static final double DEFAULT_MAX_SAMPLE_RATIO = 0.95;
+
+    private final Set<String> storedExtensions;
+
+    private final Map<String, Integer> extensionLevels;
+
+    private final int defaultLevel;
+
+    private final long minSize;
+
+    private final int sampleSize;
+
+    private final double maxSampleRatio;
+
+    /**
+     * The type Standard compression policy builder.
+     */
+    public static class StandardCompressionPolicyBuilder {
+        private final Set<String> storedExtensions = new HashSet<>(DEFAULT_STORED_EXTENSIONS);
+        private final Map<String, Integer> extensionLevels = new HashMap<>();
+        private int defaultLevel = Deflater.DEFAULT_COMPRESSION;
+        private long minSize;
+        private int sampleSize = DEFAULT_SAMPLE_SIZE;
+        private double maxSampleRatio = DEFAULT_MAX_SAMPLE_RATIO;
+
+        /**
+         * Stores the entries with the given extensions, in addition to {@link #DEFAULT_STORED_EXTENSIONS}.
+         *
+         * @param extensions the extensions, without the dot
+         * @return the standard compression policy builder
+         */
+        public StandardCompressionPolicyBuilder withStoredExtensions(String... extensions) {
+            for (String extension : extensions) {
+                storedExtensions.add(extension.toLowerCase(Locale.ROOT));
+            }
+            return this;
+        }
+
+        /**
+         * Removes all stored extensions, including the defaults.
+         *
+         * @return the standard compression policy builder
+         */
+        public StandardCompressionPolicyBuilder withoutStoredExtensions() {
+            storedExtensions.clear();
+            return this;
+        }
+
+        /**
+         * Deflates the entries with the given extension at their own level.
+         *
+         * @param extension the extension, without the dot
+         * @param level     the deflate level, or {@link CompressionPolicy#STORE}
+         * @return the standard compression policy builder
+         */
+        public StandardCompressionPolicyBuilder withExtensionLevel(String extension, int level) {
+            checkLevel(level);
+            extensionLevels.put(extension.toLowerCase(Locale.ROOT), level);
+            return this;
+        }
+
+        /**
+         * Sets the level of entries no other rule applies to, defaults to {@link Deflater#DEFAULT_COMPRESSION}.
+         *
+         * @param defaultLevel the deflate level
+         * @return the standard compression policy builder
+         */
+        public StandardCompressionPolicyBuilder withDefaultLevel(int defaultLevel) {
+            checkLevel(defaultLevel);
+            this.defaultLevel = defaultLevel;
+            return this;
+        }
+
+        /**
+         * Stores the entries smaller than the given size, defaults to 0.
+         *
+         * @param minSize the minimum size in bytes worth compressing
+         * @return the standard compression policy builder
+         */
+        public StandardCompressionPolicyBuilder withMinSize(long minSize) {
+            this.minSize = minSize;
+            return this;
+        }
+
+        /**
+         * Sets the number of leading bytes deflated to test compressibility, 0 disables sampling.
+         * Entries no larger than the sample are not sampled.
+         *
+         * @param sampleSize the sample size in bytes
+         * @return the standard compression policy builder
+         */
+        public StandardCompressionPolicyBuilder withSampleSize(int sampleSize) {
+            this.sampleSize = sampleSize;
+            return this;
+        }
+
+        /**
+         * Sets the compressed to uncompressed ratio of the sample above which an entry is stored.
+         *
+         * @param maxSampleRatio the ratio, e.g. 0.95
+         * @return the standard compression policy builder
+         */
+        public StandardCompressionPolicyBuilder withMaxSampleRatio(double maxSampleRatio) {
+            this.maxSampleRatio = maxSampleRatio;
+            return this;
+        }
+
+        /**
+         * Build standard compression policy.
+         *
+         * @return the standard compression policy
+         */
+        public StandardCompressionPolicy build() {
+            Assert.isTrue(minSize >= 0, "The minimum size must not be negative");
+            Assert.isTrue(sampleSize >= 0, "The sample size must not be negative");
+            Assert.isTrue(maxSampleRatio > 0, "The maximum sample ratio must be greater than zero");
+            return new StandardCompressionPolicy(this);
+        }
+
+        private static void checkLevel(final int level) {
+            Assert.isTrue(level == Deflater.DEFAULT_COMPRESSION
+                            || (level >= Deflater.NO_COMPRESSION && level <= Deflater.BEST_COMPRESSION),
+                    "The compression level must be between 0 and 9, or -1 for the default");
+        }
+    }
+
+    /**
+     * Intentionally kept private use {@link StandardCompressionPolicyBuilder}
+     */
+    private StandardCompressionPolicy(final StandardCompressionPolicyBuilder builder) {
+        this.storedExtensions = new HashSet<>(builder.storedExtensions);
+        this.extensionLevels = new HashMap<>(builder.extensionLevels);
+        this.defaultLevel = builder.defaultLevel;
+        this.minSize = builder.minSize;
+        this.sampleSize = builder.sampleSize;
+        this.maxSampleRatio = builder.maxSampleRatio;
+    }
+
+    @Override
+    public int compressionLevel(final String name, final long size, final ByteBuffer sample) {
+        final String extension = extension(name);
+        if (storedExtensions.contains(extension)) {
+            return STORE;
+        }
+        if (size >= 0 && size < minSize) {
+            return STORE;
+        }
+        if (size > sampleSize && sample.remaining() > 0 && sampleRatio(sample) > maxSampleRatio) {
+            return STORE;
+        }
+        final Integer level = extensionLevels.get(extension);
+        return level == null ? defaultLevel : level;
+    }
+
+    @Override
+    public int getSampleSize() {
+        return sampleSize;
+    }
+
+    /**
+     * Gets the lower case extension of an entry name.
+     *
+     * @param name the entry name
+     * @return the extension, empty if there is none
+     */
+    static String extension(final String name) {
+        final int dot = name.lastIndexOf('.');
+        if (dot < 0 || dot < name.lastIndexOf('/')) {
+            return "";
+        }
+        return name.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Deflates a sample at the fastest level.
+     *
+     * @param sample the sample
+     * @return the compressed to uncompressed ratio
+     */
+    static double sampleRatio(final ByteBuffer sample) {
+        final int length = sample.remaining();
+        final byte[] input = new byte[length];
+        sample.duplicate().get(input);
+        final byte[] output = new byte[8 * 1024];
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        try {
+            deflater.setInput(input);
+            deflater.finish();
+            while (!deflater.finished()) {
+                deflater.deflate(output);
+            }
+            return (double) deflater.getBytesWritten() / length;
+        } finally {
+            deflater.end();
+        }
+    }
+}
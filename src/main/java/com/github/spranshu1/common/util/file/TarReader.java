@@ -0,0 +1,335 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.file;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the entries of a tar archive from a stream, one at a time.
+ * <p>
+ * Reads the POSIX ustar format with its name prefix, the GNU long name and base-256 size extensions and the
+ * {@code path} and {@code size} records of pax extended headers. Not thread-safe.
+ */
+final class TarReader {
+
+    /**
+     * The type of a regular file.
+     */
+    static final byte FILE = '0';
+
+    /**
+     * The type of a directory.
+     */
+    static final byte DIRECTORY = '5';
+
+    /**
+     * The type of a GNU long name entry.
+     */
+    static final byte LONG_NAME = 'L';
+
+    /**
+     * The magic of a ustar header, including its NUL.
+     */
+    static final byte[] USTAR_MAGIC = {'u', 's', 't', 'a', 'r', 0};
+
+    private static final byte OLD_FILE = 0;
+
+    private static final byte CONTIGUOUS_FILE = '7';
+
+    private static final byte PAX_HEADER = 'x';
+
+    private static final byte PAX_GLOBAL_HEADER = 'g';
+
+    /**
+     * The largest long name or pax header read, anything larger is not a sane archive.
+     */
+    private static final int MAX_HEADER_DATA = 1024 * 1024;
+
+    private final InputStream in;
+
+    private final byte[] header = new byte[TarWriter.BLOCK_SIZE];
+
+    private long remaining;
+
+    private long padding;
+
+    /**
+     * Instantiates a new tar reader.
+     *
+     * @param in the archive stream, should be buffered
+     */
+    TarReader(final InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Moves to the next entry, skipping what is left of the current one.
+     *
+     * @return the entry, null at the end of the archive
+     * @throws IOException the io exception
+     */
+    Entry next() throws IOException {
+        skip(remaining + padding);
+        remaining = 0;
+        padding = 0;
+        String longName = null;
+        String paxPath = null;
+        long paxSize = -1;
+        while (true) {
+            if (!readHeader()) {
+                return null;
+            }
+            final byte type = header[156];
+            final long size = number(124, 12);
+            if (type == LONG_NAME) {
+                longName = cString(readData(size));
+            } else if (type == PAX_HEADER) {
+                final byte[] records = readData(size);
+                int position = 0;
+                while (position < records.length) {
+                    // every record is "<length> <key>=<value>\n", its length counting all of it
+                    int space = position;
+                    while (space < records.length && records[space] != ' ') {
+                        space++;
+                    }
+                    final long length = parseNumber(new String(records, position, space - position,
+                            StandardCharsets.US_ASCII));
+                    if (length <= 0 || length > records.length - position) {
+                        throw new IOException("Invalid tar pax header");
+                    }
+                    final int end = position + (int) length;
+                    // the record must hold its separator, and a key or the newline after it
+                    if (space >= end - 1) {
+                        throw new IOException("Invalid tar pax header");
+                    }
+                    final String record = new String(records, space + 1, end - space - 2, StandardCharsets.UTF_8);
+                    final int equals = record.indexOf('=');
+                    if (equals > 0) {
+                        final String key = record.substring(0, equals);
+                        if ("path".equals(key)) {
+                            paxPath = record.substring(equals + 1);
+                        } else if ("size".equals(key)) {
+                            paxSize = parseNumber(record.substring(equals + 1));
+                        }
+                    }
+                    position = end;
+                }
+            } else if (type == PAX_GLOBAL_HEADER) {
+                skip(size + padding(size));
+            } else {
+                final String name = longName != null ? longName : paxPath != null ? paxPath : headerName();
+                final long entrySize = paxSize >= 0 ? paxSize : size;
+                remaining = type == DIRECTORY ? 0 : entrySize;
+                padding = padding(remaining);
+                return new Entry(name, type, remaining, number(136, 12) * 1000);
+            }
+        }
+    }
+
+    /**
+     * Reads data of the current entry.
+     *
+     * @param b   the buffer
+     * @param off the offset
+     * @param len the maximum number of bytes
+     * @return the number of bytes read, -1 at the end of the entry
+     * @throws IOException the io exception, {@link EOFException} if the archive ends within the entry
+     */
+    int read(final byte[] b, final int off, final int len) throws IOException {
+        if (remaining == 0) {
+            return -1;
+        }
+        final int n = in.read(b, off, (int) Math.min(len, remaining));
+        if (n < 0) {
+            throw new EOFException("Unexpected end of tar archive");
+        }
+        remaining -= n;
+        return n;
+    }
+
+    /**
+     * Reads a header block, verifying its checksum.
+     *
+     * @return false at the end of the archive
+     */
+    private boolean readHeader() throws IOException {
+        int read = 0;
+        while (read < header.length) {
+            final int n = in.read(header, read, header.length - read);
+            if (n < 0) {
+                if (read == 0) {
+                    // tolerate archives missing their end blocks
+                    return false;
+                }
+                throw new EOFException("Unexpected end of tar archive");
+            }
+            read += n;
+        }
+        long checksum = 0;
+        boolean empty = true;
+        for (int i = 0; i < header.length; i++) {
+            final int b = i >= 148 && i < 156 ? ' ' : header[i] & 0xFF;
+            checksum += b;
+            empty &= header[i] == 0;
+        }
+        if (empty) {
+            return false;
+        }
+        if (checksum != number(148, 8)) {
+            throw new IOException("Invalid tar header checksum");
+        }
+        return true;
+    }
+
+    private String headerName() {
+        final String name = cString(header, 0, 100);
+        if (startsWith(header, 257, USTAR_MAGIC) && header[345] != 0) {
+            return cString(header, 345, 155) + '/' + name;
+        }
+        return name;
+    }
+
+    private byte[] readData(final long size) throws IOException {
+        if (size < 0 || size > MAX_HEADER_DATA) {
+            throw new IOException("Invalid tar extended header size " + size);
+        }
+        final byte[] data = new byte[(int) size];
+        int read = 0;
+        while (read < data.length) {
+            final int n = in.read(data, read, data.length - read);
+            if (n < 0) {
+                throw new EOFException("Unexpected end of tar archive");
+            }
+            read += n;
+        }
+        skip(padding(size));
+        return data;
+    }
+
+    /**
+     * Parses a numeric header field, octal or GNU base-256.
+     */
+    private long number(final int offset, final int length) throws IOException {
+        if ((header[offset] & 0x80) != 0) {
+            long value = header[offset] & 0x7F;
+            for (int i = offset + 1; i < offset + length; i++) {
+                value = value << 8 | header[i] & 0xFF;
+            }
+            return value;
+        }
+        long value = 0;
+        int i = offset;
+        while (i < offset + length && (header[i] == ' ' || header[i] == 0)) {
+            i++;
+        }
+        for (; i < offset + length && header[i] != ' ' && header[i] != 0; i++) {
+            if (header[i] < '0' || header[i] > '7') {
+                throw new IOException("Invalid tar header number");
+            }
+            value = value << 3 | header[i] - '0';
+        }
+        return value;
+    }
+
+    private static long parseNumber(final String value) throws IOException {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IOException("Invalid tar pax header number " + value, e);
+        }
+    }
+
+    private void skip(long n) throws IOException {
+        while (n > 0) {
+            final long skipped = in.skip(n);
+            if (skipped > 0) {
+                n -= skipped;
+            } else if (in.read() < 0) {
+                throw new EOFException("Unexpected end of tar archive");
+            } else {
+                n--;
+            }
+        }
+    }
+
+    private static long padding(final long size) {
+        final int rest = (int) (size % TarWriter.BLOCK_SIZE);
+        return rest == 0 ? 0 : TarWriter.BLOCK_SIZE - rest;
+    }
+
+    private static String cString(final byte[] data) {
+        return cString(data, 0, data.length);
+    }
+
+    private static String cString(final byte[] data, final int offset, final int length) {
+        int end = offset;
+        while (end < offset + length && data[end] != 0) {
+            end++;
+        }
+        return new String(data, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    private static boolean startsWith(final byte[] data, final int offset, final byte[] prefix) {
+        for (int i = 0; i < prefix.length; i++) {
+            if (data[offset + i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * An entry of a tar archive.
+     */
+    static final class Entry {
+        private final String name;
+        private final byte type;
+        private final long size;
+        private final long time;
+
+        Entry(final String name, final byte type, final long size, final long time) {
+            this.name = name;
+            this.type = type;
+            this.size = size;
+            this.time = time;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        long getSize() {
+            return size;
+        }
+
+        long getTime() {
+            return time;
+        }
+
+        boolean isDirectory() {
+            return type == DIRECTORY || (type == FILE || type == OLD_FILE) && name.endsWith("/");
+        }
+
+        boolean isFile() {
+            return (type == FILE || type == OLD_FILE || type == CONTIGUOUS_FILE) && !name.endsWith("/");
+        }
+    }
+}
@@ -0,0 +1,268 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.file;
+
+import com.github.spranshu1.common.util.Assert;
+import com.github.spranshu1.common.util.Messages;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.Iterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * The type Tar util, creating and extracting tar and tar.gz archives.
+ * <p>
+ * A tar.gz archive is compressed in parallel as a sequence of gzip members, one per chunk of the tar stream,
+ * which {@code gunzip}, {@code tar -xzf} and every gzip reader handle as a single stream. Extraction streams the
+ * archive once, checking every entry with the containment and limits of {@link UnzipOptions}.
+ * Only regular files and directories are extracted, links and special files are skipped.
+ * <pre class="code">
+ *      TarUtil.tarGz("/data/logs","/backup/logs.tar.gz") // creates logs.tar.gz
+ *      TarUtil.untar("/backup/logs.tar.gz","/tmp/logs") // extracts it, plain or gzipped
+ * </pre>
+ */
+public final class TarUtil {
+
+    /** The constant logger */
+    private static final Logger log = LoggerFactory.getLogger(TarUtil.class);
+
+    private static final int GZIP_MAGIC = 0x8b1f;
+
+    private TarUtil() {
+        // constructor intentionally kept empty
+    }
+
+    /**
+     * Archives a file or folder into an uncompressed tar, file data is transferred to the archive channel to channel.
+     * <pre class="code">
+     *      TarUtil.tar("D:\testfolder","D:\testFolder.tar") // creates testFolder.tar
+     * </pre>
+     *
+     * @param source the source destination
+     * @param output the output destination
+     * @return True on success
+     * @throws IOException the io exception
+     */
+    public static boolean tar(String source, String output) throws IOException {
+        final Path target = Paths.get(output);
+        try (FileChannel channel = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+             TarWriter writer = new TarWriter(
+                     new BufferedOutputStream(Channels.newOutputStream(channel), ChannelIO.DEFAULT_BUFFER_SIZE), channel)) {
+            write(Paths.get(source), target, writer, ChannelIO.DEFAULT_BUFFER_SIZE);
+            return true;
+        } catch (IOException e) {
+            log.error(Messages.ERR_TAR, e);
+            throw e;
+        } catch (UncheckedIOException e) {
+            log.error(Messages.ERR_TAR, e);
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Archives a file or folder into a tar.gz compressed on all processors.
+     * <pre class="code">
+     *      TarUtil.tarGz("D:\testfolder","D:\testFolder.tar.gz") // creates testFolder.tar.gz
+     * </pre>
+     *
+     * @param source the source destination
+     * @param output the output destination
+     * @return True on success
+     * @throws IOException the io exception
+     */
+    public static boolean tarGz(String source, String output) throws IOException {
+        return tarGz(source, output, ZipOptions.defaults());
+    }
+
+    /**
+     * Archives a file or folder into a tar.gz compressed in parallel.
+     * The threads, compression level and buffer size of the options apply, and the chunk size is the
+     * uncompressed size of every gzip member.
+     *
+     * @param source  the source destination
+     * @param output  the output destination
+     * @param options the compression options
+     * @return True on success
+     * @throws IOException the io exception
+     */
+    public static boolean tarGz(String source, String output, ZipOptions options) throws IOException {
+        Assert.notNull(options, "The zip options must not be null");
+        final Path target = Paths.get(output);
+        final ExecutorService pool = Executors.newFixedThreadPool(options.getThreads());
+        try (OutputStream out = Files.newOutputStream(target);
+             TarWriter writer = new TarWriter(new BufferedOutputStream(new ParallelGzipOutputStream(out, pool,
+                     options.getThreads(), options.getCompressionLevel(), options.getChunkSize()),
+                     options.getBufferSize()), null)) {
+            write(Paths.get(source), target, writer, options.getBufferSize());
+            return true;
+        } catch (IOException e) {
+            log.error(Messages.ERR_TAR, e);
+            throw e;
+        } catch (UncheckedIOException e) {
+            log.error(Messages.ERR_TAR, e);
+            throw e.getCause();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Extracts a tar or tar.gz archive, gzip is detected from the content.
+     *
+     * @param archive           the archive path
+     * @param destinationFolder the destination folder
+     * @return the number of files extracted
+     * @throws IOException the io exception
+     */
+    public static int untar(String archive, String destinationFolder) throws IOException {
+        return untar(archive, destinationFolder, UnzipOptions.defaults());
+    }
+
+    /**
+     * Extracts a tar or tar.gz archive, gzip is detected from the content.
+     * The entry filter, buffer size and limits of the options apply, the compression ratio limit is held against
+     * the whole archive since tar entries have no compressed size of their own. Entries are extracted in order.
+     * <pre class="code">
+     *      TarUtil.untar("D:\logs.tar.gz","D:\logs", UnzipOptions.defaults()) // extracts everything
+     * </pre>
+     *
+     * @param archive           the archive path
+     * @param destinationFolder the destination folder
+     * @param options           the unzip options
+     * @return the number of files extracted
+     * @throws IOException the io exception
+     */
+    public static int untar(String archive, String destinationFolder, UnzipOptions options) throws IOException {
+        Assert.notNull(options, "The unzip options must not be null");
+        final Path source = Paths.get(archive);
+        try (InputStream in = open(source, options.getBufferSize())) {
+            final ExtractionGuard guard = new ExtractionGuard(Paths.get(destinationFolder), options);
+            final long archiveSize = Files.size(source);
+            final byte[] buffer = ChannelIO.buffer(options.getBufferSize());
+            final TarReader reader = new TarReader(in);
+            long totalWritten = 0;
+            int files = 0;
+            TarReader.Entry entry;
+            while ((entry = reader.next()) != null) {
+                final String name = entryName(entry.getName());
+                if (name.isEmpty() || !(entry.isFile() || entry.isDirectory()) || !options.getEntryFilter().test(name)) {
+                    continue;
+                }
+                final Path target = guard.resolve(name);
+                if (entry.isDirectory()) {
+                    guard.createDirectory(target);
+                    continue;
+                }
+                guard.checkEntries(++files);
+                guard.createDirectory(target.getParent());
+                try (OutputStream out = Files.newOutputStream(target, ExtractionGuard.WRITE_OPTIONS)) {
+                    long written = 0;
+                    int len;
+                    while ((len = reader.read(buffer, 0, buffer.length)) >= 0) {
+                        written += len;
+                        totalWritten += len;
+                        guard.count(name, len, written, -1, entry.getSize());
+                        guard.checkRatio(source.getFileName().toString(), totalWritten, archiveSize);
+                        out.write(buffer, 0, len);
+                    }
+                }
+                Files.setLastModifiedTime(target, FileTime.fromMillis(entry.getTime()));
+            }
+            return files;
+        } catch (IOException e) {
+            log.error(Messages.ERR_UNTAR, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Strips the leading {@code ./} of names written by {@code tar -C dir .}, the entry of the directory itself
+     * becomes empty.
+     */
+    private static String entryName(final String name) {
+        String stripped = name;
+        while (stripped.startsWith("./")) {
+            stripped = stripped.substring(2);
+        }
+        return stripped.equals(".") ? "" : stripped;
+    }
+
+    /**
+     * Opens an archive, through a gzip decoder if it starts with the gzip magic.
+     */
+    private static InputStream open(final Path archive, final int bufferSize) throws IOException {
+        final BufferedInputStream in = new BufferedInputStream(Files.newInputStream(archive), bufferSize);
+        try {
+            in.mark(2);
+            final int magic = in.read() | in.read() << 8;
+            in.reset();
+            return magic == GZIP_MAGIC ? new GZIPInputStream(in, bufferSize) : in;
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a file, or a directory and everything under it, the output itself excluded.
+     */
+    private static void write(final Path source, final Path output, final TarWriter writer, final int bufferSize)
+            throws IOException {
+        final byte[] buffer = ChannelIO.buffer(bufferSize);
+        if (Files.isRegularFile(source)) {
+            writer.addFile(source.getFileName().toString(), source, Files.size(source),
+                    Files.getLastModifiedTime(source).toMillis(), buffer);
+            return;
+        }
+        final Path absoluteOutput = output.toAbsolutePath();
+        try (Stream<Path> paths = Files.walk(source)) {
+            final Iterator<Path> it = paths.iterator();
+            while (it.hasNext()) {
+                final Path path = it.next();
+                if (path.equals(source) || path.toAbsolutePath().equals(absoluteOutput)) {
+                    continue;
+                }
+                final String name = ZipUtil.entryName(source, path);
+                final long time = Files.getLastModifiedTime(path).toMillis();
+                if (Files.isDirectory(path)) {
+                    writer.addDirectory(name, time);
+                } else if (Files.isRegularFile(path)) {
+                    writer.addFile(name, path, Files.size(path), time, buffer);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.file;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Writes a tar archive in the POSIX ustar format.
+ * <p>
+ * Names longer than the 100 bytes of a header are split into the ustar prefix when they can be, otherwise they
+ * are written in a GNU long name entry. Sizes of 8 GB and more are written in the GNU base-256 encoding.
+ * Both extensions are read by GNU tar, bsdtar and {@link TarReader}. Not thread-safe.
+ */
+final class TarWriter implements Closeable {
+
+    /**
+     * The size of a tar block.
+     */
+    static final int BLOCK_SIZE = 512;
+
+    /**
+     * The size of a tar record, archives are padded to a whole record.
+     */
+    private static final int RECORD_SIZE = 20 * BLOCK_SIZE;
+
+    private static final int NAME_LENGTH = 100;
+
+    private static final int PREFIX_LENGTH = 155;
+
+    /**
+     * The largest size the 11 octal digits of a header hold.
+     */
+    private static final long MAX_OCTAL_SIZE = 077777777777L;
+
+    private static final String LONG_NAME = "././@LongLink";
+
+    private static final int FILE_MODE = 0644;
+
+    private static final int DIRECTORY_MODE = 0755;
+
+    private final OutputStream out;
+
+    private final WritableByteChannel channel;
+
+    private final byte[] header = new byte[BLOCK_SIZE];
+
+    private long written;
+
+    private boolean finished;
+
+    /**
+     * Instantiates a new tar writer.
+     *
+     * @param out     the target stream, should be buffered
+     * @param channel the channel the stream writes to, files are transferred to it directly, may be null
+     */
+    TarWriter(final OutputStream out, final WritableByteChannel channel) {
+        this.out = out;
+        this.channel = channel;
+    }
+
+    /**
+     * Adds a directory entry.
+     *
+     * @param name the directory name, a {@code /} is appended if missing
+     * @param time the modification time in epoch millis
+     * @throws IOException the io exception
+     */
+    void addDirectory(final String name, final long time) throws IOException {
+        writeHeader(name.endsWith("/") ? name : name + "/", TarReader.DIRECTORY, 0, time, DIRECTORY_MODE);
+    }
+
+    /**
+     * Adds the first {@code size} bytes of a file.
+     *
+     * @param name   the entry name, with {@code /} separators
+     * @param file   the file
+     * @param size   the number of bytes
+     * @param time   the modification time in epoch millis
+     * @param buffer the copy buffer
+     * @throws IOException the io exception
+     */
+    void addFile(final String name, final Path file, final long size, final long time, final byte[] buffer)
+            throws IOException {
+        writeHeader(name, TarReader.FILE, size, time, FILE_MODE);
+        if (channel == null) {
+            ChannelIO.copy(file, size, out, buffer);
+        } else {
+            out.flush();
+            ChannelIO.transfer(file, size, channel);
+        }
+        written += size;
+        pad();
+    }
+
+    /**
+     * Writes the end of archive blocks and flushes the target, without closing it.
+     *
+     * @throws IOException the io exception
+     */
+    void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        final long end = written + 2 * BLOCK_SIZE;
+        final long length = (end + RECORD_SIZE - 1) / RECORD_SIZE * RECORD_SIZE;
+        Arrays.fill(header, (byte) 0);
+        while (written < length) {
+            writeBlock();
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            out.close();
+        }
+    }
+
+    private void writeHeader(final String name, final byte type, final long size, final long time,
+                             final int mode) throws IOException {
+        final byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        int split = -1;
+        if (nameBytes.length > NAME_LENGTH) {
+            split = prefixSplit(nameBytes);
+            if (split < 0) {
+                // GNU long name: the name is the content of an entry of its own
+                writeHeader(LONG_NAME.getBytes(StandardCharsets.US_ASCII), -1, TarReader.LONG_NAME,
+                        nameBytes.length + 1, 0, 0);
+                out.write(nameBytes);
+                out.write(0);
+                written += nameBytes.length + 1;
+                pad();
+            }
+        }
+        writeHeader(nameBytes, split, type, size, time, mode);
+    }
+
+    private void writeHeader(final byte[] name, final int split, final byte type, final long size,
+                             final long time, final int mode) throws IOException {
+        Arrays.fill(header, (byte) 0);
+        if (split >= 0) {
+            System.arraycopy(name, split + 1, header, 0, name.length - split - 1);
+            System.arraycopy(name, 0, header, 345, split);
+        } else {
+            System.arraycopy(name, 0, header, 0, Math.min(name.length, NAME_LENGTH));
+        }
+        putOctal(100, 8, mode);
+        putOctal(108, 8, 0);
+        putOctal(116, 8, 0);
+        if (size > MAX_OCTAL_SIZE) {
+            header[124] = (byte) 0x80;
+            for (int i = 0; i < 8; i++) {
+                header[135 - i] = (byte) (size >>> (8 * i));
+            }
+        } else {
+            putOctal(124, 12, size);
+        }
+        putOctal(136, 12, Math.max(0, time / 1000));
+        header[156] = type;
+        System.arraycopy(TarReader.USTAR_MAGIC, 0, header, 257, TarReader.USTAR_MAGIC.length);
+        header[263] = '0';
+        header[264] = '0';
+        Arrays.fill(header, 148, 156, (byte) ' ');
+        long checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xFF;
+        }
+        putOctal(148, 7, checksum);
+        writeBlock();
+    }
+
+    /**
+     * Finds the {@code /} splitting a long name into a ustar prefix and name.
+     *
+     * @return the index of the separator, -1 if the name cannot be split
+     */
+    private static int prefixSplit(final byte[] name) {
+        for (int i = Math.min(PREFIX_LENGTH, name.length - 1); i > 0; i--) {
+            if (name[i] == '/' && name.length - i - 1 <= NAME_LENGTH) {
+                return name.length - i - 1 > 0 ? i : -1;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Writes a number as zero padded octal digits followed by a NUL.
+     */
+    private void putOctal(final int offset, final int length, final long value) {
+        long v = value;
+        header[offset + length - 1] = 0;
+        for (int i = offset + length - 2; i >= offset; i--) {
+            header[i] = (byte) ('0' + (v & 7));
+            v >>>= 3;
+        }
+    }
+
+    private void writeBlock() throws IOException {
+        out.write(header, 0, BLOCK_SIZE);
+        written += BLOCK_SIZE;
+    }
+
+    /**
+     * Pads the data of an entry to a whole block.
+     */
+    private void pad() throws IOException {
+        final int rest = (int) (written % BLOCK_SIZE);
+        if (rest > 0) {
+            Arrays.fill(header, (byte) 0);
+            out.write(header, 0, BLOCK_SIZE - rest);
+            written += BLOCK_SIZE - rest;
+        }
+    }
+}
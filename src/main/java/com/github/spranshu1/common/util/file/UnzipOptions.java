@@ -0,0 +1,298 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.file;
+
+import com.github.spranshu1.common.util.Assert;
+
+import java.nio.file.FileSystems;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * Options of the parallel {@link ZipUtil#unzip(String, String, UnzipOptions)}.
+ * <p>
+ * Entries are located through the central directory of the archive, so entries that are not
+ * selected are never read, and the selected ones are extracted concurrently on {@code threads} worker threads.
+ * <p>
+ * Untrusted archives, such as uploads, should be extracted with limits. Every entry is checked to stay inside the
+ * destination, and the limits are checked as the data is inflated, so extraction stops at the first byte over.
+ * <pre><code>
+ * 	UnzipOptions upload = new UnzipOptions.UnzipOptionsBuilder()
+ * 	        .withMaxEntries(10_000)
+ * 	        .withMaxTotalSize(1024L * 1024 * 1024)
+ * 	        .withMaxCompressionRatio(100)
+ * 	        .build();
+ * </code></pre>
+ * <p>
+ * Example,
+ * <pre><code>
+ * 	UnzipOptions options = new UnzipOptions.UnzipOptionsBuilder()
+ * 	        .withThreads(8)
+ * 	        .withGlob("logs/**.log")
+ * 	        .build();
+ *
+ * 	ZipUtil.<b>unzip</b>("/backup/logs.zip", "/tmp/logs", options);
+ * </code></pre>
+ */
+public final class UnzipOptions {
+
+    /**
+     * The default copy buffer size, 64 KB.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * The number of bytes an entry may inflate to before its compression ratio is checked, 1 MB.
+     */
+    public static final long RATIO_GRACE_SIZE = 1024 * 1024;
+
+    private final int threads;
+
+    private final int bufferSize;
+
+    private final Predicate<String> entryFilter;
+
+    private final ZipProgressListener progressListener;
+
+    private final long maxTotalSize;
+
+    private final int maxEntries;
+
+    private final double maxCompressionRatio;
+
+    /**
+     * The type Unzip options builder.
+     */
+    public static class UnzipOptionsBuilder {
+        private int threads = Runtime.getRuntime().availableProcessors();
+        private int bufferSize = DEFAULT_BUFFER_SIZE;
+        private Predicate<String> entryFilter = name -> true;
+        private ZipProgressListener progressListener;
+        private long maxTotalSize = Long.MAX_VALUE;
+        private int maxEntries = Integer.MAX_VALUE;
+        private double maxCompressionRatio = Double.POSITIVE_INFINITY;
+
+        /**
+         * Sets the number of extraction threads, defaults to the number of processors.
+         *
+         * @param threads the number of threads
+         * @return the unzip options builder
+         */
+        public UnzipOptionsBuilder withThreads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Sets the size of the copy buffer of every thread.
+         *
+         * @param bufferSize the buffer size in bytes
+         * @return the unzip options builder
+         */
+        public UnzipOptionsBuilder withBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * Extracts only the entries whose name is accepted by the filter.
+         *
+         * @param entryFilter the filter on entry names, as stored in the archive
+         * @return the unzip options builder
+         */
+        public UnzipOptionsBuilder withEntryFilter(Predicate<String> entryFilter) {
+            this.entryFilter = entryFilter;
+            return this;
+        }
+
+        /**
+         * Extracts only the entries matching a glob, in the syntax of {@link java.nio.file.FileSystem#getPathMatcher}.
+         *
+         * @param glob the glob, e.g. {@code logs/**.log}
+         * @return the unzip options builder
+         */
+        public UnzipOptionsBuilder withGlob(String glob) {
+            Assert.notNull(glob, "The glob must not be null");
+            final PathMatcher matcher = FileSystems.getDefault().getPathMatcher("glob:" + glob);
+            this.entryFilter = name -> matcher.matches(Paths.get(name));
+            return this;
+        }
+
+        /**
+         * Extracts only the named entries.
+         *
+         * @param names the entry names
+         * @return the unzip options builder
+         */
+        public UnzipOptionsBuilder withEntryNames(String... names) {
+            final Set<String> selected = new HashSet<>(Arrays.asList(names));
+            this.entryFilter = selected::contains;
+            return this;
+        }
+
+        /**
+         * Reports the bytes, entries and phase times of the job as every entry is extracted.
+         *
+         * @param progressListener the progress listener
+         * @return the unzip options builder
+         */
+        public UnzipOptionsBuilder withProgressListener(ZipProgressListener progressListener) {
+            this.progressListener = progressListener;
+            return this;
+        }
+
+        /**
+         * Limits the number of bytes extracted from all entries together, unlimited by default.
+         *
+         * @param maxTotalSize the maximum size in bytes
+         * @return the unzip options builder
+         */
+        public UnzipOptionsBuilder withMaxTotalSize(long maxTotalSize) {
+            this.maxTotalSize = maxTotalSize;
+            return this;
+        }
+
+        /**
+         * Limits the number of entries selected for extraction, unlimited by default.
+         *
+         * @param maxEntries the maximum number of entries
+         * @return the unzip options builder
+         */
+        public UnzipOptionsBuilder withMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+            return this;
+        }
+
+        /**
+         * Limits the uncompressed to compressed ratio of every entry, unlimited by default.
+         * Entries are only held to it past their first {@link UnzipOptions#RATIO_GRACE_SIZE} bytes,
+         * so small entries of very repetitive data are not rejected.
+         *
+         * @param maxCompressionRatio the maximum ratio, e.g. 100
+         * @return the unzip options builder
+         */
+        public UnzipOptionsBuilder withMaxCompressionRatio(double maxCompressionRatio) {
+            this.maxCompressionRatio = maxCompressionRatio;
+            return this;
+        }
+
+        /**
+         * Build unzip options.
+         *
+         * @return the unzip options
+         */
+        public UnzipOptions build() {
+            Assert.isTrue(threads > 0, "The number of threads must be greater than zero");
+            Assert.isTrue(bufferSize > 0, "The buffer size must be greater than zero");
+            Assert.notNull(entryFilter, "The entry filter must not be null");
+            Assert.isTrue(maxTotalSize >= 0, "The maximum total size must not be negative");
+            Assert.isTrue(maxEntries >= 0, "The maximum number of entries must not be negative");
+            Assert.isTrue(maxCompressionRatio >= 1, "The maximum compression ratio must be at least 1");
+            return new UnzipOptions(this);
+        }
+    }
+
+    /**
+     * Intentionally kept private use {@link UnzipOptionsBuilder}
+     */
+    private UnzipOptions(final UnzipOptionsBuilder builder) {
+        this.threads = builder.threads;
+        this.bufferSize = builder.bufferSize;
+        this.entryFilter = builder.entryFilter;
+        this.progressListener = builder.progressListener;
+        this.maxTotalSize = builder.maxTotalSize;
+        this.maxEntries = builder.maxEntries;
+        this.maxCompressionRatio = builder.maxCompressionRatio;
+    }
+
+    /**
+     * Gets the default options, extracting every entry.
+     *
+     * @return the unzip options
+     */
+    public static UnzipOptions defaults() {
+        return new UnzipOptionsBuilder().build();
+    }
+
+    /**
+     * Gets the number of extraction threads.
+     *
+     * @return the threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Gets the copy buffer size.
+     *
+     * @return the buffer size in bytes
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Gets the entry filter.
+     *
+     * @return the entry filter
+     */
+    public Predicate<String> getEntryFilter() {
+        return entryFilter;
+    }
+
+    /**
+     * Gets the maximum number of bytes extracted from all entries together.
+     *
+     * @return the maximum total size in bytes
+     */
+    public long getMaxTotalSize() {
+        return maxTotalSize;
+    }
+
+    /**
+     * Gets the maximum number of entries selected for extraction.
+     *
+     * @return the maximum number of entries
+     */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+
+    /**
+     * Gets the maximum uncompressed to compressed ratio of an entry.
+     *
+     * @return the maximum compression ratio
+     */
+    public double getMaxCompressionRatio() {
+        return maxCompressionRatio;
+    }
+
+    /**
+     * Gets the progress listener.
+     *
+     * @return the progress listener, null if none
+     */
+    public ZipProgressListener getProgressListener() {
+        return progressListener;
+    }
+}
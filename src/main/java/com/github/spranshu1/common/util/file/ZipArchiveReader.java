@@ -0,0 +1,427 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.file;
+
+import com.github.spranshu1.common.util.Assert;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * Random access to the entries of a zip archive, without extracting it.
+ * <p>
+ * The central directory is read once when the archive is opened, into a compact index keyed by entry name.
+ * Entry data is memory-mapped on demand: a {@link ZipEntry#STORED} entry can be served as a read-only
+ * {@link ByteBuffer} over the file without any copy, a compressed one is inflated lazily as it is read.
+ * Supports ZIP64 archives. The reader is thread-safe, streams and buffers must not be used after it is closed.
+ * <p>
+ * Example,
+ * <pre><code>
+ * 	try (ZipArchiveReader reader = ZipArchiveReader.<b>open</b>(Paths.get("/data/assets.zip"))) {
+ * 	    try (InputStream in = reader.<b>getInputStream</b>("css/site.css")) {
+ * 	        ...
+ * 	    }
+ * 	    ByteBuffer image = reader.<b>getBuffer</b>("img/logo.png"); // STORED entry
+ * 	}
+ * </code></pre>
+ */
+public final class ZipArchiveReader implements Closeable {
+
+    private static final int INFLATER_BUFFER_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+
+    private final ZipIndex index;
+
+    private ZipArchiveReader(final FileChannel channel, final ZipIndex index) {
+        this.channel = channel;
+        this.index = index;
+    }
+
+    /**
+     * Opens an archive and reads its central directory.
+     *
+     * @param path the archive
+     * @return the reader
+     * @throws IOException the io exception, {@link ZipException} if the file is not a valid archive
+     */
+    public static ZipArchiveReader open(final Path path) throws IOException {
+        Assert.notNull(path, "The path must not be null");
+        final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            return new ZipArchiveReader(channel, ZipIndex.read(channel));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Gets the name of an entry, in central directory order.
+     *
+     * @param entry the entry index, from 0 to {@link #size()} - 1
+     * @return the entry name
+     */
+    public String getEntryName(final int entry) {
+        return index.getName(entry);
+    }
+
+    /**
+     * Checks if the archive holds an entry.
+     *
+     * @param name the entry name
+     * @return True if the entry exists
+     */
+    public boolean contains(final String name) {
+        return index.find(name) >= 0;
+    }
+
+    /**
+     * Gets the uncompressed size of an entry.
+     *
+     * @param name the entry name
+     * @return the size, or -1 if there is no such entry
+     */
+    public long getSize(final String name) {
+        final int entry = index.find(name);
+        return entry < 0 ? -1 : index.getSize(entry);
+    }
+
+    /**
+     * Gets the compression method of an entry.
+     *
+     * @param name the entry name
+     * @return {@link ZipEntry#STORED} or {@link ZipEntry#DEFLATED}, or -1 if there is no such entry
+     */
+    public int getMethod(final String name) {
+        final int entry = index.find(name);
+        return entry < 0 ? -1 : index.getMethod(entry);
+    }
+
+    /**
+     * Gets the content of an entry as a stream, inflated as it is read.
+     * <p>
+     * The size and CRC-32 of the content are checked against the central directory when the end of the
+     * stream is reached, a mismatch is reported as a {@link ZipException}.
+     *
+     * @param name the entry name
+     * @return the stream, or null if there is no such entry
+     * @throws IOException the io exception
+     */
+    public InputStream getInputStream(final String name) throws IOException {
+        final int entry = index.find(name);
+        return entry < 0 ? null : getInputStream(entry);
+    }
+
+    /**
+     * Gets the content of an entry as a stream, inflated as it is read and checked at its end.
+     *
+     * @param entry the entry index
+     * @return the stream
+     * @throws IOException the io exception
+     */
+    InputStream getInputStream(final int entry) throws IOException {
+        final InputStream raw = rawStream(entry);
+        final InputStream content;
+        switch (index.getMethod(entry)) {
+            case ZipEntry.STORED:
+                content = raw;
+                break;
+            case ZipEntry.DEFLATED:
+                content = new EntryInflaterInputStream(raw, index.getSize(entry));
+                break;
+            default:
+                throw new ZipException("Unsupported compression method " + index.getMethod(entry)
+                        + " of entry " + index.getName(entry));
+        }
+        return new CheckedEntryInputStream(content, index.getName(entry), index.getSize(entry), index.getCrc(entry));
+    }
+
+    /**
+     * Gets the content of a {@link ZipEntry#STORED} entry as a read-only buffer mapped over the archive.
+     *
+     * @param name the entry name
+     * @return the buffer, or null if there is no such entry
+     * @throws IOException the io exception, {@link ZipException} if the entry is compressed
+     */
+    public ByteBuffer getBuffer(final String name) throws IOException {
+        final int entry = index.find(name);
+        if (entry < 0) {
+            return null;
+        }
+        if (index.getMethod(entry) != ZipEntry.STORED) {
+            throw new ZipException("Entry " + name + " is compressed, read it with getInputStream");
+        }
+        return map(entry);
+    }
+
+    /**
+     * Closes the archive.
+     *
+     * @throws IOException the io exception
+     */
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Gets the index of the archive.
+     *
+     * @return the index
+     */
+    ZipIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Gets the channel of the archive.
+     *
+     * @return the channel
+     */
+    FileChannel getChannel() {
+        return channel;
+    }
+
+    /**
+     * Maps the raw data of an entry.
+     */
+    private ByteBuffer map(final int entry) throws IOException {
+        final long length = index.getCompressedSize(entry);
+        if (length > Integer.MAX_VALUE) {
+            throw new ZipException("Entry " + index.getName(entry) + " is too large to be mapped: " + length + " bytes");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, index.getDataOffset(channel, entry), length);
+    }
+
+    /**
+     * Opens the raw data of an entry, mapped if it fits in a buffer.
+     */
+    private InputStream rawStream(final int entry) throws IOException {
+        final long length = index.getCompressedSize(entry);
+        if (length <= Integer.MAX_VALUE) {
+            return new ByteBufferInputStream(map(entry));
+        }
+        return new ChannelRangeInputStream(channel, index.getDataOffset(channel, entry), length);
+    }
+
+    /**
+     * Inflates raw deflate data, ending its inflater when closed.
+     */
+    private static final class EntryInflaterInputStream extends InflaterInputStream {
+
+        private final long size;
+
+        private long inflated;
+
+        private boolean eof;
+
+        private boolean closed;
+
+        EntryInflaterInputStream(final InputStream in, final long size) {
+            super(in, new Inflater(true), INFLATER_BUFFER_SIZE);
+            this.size = size;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int n = super.read(b, off, len);
+            if (n > 0) {
+                inflated += n;
+            }
+            return n;
+        }
+
+        @Override
+        protected void fill() throws IOException {
+            if (eof) {
+                throw new EOFException("Unexpected end of entry data");
+            }
+            len = in.read(buf, 0, buf.length);
+            if (len == -1) {
+                // the inflater may need one extra byte past the end of a raw deflate stream
+                buf[0] = 0;
+                len = 1;
+                eof = true;
+            }
+            inf.setInput(buf, 0, len);
+        }
+
+        @Override
+        public int available() throws IOException {
+            if (closed) {
+                return 0;
+            }
+            final long remaining = size - inflated;
+            return remaining > Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) Math.max(0, remaining);
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!closed) {
+                closed = true;
+                inf.end();
+                super.close();
+            }
+        }
+    }
+
+    /**
+     * Checks the size and CRC-32 of an entry as it is read, failing at its end if they do not match.
+     */
+    private static final class CheckedEntryInputStream extends FilterInputStream {
+
+        private final String name;
+
+        private final long size;
+
+        private final long crc;
+
+        private final CRC32 actual = new CRC32();
+
+        private long read;
+
+        CheckedEntryInputStream(final InputStream in, final String name, final long size, final long crc) {
+            super(in);
+            this.name = name;
+            this.size = size;
+            this.crc = crc;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            final int n = in.read(b, off, len);
+            if (n > 0) {
+                read += n;
+                if (read > size) {
+                    throw new ZipException("Entry " + name + " is larger than its declared size of " + size + " bytes");
+                }
+                actual.update(b, off, n);
+            } else if (n < 0) {
+                check();
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(final long n) throws IOException {
+            // read through, so that skipped bytes are still checked
+            final byte[] buffer = new byte[(int) Math.min(Math.max(n, 0), 8192)];
+            long skipped = 0;
+            while (skipped < n) {
+                final int len = read(buffer, 0, (int) Math.min(buffer.length, n - skipped));
+                if (len < 0) {
+                    break;
+                }
+                skipped += len;
+            }
+            return skipped;
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        @Override
+        public synchronized void mark(final int readlimit) {
+            // not supported, a reset would count bytes twice
+        }
+
+        @Override
+        public synchronized void reset() throws IOException {
+            throw new IOException("mark/reset not supported");
+        }
+
+        private void check() throws ZipException {
+            if (read != size) {
+                throw new ZipException("Entry " + name + " ended after " + read + " of its " + size + " bytes");
+            }
+            if (actual.getValue() != crc) {
+                throw new ZipException("Invalid CRC-32 of entry " + name + ": expected " + Long.toHexString(crc)
+                        + ", found " + Long.toHexString(actual.getValue()));
+            }
+        }
+    }
+
+    /**
+     * Reads a region of a channel with positional reads, for entries too large to be mapped.
+     */
+    private static final class ChannelRangeInputStream extends InputStream {
+
+        private final FileChannel channel;
+
+        private long position;
+
+        private final long end;
+
+        ChannelRangeInputStream(final FileChannel channel, final long position, final long length) {
+            this.channel = channel;
+            this.position = position;
+            this.end = position + length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (len == 0) {
+                return 0;
+            }
+            if (position >= end) {
+                return -1;
+            }
+            final int n = channel.read(ByteBuffer.wrap(b, off, (int) Math.min(len, end - position)), position);
+            if (n > 0) {
+                position += n;
+            }
+            return n;
+        }
+    }
+}
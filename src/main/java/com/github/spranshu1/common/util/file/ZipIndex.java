@@ -0,0 +1,365 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.file;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.ZipException;
+
+/**
+ * The central directory of a zip archive, parsed once into flat arrays.
+ * <p>
+ * All names are kept UTF-8 encoded in a single byte array and looked up through an open-addressing
+ * hash table of entry indexes, so the index costs a few dozen bytes per entry, holds no object per entry
+ * and needs no string decoding to find one. Immutable and thread-safe.
+ */
+final class ZipIndex {
+
+    static final int END_OF_CENTRAL_DIR_SIG = 0x06054b50;
+
+    static final int ZIP64_END_OF_CENTRAL_DIR_SIG = 0x06064b50;
+
+    static final int ZIP64_LOCATOR_SIG = 0x07064b50;
+
+    static final int CENTRAL_HEADER_SIG = 0x02014b50;
+
+    static final int LOCAL_HEADER_SIG = 0x04034b50;
+
+    static final int ZIP64_EXTRA_ID = 0x0001;
+
+    private static final int END_OF_CENTRAL_DIR_LENGTH = 22;
+
+    private static final int ZIP64_LOCATOR_LENGTH = 20;
+
+    private static final int CENTRAL_HEADER_LENGTH = 46;
+
+    private static final int MAX_COMMENT_LENGTH = 0xFFFF;
+
+    private static final long MAX_32 = 0xFFFFFFFFL;
+
+    private final int size;
+
+    private final byte[] names;
+
+    private final int[] nameOffsets;
+
+    private final int[] methods;
+
+    private final int[] crcs;
+
+    private final long[] compressedSizes;
+
+    private final long[] sizes;
+
+    private final long[] localHeaderOffsets;
+
+    private final long[] times;
+
+    private final int[] table;
+
+    private ZipIndex(final int size, final byte[] names, final int[] nameOffsets, final int[] methods,
+                     final int[] crcs, final long[] compressedSizes, final long[] sizes,
+                     final long[] localHeaderOffsets, final long[] times) {
+        this.size = size;
+        this.names = names;
+        this.nameOffsets = nameOffsets;
+        this.methods = methods;
+        this.crcs = crcs;
+        this.compressedSizes = compressedSizes;
+        this.sizes = sizes;
+        this.localHeaderOffsets = localHeaderOffsets;
+        this.times = times;
+        this.table = new int[tableSize(size)];
+        for (int i = 0; i < size; i++) {
+            insert(i);
+        }
+    }
+
+    /**
+     * Reads the central directory of an archive.
+     *
+     * @param channel the archive
+     * @return the index
+     * @throws IOException the io exception
+     */
+    static ZipIndex read(final FileChannel channel) throws IOException {
+        final long fileSize = channel.size();
+        final int tailLength = (int) Math.min(fileSize, END_OF_CENTRAL_DIR_LENGTH + MAX_COMMENT_LENGTH);
+        final ByteBuffer tail = readFully(channel, fileSize - tailLength, tailLength);
+        int eocd = -1;
+        for (int i = tailLength - END_OF_CENTRAL_DIR_LENGTH; i >= 0; i--) {
+            if (tail.getInt(i) == END_OF_CENTRAL_DIR_SIG) {
+                eocd = i;
+                break;
+            }
+        }
+        if (eocd < 0) {
+            throw new ZipException("End of central directory not found, not a zip archive");
+        }
+        long entries = tail.getShort(eocd + 10) & 0xFFFF;
+        long centralSize = tail.getInt(eocd + 12) & MAX_32;
+        long centralOffset = tail.getInt(eocd + 16) & MAX_32;
+
+        final long eocdPosition = fileSize - tailLength + eocd;
+        if (entries == 0xFFFF || centralSize == MAX_32 || centralOffset == MAX_32) {
+            if (eocdPosition >= ZIP64_LOCATOR_LENGTH) {
+                final ByteBuffer locator = readFully(channel, eocdPosition - ZIP64_LOCATOR_LENGTH, ZIP64_LOCATOR_LENGTH);
+                if (locator.getInt(0) == ZIP64_LOCATOR_SIG) {
+                    final ByteBuffer zip64 = readFully(channel, locator.getLong(8), 56);
+                    if (zip64.getInt(0) != ZIP64_END_OF_CENTRAL_DIR_SIG) {
+                        throw new ZipException("Invalid ZIP64 end of central directory");
+                    }
+                    entries = zip64.getLong(32);
+                    centralSize = zip64.getLong(40);
+                    centralOffset = zip64.getLong(48);
+                }
+            }
+        }
+        // every entry takes at least a fixed header, so a count the directory cannot hold is rejected
+        // before anything is allocated for it
+        if (entries < 0 || centralSize < 0 || centralOffset < 0
+                || entries > Integer.MAX_VALUE - 8 || centralSize > Integer.MAX_VALUE
+                || entries * CENTRAL_HEADER_LENGTH > centralSize || centralOffset + centralSize > fileSize) {
+            throw new ZipException("Invalid or unsupported central directory: " + entries + " entries, "
+                    + centralSize + " bytes at " + centralOffset);
+        }
+        final ByteBuffer central = channel.map(FileChannel.MapMode.READ_ONLY, centralOffset, centralSize)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        return parse(central, (int) entries);
+    }
+
+    private static ZipIndex parse(final ByteBuffer central, final int entries) throws ZipException {
+        final int[] nameOffsets = new int[entries + 1];
+        final int[] methods = new int[entries];
+        final int[] crcs = new int[entries];
+        final long[] compressedSizes = new long[entries];
+        final long[] sizes = new long[entries];
+        final long[] localHeaderOffsets = new long[entries];
+        final long[] times = new long[entries];
+        // names, extras and comments fill the central directory besides the fixed headers
+        byte[] names = new byte[(int) Math.max(0, central.capacity() - (long) CENTRAL_HEADER_LENGTH * entries)];
+        int nameLength = 0;
+        int pos = 0;
+        for (int i = 0; i < entries; i++) {
+            if (pos + CENTRAL_HEADER_LENGTH > central.capacity() || central.getInt(pos) != CENTRAL_HEADER_SIG) {
+                throw new ZipException("Invalid central directory header of entry " + i);
+            }
+            final int n = central.getShort(pos + 28) & 0xFFFF;
+            final int extraLength = central.getShort(pos + 30) & 0xFFFF;
+            final int commentLength = central.getShort(pos + 32) & 0xFFFF;
+            methods[i] = central.getShort(pos + 10) & 0xFFFF;
+            times[i] = central.getInt(pos + 12) & MAX_32;
+            crcs[i] = central.getInt(pos + 16);
+            long compressedSize = central.getInt(pos + 20) & MAX_32;
+            long size = central.getInt(pos + 24) & MAX_32;
+            long offset = central.getInt(pos + 42) & MAX_32;
+
+            final int nameStart = pos + CENTRAL_HEADER_LENGTH;
+            if (nameStart + n + extraLength + commentLength > central.capacity()) {
+                throw new ZipException("Invalid central directory header of entry " + i);
+            }
+            if (nameLength + n > names.length) {
+                names = Arrays.copyOf(names, Math.max(names.length * 2, nameLength + n));
+            }
+            for (int b = 0; b < n; b++) {
+                names[nameLength + b] = central.get(nameStart + b);
+            }
+            nameOffsets[i] = nameLength;
+            nameLength += n;
+
+            if (size == MAX_32 || compressedSize == MAX_32 || offset == MAX_32) {
+                int extra = nameStart + n;
+                final int extraEnd = extra + extraLength;
+                while (extra + 4 <= extraEnd) {
+                    final int id = central.getShort(extra) & 0xFFFF;
+                    final int length = central.getShort(extra + 2) & 0xFFFF;
+                    if (id == ZIP64_EXTRA_ID) {
+                        int field = extra + 4;
+                        final int fieldEnd = Math.min(field + length, extraEnd);
+                        if (size == MAX_32 && field + 8 <= fieldEnd) {
+                            size = central.getLong(field);
+                            field += 8;
+                        }
+                        if (compressedSize == MAX_32 && field + 8 <= fieldEnd) {
+                            compressedSize = central.getLong(field);
+                            field += 8;
+                        }
+                        if (offset == MAX_32 && field + 8 <= fieldEnd) {
+                            offset = central.getLong(field);
+                        }
+                        break;
+                    }
+                    extra += 4 + length;
+                }
+            }
+            compressedSizes[i] = compressedSize;
+            sizes[i] = size;
+            localHeaderOffsets[i] = offset;
+            pos = nameStart + n + extraLength + commentLength;
+        }
+        nameOffsets[entries] = nameLength;
+        return new ZipIndex(entries, names.length == nameLength ? names : Arrays.copyOf(names, nameLength),
+                nameOffsets, methods, crcs, compressedSizes, sizes, localHeaderOffsets, times);
+    }
+
+    /**
+     * Reads a region of the archive, little-endian.
+     */
+    static ByteBuffer readFully(final FileChannel channel, final long position, final int length) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(length);
+        long at = position;
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, at);
+            if (read < 0) {
+                throw new ZipException("Unexpected end of archive at " + at);
+            }
+            at += read;
+        }
+        return buffer.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Finds an entry.
+     *
+     * @param name the entry name
+     * @return the entry index, or -1 if there is no such entry
+     */
+    int find(final String name) {
+        final byte[] key = name.getBytes(StandardCharsets.UTF_8);
+        final int mask = table.length - 1;
+        for (int slot = hash(key, 0, key.length) & mask; ; slot = (slot + 1) & mask) {
+            final int entry = table[slot] - 1;
+            if (entry < 0) {
+                return -1;
+            }
+            if (nameEquals(entry, key)) {
+                return entry;
+            }
+        }
+    }
+
+    /**
+     * Adds an entry to the hash table, the first of duplicate names wins.
+     */
+    private void insert(final int entry) {
+        final int start = nameOffsets[entry];
+        final int length = nameOffsets[entry + 1] - start;
+        final int mask = table.length - 1;
+        for (int slot = hash(names, start, length) & mask; ; slot = (slot + 1) & mask) {
+            final int existing = table[slot] - 1;
+            if (existing < 0) {
+                table[slot] = entry + 1;
+                return;
+            }
+            if (nameEquals(existing, names, start, length)) {
+                return;
+            }
+        }
+    }
+
+    private boolean nameEquals(final int entry, final byte[] key) {
+        return nameEquals(entry, key, 0, key.length);
+    }
+
+    private boolean nameEquals(final int entry, final byte[] key, final int start, final int length) {
+        final int offset = nameOffsets[entry];
+        if (nameOffsets[entry + 1] - offset != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (names[offset + i] != key[start + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * FNV-1a, spread so that linear probing works with a power of two table.
+     */
+    private static int hash(final byte[] b, final int off, final int len) {
+        int h = 0x811C9DC5;
+        for (int i = off; i < off + len; i++) {
+            h ^= b[i];
+            h *= 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSize(final int entries) {
+        // load factor of at most 0.5
+        return Integer.highestOneBit(Math.max(2, entries) * 2 - 1) << 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    String getName(final int entry) {
+        final int offset = nameOffsets[entry];
+        return new String(names, offset, nameOffsets[entry + 1] - offset, StandardCharsets.UTF_8);
+    }
+
+    int getMethod(final int entry) {
+        return methods[entry];
+    }
+
+    long getCrc(final int entry) {
+        return crcs[entry] & MAX_32;
+    }
+
+    long getCompressedSize(final int entry) {
+        return compressedSizes[entry];
+    }
+
+    long getSize(final int entry) {
+        return sizes[entry];
+    }
+
+    long getLocalHeaderOffset(final int entry) {
+        return localHeaderOffsets[entry];
+    }
+
+    /**
+     * Gets the MS-DOS modification time, as stored in the archive.
+     */
+    long getDosTime(final int entry) {
+        return times[entry];
+    }
+
+    /**
+     * Gets the position of the entry data, after its local header.
+     *
+     * @param channel the archive
+     * @param entry   the entry index
+     * @return the data offset
+     * @throws IOException the io exception
+     */
+    long getDataOffset(final FileChannel channel, final int entry) throws IOException {
+        final long offset = localHeaderOffsets[entry];
+        final ByteBuffer header = readFully(channel, offset, 30);
+        if (header.getInt(0) != LOCAL_HEADER_SIG) {
+            throw new ZipException("Invalid local header of entry " + getName(entry));
+        }
+        return offset + 30 + (header.getShort(26) & 0xFFFF) + (header.getShort(28) & 0xFFFF);
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.file;
+
+import com.github.spranshu1.common.util.Assert;
+
+import java.util.zip.Deflater;
+
+/**
+ * Options of the parallel {@link ZipUtil#zip(String, String, ZipOptions)}.
+ * <p>
+ * Files are split into chunks of {@code chunkSize} bytes that are deflated independently on
+ * {@code threads} worker threads, so a single large file is compressed on all cores as well.
+ * <p>
+ * Example,
+ * <pre><code>
+ * 	ZipOptions options = new ZipOptions.ZipOptionsBuilder()
+ * 	        .withThreads(8)
+ * 	        .withCompressionLevel(Deflater.BEST_SPEED)
+ * 	        .build();
+ *
+ * 	ZipUtil.<b>zip</b>("/data/logs", "/backup/logs.zip", options);
+ * </code></pre>
+ */
+public final class ZipOptions {
+
+    /**
+     * The default chunk size, 1 MB.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+
+    /**
+     * The default output buffer size, 64 KB.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = ChannelIO.DEFAULT_BUFFER_SIZE;
+
+    private final int threads;
+
+    private final int compressionLevel;
+
+    private final int chunkSize;
+
+    private final int bufferSize;
+
+    private final CompressionPolicy compressionPolicy;
+
+    private final ZipProgressListener progressListener;
+
+    private final ChangeDetection changeDetection;
+
+    /**
+     * The type Zip options builder.
+     */
+    public static class ZipOptionsBuilder {
+        private int threads = Runtime.getRuntime().availableProcessors();
+        private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+        private int chunkSize = DEFAULT_CHUNK_SIZE;
+        private int bufferSize = DEFAULT_BUFFER_SIZE;
+        private CompressionPolicy compressionPolicy;
+        private ZipProgressListener progressListener;
+        private ChangeDetection changeDetection;
+
+        /**
+         * Sets the number of compression threads, defaults to the number of processors.
+         *
+         * @param threads the number of threads
+         * @return the zip options builder
+         */
+        public ZipOptionsBuilder withThreads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Sets the deflate level, from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION},
+         * defaults to {@link Deflater#DEFAULT_COMPRESSION}.
+         *
+         * @param compressionLevel the compression level
+         * @return the zip options builder
+         */
+        public ZipOptionsBuilder withCompressionLevel(int compressionLevel) {
+            this.compressionLevel = compressionLevel;
+            return this;
+        }
+
+        /**
+         * Sets the number of uncompressed bytes deflated by one task.
+         * Smaller chunks spread a single file over more threads, at a small cost in compression ratio.
+         *
+         * @param chunkSize the chunk size in bytes
+         * @return the zip options builder
+         */
+        public ZipOptionsBuilder withChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+            return this;
+        }
+
+        /**
+         * Sets the size of the buffer archive headers and compressed chunks are gathered in before they are
+         * written, stored files bypass it.
+         *
+         * @param bufferSize the buffer size in bytes
+         * @return the zip options builder
+         */
+        public ZipOptionsBuilder withBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * Decides per entry whether it is stored or deflated and at which level,
+         * replacing the single {@link #withCompressionLevel(int) compression level}.
+         *
+         * @param compressionPolicy the compression policy
+         * @return the zip options builder
+         * @see StandardCompressionPolicy
+         */
+        public ZipOptionsBuilder withCompressionPolicy(CompressionPolicy compressionPolicy) {
+            this.compressionPolicy = compressionPolicy;
+            return this;
+        }
+
+        /**
+         * Reports the bytes, entries and phase times of the job as every entry is written.
+         *
+         * @param progressListener the progress listener
+         * @return the zip options builder
+         */
+        public ZipOptionsBuilder withProgressListener(ZipProgressListener progressListener) {
+            this.progressListener = progressListener;
+            return this;
+        }
+
+        /**
+         * Updates an existing archive instead of rebuilding it. The entries of files found unchanged are copied
+         * from the archive still compressed, only new and modified files are compressed, and entries of files
+         * no longer in the source are dropped. The archive is rebuilt in full if it does not exist yet.
+         *
+         * @param changeDetection how unchanged files are detected
+         * @return the zip options builder
+         */
+        public ZipOptionsBuilder withIncremental(ChangeDetection changeDetection) {
+            this.changeDetection = changeDetection;
+            return this;
+        }
+
+        /**
+         * Build zip options.
+         *
+         * @return the zip options
+         */
+        public ZipOptions build() {
+            Assert.isTrue(threads > 0, "The number of threads must be greater than zero");
+            Assert.isTrue(compressionLevel == Deflater.DEFAULT_COMPRESSION
+                            || (compressionLevel >= Deflater.NO_COMPRESSION && compressionLevel <= Deflater.BEST_COMPRESSION),
+                    "The compression level must be between 0 and 9, or -1 for the default");
+            Assert.isTrue(chunkSize > 0, "The chunk size must be greater than zero");
+            Assert.isTrue(bufferSize > 0, "The buffer size must be greater than zero");
+            return new ZipOptions(this);
+        }
+    }
+
+    /**
+     * Intentionally kept private use {@link ZipOptionsBuilder}
+     */
+    private ZipOptions(final ZipOptionsBuilder builder) {
+        this.threads = builder.threads;
+        this.compressionLevel = builder.compressionLevel;
+        this.chunkSize = builder.chunkSize;
+        this.bufferSize = builder.bufferSize;
+        this.compressionPolicy = builder.compressionPolicy != null
+                ? builder.compressionPolicy : CompressionPolicy.fixed(builder.compressionLevel);
+        this.progressListener = builder.progressListener;
+        this.changeDetection = builder.changeDetection;
+    }
+
+    /**
+     * Gets the default options.
+     *
+     * @return the zip options
+     */
+    public static ZipOptions defaults() {
+        return new ZipOptionsBuilder().build();
+    }
+
+    /**
+     * Gets the number of compression threads.
+     *
+     * @return the threads
+     */
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Gets the deflate level.
+     *
+     * @return the compression level
+     */
+    public int getCompressionLevel() {
+        return compressionLevel;
+    }
+
+    /**
+     * Gets the compression policy, deflating every entry at the compression level if none was set.
+     *
+     * @return the compression policy
+     */
+    public CompressionPolicy getCompressionPolicy() {
+        return compressionPolicy;
+    }
+
+    /**
+     * Gets the chunk size.
+     *
+     * @return the chunk size in bytes
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Gets the output buffer size.
+     *
+     * @return the buffer size in bytes
+     */
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    /**
+     * Gets how unchanged files are detected in incremental mode.
+     *
+     * @return the change detection, null if the archive is always rebuilt in full
+     */
+    public ChangeDetection getChangeDetection() {
+        return changeDetection;
+    }
+
+    /**
+     * Gets the progress listener.
+     *
+     * @return the progress listener, null if none
+     */
+    public ZipProgressListener getProgressListener() {
+        return progressListener;
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.file;
+
+/**
+ * The phases of a zip or unzip job that {@link ZipProgress} reports the time of.
+ * <p>
+ * Phases running on worker threads add up the time of all threads, so they can exceed the elapsed time of the job.
+ */
+public enum ZipPhase {
+
+    /**
+     * Listing the files to zip, or reading the central directory and creating directories to unzip.
+     */
+    WALK,
+
+    /**
+     * Reading uncompressed file data.
+     */
+    READ,
+
+    /**
+     * Compressing data and computing checksums.
+     */
+    DEFLATE,
+
+    /**
+     * Reading and decompressing entry data.
+     */
+    INFLATE,
+
+    /**
+     * Writing the archive, or writing the extracted files.
+     */
+    WRITE
+}
@@ -0,0 +1,132 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.file;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An immutable snapshot of the progress of a zip or unzip job.
+ * <p>
+ * When zipping, bytes read are uncompressed file bytes and bytes written are archive bytes.
+ * When unzipping, bytes read are compressed entry bytes and bytes written are extracted file bytes.
+ */
+public final class ZipProgress {
+
+    private final long bytesRead;
+
+    private final long bytesWritten;
+
+    private final int entriesDone;
+
+    private final String currentEntry;
+
+    private final Map<ZipPhase, Long> phaseNanos;
+
+    /**
+     * Instantiates a new zip progress.
+     *
+     * @param bytesRead    the bytes read
+     * @param bytesWritten the bytes written
+     * @param entriesDone  the number of complete entries
+     * @param currentEntry the last entry completed, null if none
+     * @param phaseNanos   the time spent in every phase in nanoseconds
+     */
+    ZipProgress(final long bytesRead, final long bytesWritten, final int entriesDone, final String currentEntry,
+                final Map<ZipPhase, Long> phaseNanos) {
+        this.bytesRead = bytesRead;
+        this.bytesWritten = bytesWritten;
+        this.entriesDone = entriesDone;
+        this.currentEntry = currentEntry;
+        this.phaseNanos = new EnumMap<>(phaseNanos);
+    }
+
+    /**
+     * Gets the number of bytes read.
+     *
+     * @return the bytes read
+     */
+    public long getBytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Gets the number of bytes written.
+     *
+     * @return the bytes written
+     */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    /**
+     * Gets the number of complete entries.
+     *
+     * @return the entries done
+     */
+    public int getEntriesDone() {
+        return entriesDone;
+    }
+
+    /**
+     * Gets the name of the last entry completed.
+     *
+     * @return the entry name, null if none
+     */
+    public String getCurrentEntry() {
+        return currentEntry;
+    }
+
+    /**
+     * Gets the compressed to uncompressed ratio so far, e.g. 0.25 when the archive is a quarter of the data.
+     *
+     * @return the compression ratio, 0 if nothing was processed yet
+     */
+    public double getCompressionRatio() {
+        final long compressed = Math.min(bytesRead, bytesWritten);
+        final long uncompressed = Math.max(bytesRead, bytesWritten);
+        return uncompressed == 0 ? 0 : (double) compressed / uncompressed;
+    }
+
+    /**
+     * Gets the time spent in a phase.
+     *
+     * @param phase the phase
+     * @param unit  the unit of the result
+     * @return the elapsed time
+     */
+    public long getElapsed(final ZipPhase phase, final TimeUnit unit) {
+        final Long nanos = phaseNanos.get(phase);
+        return unit.convert(nanos == null ? 0 : nanos, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public String toString() {
+        return "ZipProgress{entriesDone=" + entriesDone + ", bytesRead=" + bytesRead + ", bytesWritten=" + bytesWritten
+                + ", currentEntry=" + currentEntry + ", phaseMillis=" + toMillis() + '}';
+    }
+
+    private Map<ZipPhase, Long> toMillis() {
+        final Map<ZipPhase, Long> millis = new EnumMap<>(ZipPhase.class);
+        for (Map.Entry<ZipPhase, Long> entry : phaseNanos.entrySet()) {
+            millis.put(entry.getKey(), TimeUnit.NANOSECONDS.toMillis(entry.getValue()));
+        }
+        return millis;
+    }
+}
@@ -0,0 +1,46 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.file;
+
+/**
+ * Receives the progress of a zip or unzip job.
+ * <p>
+ * Calls are serialised, but they may come from worker threads, so a listener should return quickly.
+ * <pre class="code">
+ *     ZipProgressListener listener = progress -&gt; log.info("{}", progress);
+ * </pre>
+ */
+@FunctionalInterface
+public interface ZipProgressListener {
+
+    /**
+     * Called every time an entry is complete.
+     *
+     * @param progress the progress so far
+     */
+    void onEntry(ZipProgress progress);
+
+    /**
+     * Called once when the job is complete.
+     *
+     * @param progress the final progress
+     */
+    default void onComplete(ZipProgress progress) {
+        // nothing by default
+    }
+}
@@ -17,26 +17,32 @@
  */
 package com.github.spranshu1.common.util.file;
 
+import com.github.spranshu1.common.util.Assert;
 import com.github.spranshu1.common.util.Messages;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
-import java.util.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
 
 /**
  * The type Zip util.
+ * <p>
+ * Archive files are read and written through 64 KB buffers, and data is copied through a buffer pooled per thread.
  */
 public final class ZipUtil {
 
     /** The constant logger */
     private static final Logger log = LoggerFactory.getLogger(ZipUtil.class);
 
-    private static List<String> filesListInDir;
-
     /**
      * Used for zipping file or folder
      * It takes source file/folder and target file path as a String
@@ -61,7 +67,39 @@ public final class ZipUtil {
     }
 
     /**
-     * Zips the directory
+     * Zips a file or folder with its data deflated in parallel.
+     * Large files are split into chunks compressed on all threads, small files are compressed concurrently.
+     * With {@link ZipOptions.ZipOptionsBuilder#withIncremental(ChangeDetection)} an existing archive is updated,
+     * only new and modified files are compressed.
+     * <pre class="code">
+     *      ZipUtil.zip("D:\testfolder","D:\testFolder.zip", ZipOptions.defaults()) // creates testFolder.zip
+     * </pre>
+     *
+     * @param source  the source destination
+     * @param output  the output destination
+     * @param options the zip options
+     * @return True on success
+     * @throws IOException the io exception
+     * @see ZipOptions
+     */
+    public static boolean zip(String source, String output, ZipOptions options) throws IOException {
+        Assert.notNull(options, "The zip options must not be null");
+        try {
+            ParallelZipper.zip(Paths.get(source), Paths.get(output), options);
+            return true;
+        } catch (IOException e) {
+            log.error(Messages.ERR_DIR_ZIP, e);
+            throw e;
+        } catch (UncheckedIOException e) {
+            log.error(Messages.ERR_DIR_ZIP, e);
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * Zips the directory.
+     * The tree is walked lazily and every file is streamed straight into the archive,
+     * no state is shared between calls so directories can be zipped concurrently.
      *
      * @param sourceFile the source file
      * @param zippedFile the zipped file
@@ -69,47 +107,52 @@ public final class ZipUtil {
      * @throws IOException the io exception
      */
     private static boolean zipDirectory(final File sourceFile, final String zippedFile) throws IOException {
-        boolean isZipped = false;
+        final Path root = sourceFile.toPath();
+        final Path output = Paths.get(zippedFile).toAbsolutePath();
         try (FileOutputStream fos = new FileOutputStream(zippedFile, false);
-             ZipOutputStream zos = new ZipOutputStream(fos)
-        ) {
-            filesListInDir = new ArrayList<>();
-            populateFilesList(sourceFile);
-            for (String filePath : filesListInDir) {
-                final ZipEntry ze = new ZipEntry(filePath.substring(sourceFile.getAbsolutePath().length() + 1));
-                zos.putNextEntry(ze);
-                final FileInputStream fis = new FileInputStream(filePath);
-                final byte[] buffer = new byte[1024];
-                int len;
-                while ((len = fis.read(buffer)) > 0) {
-                    zos.write(buffer, 0, len);
+             ZipOutputStream zos = new ZipOutputStream(new BufferedOutputStream(fos, ChannelIO.DEFAULT_BUFFER_SIZE));
+             Stream<Path> files = Files.walk(root)) {
+            final Iterator<Path> it = files.filter(Files::isRegularFile).iterator();
+            final byte[] buffer = ChannelIO.buffer(ChannelIO.DEFAULT_BUFFER_SIZE);
+            while (it.hasNext()) {
+                final Path file = it.next();
+                if (file.toAbsolutePath().equals(output)) {
+                    continue;
+                }
+                zos.putNextEntry(new ZipEntry(entryName(root, file)));
+                try (InputStream fis = Files.newInputStream(file)) {
+                    ChannelIO.copy(fis, zos, buffer);
                 }
                 zos.closeEntry();
-                fis.close();
             }
-            isZipped = true;
+            return true;
         } catch (IOException e) {
             log.error(Messages.ERR_DIR_ZIP, e);
             throw e;
+        } catch (UncheckedIOException e) {
+            // thrown by the walk when a directory cannot be read
+            log.error(Messages.ERR_DIR_ZIP, e);
+            throw e.getCause();
         }
-        return isZipped;
     }
 
     /**
-     * This method populates all the files in a directory to a List recursively
+     * Gets the zip entry name of a file, relative to the source directory with {@code /} separators.
      *
-     * @param dir the directory
+     * @param root the source directory
+     * @param file the file
+     * @return the entry name
      */
-    private static void populateFilesList(File dir) {
-        File[] files = dir.listFiles();
-
-        for (File file : files) {
-            if (file.isFile())
-                filesListInDir.add(file.getAbsolutePath());
-            else
-                populateFilesList(file);
+    static String entryName(final Path root, final Path file) {
+        final Path relative = root.relativize(file);
+        final StringBuilder name = new StringBuilder();
+        for (Path part : relative) {
+            if (name.length() > 0) {
+                name.append('/');
+            }
+            name.append(part.toString());
         }
-
+        return name.toString();
     }
 
     /**
@@ -119,19 +162,17 @@ public final class ZipUtil {
      * @param lis        List of inputstreams to be zipped together
      * @param zippedFile Target file path as a String
      * @throws IOException the io exception
+     * @see ZipWriter for named entries opened lazily and written to any stream
      */
     public static void zipStream(List<InputStream> lis, String zippedFile) throws IOException {
         try (FileOutputStream fos = new FileOutputStream(zippedFile, false);
-             ZipOutputStream zos = new ZipOutputStream(fos)) {
+             ZipOutputStream zos = new ZipOutputStream(new BufferedOutputStream(fos, ChannelIO.DEFAULT_BUFFER_SIZE))) {
+            final byte[] buffer = ChannelIO.buffer(ChannelIO.DEFAULT_BUFFER_SIZE);
             int i = 0;
             for (InputStream file : lis) {
                 ZipEntry ze = new ZipEntry(i + ".txt");
                 zos.putNextEntry(ze);
-                byte[] buffer = new byte[1024];
-                int len;
-                while ((len = file.read(buffer)) > 0) {
-                    zos.write(buffer, 0, len);
-                }
+                ChannelIO.copy(file, zos, buffer);
                 i++;
                 zos.closeEntry();
                 file.close();
@@ -153,16 +194,11 @@ public final class ZipUtil {
     private static boolean zipSingleFile(File sourceFile, String zippedFile) throws IOException {
         boolean isZipped = false;
         try (FileOutputStream fos = new FileOutputStream(zippedFile);
-             ZipOutputStream zos = new ZipOutputStream(fos);
+             ZipOutputStream zos = new ZipOutputStream(new BufferedOutputStream(fos, ChannelIO.DEFAULT_BUFFER_SIZE));
              FileInputStream fis = new FileInputStream(sourceFile)) {
             ZipEntry ze = new ZipEntry(sourceFile.getName());
             zos.putNextEntry(ze);
-
-            byte[] buffer = new byte[1024];
-            int len;
-            while ((len = fis.read(buffer)) > 0) {
-                zos.write(buffer, 0, len);
-            }
+            ChannelIO.copy(fis, zos, ChannelIO.buffer(ChannelIO.DEFAULT_BUFFER_SIZE));
             zos.closeEntry();
             isZipped = true;
         } catch (IOException e) {
@@ -176,43 +212,61 @@ public final class ZipUtil {
 
     /**
      * Unzips the compressed file
+     * Entries are streamed in archive order, an entry whose name leads outside of the destination folder,
+     * directly or through a symbolic link, fails the extraction.
      *
      * @param zipFile           the zip file path
      * @param destinationFolder the destination folder
      * @throws IOException the io exception
+     * @see #unzip(String, String, UnzipOptions) to limit the size of untrusted archives
      */
     public static void unzip(String zipFile, String destinationFolder) throws IOException {
-        File directory = new File(destinationFolder);
-        if (!directory.exists())
-            directory.mkdirs();
-        byte[] buffer = new byte[2048];
+        final byte[] buffer = ChannelIO.buffer(ChannelIO.DEFAULT_BUFFER_SIZE);
         try (FileInputStream fInput = new FileInputStream(zipFile);
-             ZipInputStream zipInput = new ZipInputStream(fInput)) {
+             ZipInputStream zipInput = new ZipInputStream(new BufferedInputStream(fInput, ChannelIO.DEFAULT_BUFFER_SIZE))) {
+            final ExtractionGuard guard = new ExtractionGuard(Paths.get(destinationFolder), UnzipOptions.defaults());
             ZipEntry entry = zipInput.getNextEntry();
             while (entry != null) {
-                String entryName = entry.getName();
-                File file = new File(destinationFolder + File.separator + entryName);
+                final Path target = guard.resolve(entry.getName());
                 if (entry.isDirectory()) {
-                    File newDir = new File(file.getAbsolutePath());
-                    if (!newDir.exists()) {
-                        newDir.mkdirs();
-                    }
+                    guard.createDirectory(target);
                 } else {
-                    FileOutputStream fOutput = new FileOutputStream(file);
-                    int count;
-                    while ((count = zipInput.read(buffer)) > 0) {
-                        fOutput.write(buffer, 0, count);
+                    guard.createDirectory(target.getParent());
+                    try (OutputStream fOutput = Files.newOutputStream(target, ExtractionGuard.WRITE_OPTIONS)) {
+                        ChannelIO.copy(zipInput, fOutput, buffer);
                     }
-                    fOutput.close();
                 }
                 zipInput.closeEntry();
                 entry = zipInput.getNextEntry();
             }
-            zipInput.closeEntry();
         } catch (IOException e) {
             log.error(Messages.ERR_FILE_UNZIP, e);
             throw e;
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Unzips the compressed file through its central directory, extracting entries in parallel.
+     * Only the entries selected by the options are read.
+     * <pre class="code">
+     *      ZipUtil.unzip("D:\logs.zip","D:\logs", UnzipOptions.defaults()) // extracts everything
+     * </pre>
+     *
+     * @param zipFile           the zip file path
+     * @param destinationFolder the destination folder
+     * @param options           the unzip options
+     * @return the number of files extracted
+     * @throws IOException the io exception
+     * @see UnzipOptions
+     */
+    public static int unzip(String zipFile, String destinationFolder, UnzipOptions options) throws IOException {
+        Assert.notNull(options, "The unzip options must not be null");
+        try {
+            return ParallelUnzipper.unzip(Paths.get(zipFile), Paths.get(destinationFolder), options);
+        } catch (IOException e) {
+            log.error(Messages.ERR_FILE_UNZIP, e);
+            throw e;
+        }
+    }
+
+}
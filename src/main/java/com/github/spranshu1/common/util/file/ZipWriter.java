@@ -0,0 +1,337 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.file;
+
+import com.github.spranshu1.common.util.Assert;
+import com.github.spranshu1.common.util.date.DateTimeUtil;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+/**
+ * Writes a zip archive to a stream, one entry at a time.
+ * <p>
+ * Every entry is read from its source and deflated straight into the output as it is added, with data
+ * descriptors after the data, so nothing is buffered beyond a fixed copy buffer and an entry source is only
+ * opened when its entry is written. Suits archives generated on the fly into a network response.
+ * An optional {@link CompressionPolicy} stores or deflates every entry at its own level.
+ * Not thread-safe.
+ * <p>
+ * Example,
+ * <pre><code>
+ * 	try (ZipWriter zip = new ZipWriter(response.getOutputStream())) {
+ * 	    zip.<b>addEntry</b>("report.csv", () -&gt; reportService.open(id));
+ * 	    zip.<b>addEntry</b>("summary.json", summaryBytes);
+ * 	    zip.<b>addEntry</b>("logo.png", Paths.get("/assets/logo.png"));
+ * 	}
+ * </code></pre>
+ */
+public final class ZipWriter implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final ByteBuffer EMPTY = ByteBuffer.allocate(0).asReadOnlyBuffer();
+
+    private final RawZipWriter writer;
+
+    private final Deflater deflater;
+
+    private final CompressionPolicy policy;
+
+    private final CRC32 crc = new CRC32();
+
+    private final byte[] input = new byte[BUFFER_SIZE];
+
+    private final byte[] output = new byte[BUFFER_SIZE];
+
+    private boolean closed;
+
+    /**
+     * Instantiates a new zip writer with the default compression level.
+     *
+     * @param out the target stream
+     */
+    public ZipWriter(final OutputStream out) {
+        this(out, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Instantiates a new zip writer.
+     *
+     * @param out              the target stream
+     * @param compressionLevel the deflate level, from {@link Deflater#BEST_SPEED} to {@link Deflater#BEST_COMPRESSION}
+     */
+    public ZipWriter(final OutputStream out, final int compressionLevel) {
+        this(out, CompressionPolicy.fixed(compressionLevel));
+    }
+
+    /**
+     * Instantiates a new zip writer deciding the compression of every entry by a policy.
+     * <p>
+     * Files and byte arrays the policy stores are written as {@link ZipEntry#STORED}, with their CRC computed
+     * up front. The size of streams and channels is not known before they are read, the policy sees a size of
+     * -1 for them and a decision to store them is written as deflate level 0, which costs no compression either.
+     *
+     * @param out    the target stream
+     * @param policy the compression policy
+     */
+    public ZipWriter(final OutputStream out, final CompressionPolicy policy) {
+        this(out, null, policy);
+    }
+
+    /**
+     * Instantiates a new zip writer with the default compression level.
+     *
+     * @param channel the target channel
+     */
+    public ZipWriter(final WritableByteChannel channel) {
+        this(channel, CompressionPolicy.fixed(Deflater.DEFAULT_COMPRESSION));
+    }
+
+    /**
+     * Instantiates a new zip writer deciding the compression of every entry by a policy.
+     * Stored files are transferred to the channel without a copy through the heap.
+     *
+     * @param channel the target channel
+     * @param policy  the compression policy
+     */
+    public ZipWriter(final WritableByteChannel channel, final CompressionPolicy policy) {
+        this(toOutputStream(channel), channel, policy);
+    }
+
+    private ZipWriter(final OutputStream out, final WritableByteChannel channel, final CompressionPolicy policy) {
+        Assert.notNull(out, "The output stream must not be null");
+        Assert.notNull(policy, "The compression policy must not be null");
+        this.writer = new RawZipWriter(new BufferedOutputStream(out, BUFFER_SIZE), channel);
+        this.deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        this.policy = policy;
+    }
+
+    /**
+     * Adds an entry read from a stream, the stream is opened now and closed once it is read.
+     *
+     * @param name   the entry name, with {@code /} separators
+     * @param source the supplier of the stream
+     * @return this writer
+     * @throws IOException the io exception
+     */
+    public ZipWriter addEntry(final String name, final Supplier<? extends InputStream> source) throws IOException {
+        Assert.notNull(source, "The source must not be null");
+        checkEntry(name);
+        try (InputStream in = source.get()) {
+            Assert.notNull(in, "The source of entry " + name + " returned no stream");
+            deflateEntry(name, in, streamLevel(name));
+        }
+        return this;
+    }
+
+    /**
+     * Adds an entry holding the given bytes.
+     *
+     * @param name the entry name, with {@code /} separators
+     * @param data the content
+     * @return this writer
+     * @throws IOException the io exception
+     */
+    public ZipWriter addEntry(final String name, final byte[] data) throws IOException {
+        Assert.notNull(data, "The data must not be null");
+        checkEntry(name);
+        final int sampleSize = Math.min(policy.getSampleSize(), data.length);
+        final int level = policy.compressionLevel(name, data.length, ByteBuffer.wrap(data, 0, sampleSize).asReadOnlyBuffer());
+        if (level == CompressionPolicy.STORE) {
+            crc.reset();
+            crc.update(data, 0, data.length);
+            writer.beginEntry(name, DateTimeUtil.currentTimeMillis(), ZipEntry.STORED, crc.getValue(), data.length, data.length);
+            writer.write(data, 0, data.length);
+            writer.endEntry(crc.getValue(), data.length, data.length);
+        } else {
+            deflateEntry(name, new ByteArrayInputStream(data), level);
+        }
+        return this;
+    }
+
+    /**
+     * Adds an entry with the content of a file, the file is opened now and closed once it is read.
+     *
+     * @param name the entry name, with {@code /} separators
+     * @param file the file
+     * @return this writer
+     * @throws IOException the io exception
+     */
+    public ZipWriter addEntry(final String name, final Path file) throws IOException {
+        Assert.notNull(file, "The file must not be null");
+        checkEntry(name);
+        final long size = Files.size(file);
+        final int sampleSize = (int) Math.min(policy.getSampleSize(), size);
+        final int level = policy.compressionLevel(name, size, ChannelIO.readPrefix(file, sampleSize));
+        if (level == CompressionPolicy.STORE) {
+            final long checksum = ChannelIO.crc32(file, size);
+            writer.beginEntry(name, DateTimeUtil.currentTimeMillis(), ZipEntry.STORED, checksum, size, size);
+            writer.writeFile(file, size, input);
+            writer.endEntry(checksum, size, size);
+        } else {
+            try (InputStream in = Files.newInputStream(file)) {
+                deflateEntry(name, in, level);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Adds an entry read from a channel up to its end, the channel is closed once it is read.
+     *
+     * @param name    the entry name, with {@code /} separators
+     * @param channel the channel
+     * @return this writer
+     * @throws IOException the io exception
+     */
+    public ZipWriter addEntry(final String name, final ReadableByteChannel channel) throws IOException {
+        Assert.notNull(channel, "The channel must not be null");
+        checkEntry(name);
+        try (InputStream in = Channels.newInputStream(channel)) {
+            deflateEntry(name, in, streamLevel(name));
+        }
+        return this;
+    }
+
+    /**
+     * Adds a directory entry.
+     *
+     * @param name the directory name, a {@code /} is appended if missing
+     * @return this writer
+     * @throws IOException the io exception
+     */
+    public ZipWriter addDirectory(final String name) throws IOException {
+        checkEntry(name);
+        final String directory = name.endsWith("/") ? name : name + "/";
+        writer.beginEntry(directory, DateTimeUtil.currentTimeMillis(), ZipEntry.STORED, 0, 0, 0);
+        writer.endEntry(0, 0, 0);
+        return this;
+    }
+
+    /**
+     * Gets the number of entries written.
+     *
+     * @return the entry count
+     */
+    public int getEntryCount() {
+        return writer.getEntryCount();
+    }
+
+    /**
+     * Gets the number of bytes written to the target so far.
+     *
+     * @return the bytes written
+     */
+    public long getBytesWritten() {
+        return writer.getBytesWritten();
+    }
+
+    /**
+     * Writes the central directory and flushes the target, without closing it. No entry can be added afterwards.
+     *
+     * @throws IOException the io exception
+     */
+    public void finish() throws IOException {
+        if (!closed) {
+            closed = true;
+            try {
+                writer.finish();
+            } finally {
+                deflater.end();
+            }
+        }
+    }
+
+    /**
+     * Finishes the archive and closes the target.
+     *
+     * @throws IOException the io exception
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        } finally {
+            writer.close();
+        }
+    }
+
+    private static OutputStream toOutputStream(final WritableByteChannel channel) {
+        Assert.notNull(channel, "The channel must not be null");
+        return Channels.newOutputStream(channel);
+    }
+
+    private void checkEntry(final String name) {
+        Assert.notNull(name, "The entry name must not be null");
+        Assert.isTrue(!closed, "The zip writer is finished");
+    }
+
+    /**
+     * Gets the level of an entry whose size is not known.
+     */
+    private int streamLevel(final String name) {
+        return policy.compressionLevel(name, -1, EMPTY);
+    }
+
+    private void deflateEntry(final String name, final InputStream in, final int level) throws IOException {
+        writer.beginEntry(name, DateTimeUtil.currentTimeMillis(), ZipEntry.DEFLATED);
+        crc.reset();
+        deflater.reset();
+        deflater.setLevel(level);
+        long size = 0;
+        int len;
+        while ((len = in.read(input)) >= 0) {
+            if (len == 0) {
+                continue;
+            }
+            crc.update(input, 0, len);
+            size += len;
+            deflater.setInput(input, 0, len);
+            while (!deflater.needsInput()) {
+                deflate();
+            }
+        }
+        deflater.finish();
+        while (!deflater.finished()) {
+            deflate();
+        }
+        writer.endEntry(crc.getValue(), deflater.getBytesWritten(), size);
+    }
+
+    private void deflate() throws IOException {
+        final int n = deflater.deflate(output);
+        if (n > 0) {
+            writer.write(output, 0, n);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Writes the value of one {@link ResultSet} column of the current row as a json value.
+ * <p>
+ * Writers are looked up by SQL type in the {@link ColumnWriterRegistry} once per result set.
+ * The field name has already been written when {@link #write} is called, so a writer must write exactly one value.
+ * <p>
+ * Example,
+ * <pre><code>
+ * 	// Write a vendor specific json column as raw json
+ * 	JSONHandler.getColumnWriterRegistry().register(
+ * 	        (rs, column, generator) -&gt; generator.writeRawValue(rs.getString(column)), "JSONB");
+ * </code></pre>
+ */
+@FunctionalInterface
+public interface ColumnWriter {
+
+    /**
+     * Write the column value.
+     *
+     * @param rs        the resultset, positioned on a row
+     * @param column    the column index, starting at 1
+     * @param generator the json generator
+     * @throws IOException  the IO exception
+     * @throws SQLException the sql exception
+     */
+    void write(ResultSet rs, int column, JsonGenerator generator) throws IOException, SQLException;
+}
@@ -0,0 +1,315 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.github.spranshu1.common.util.Assert;
+import com.github.spranshu1.common.util.date.DateTimeUtil;
+import com.github.spranshu1.common.util.string.StringUtil;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The registry of {@link ColumnWriter}s, keyed by {@link Types} code or by vendor type name.
+ * <p>
+ * The built-in writers read every value through its typed getter, so no intermediate
+ * {@link Object} or {@link String} is created for numbers, and binary and character
+ * large objects are streamed to the generator. SQL {@code NULL} is written as an empty string.
+ * <p>
+ * Registrations are thread-safe. They affect result sets converted after the registration.
+ */
+public final class ColumnWriterRegistry {
+
+    /**
+     * The empty string constant
+     */
+    private static final String EMPTY_STRING = "";
+
+    /**
+     * Writes integral columns through {@link ResultSet#getLong(int)}.
+     */
+    public static final ColumnWriter LONG = (rs, column, generator) -> {
+        final long value = rs.getLong(column);
+        if (rs.wasNull())
+            generator.writeString(EMPTY_STRING);
+        else
+            generator.writeNumber(value);
+    };
+
+    /**
+     * Writes approximate numeric columns through {@link ResultSet#getDouble(int)}.
+     */
+    public static final ColumnWriter DOUBLE = (rs, column, generator) -> {
+        final double value = rs.getDouble(column);
+        if (rs.wasNull())
+            generator.writeString(EMPTY_STRING);
+        else
+            generator.writeNumber(value);
+    };
+
+    /**
+     * Writes exact numeric columns through {@link ResultSet#getBigDecimal(int)} as a json number, without loss of precision.
+     */
+    public static final ColumnWriter DECIMAL = (rs, column, generator) -> {
+        final BigDecimal value = rs.getBigDecimal(column);
+        if (value == null)
+            generator.writeString(EMPTY_STRING);
+        else
+            generator.writeNumber(value);
+    };
+
+    /**
+     * Writes boolean columns through {@link ResultSet#getBoolean(int)}.
+     */
+    public static final ColumnWriter BOOLEAN = (rs, column, generator) -> {
+        final boolean value = rs.getBoolean(column);
+        if (rs.wasNull())
+            generator.writeString(EMPTY_STRING);
+        else
+            generator.writeBoolean(value);
+    };
+
+    /**
+     * Writes character columns through {@link ResultSet#getString(int)}.
+     */
+    public static final ColumnWriter STRING = (rs, column, generator) -> {
+        final String value = rs.getString(column);
+        generator.writeString(value == null ? EMPTY_STRING : value);
+    };
+
+    /**
+     * Writes timestamp columns in the {@link DateTimeUtil#timestampToString(long)} format.
+     */
+    public static final ColumnWriter TIMESTAMP = (rs, column, generator) -> {
+        final Timestamp ts = rs.getTimestamp(column);
+        if (ts != null)
+            generator.writeString(DateTimeUtil.timestampToString(ts.getTime()));
+        else
+            generator.writeString(EMPTY_STRING);
+    };
+
+    /**
+     * Writes date columns in the {@link DateTimeUtil#dateToString(long)} format.
+     */
+    public static final ColumnWriter DATE = (rs, column, generator) -> {
+        final Date date = rs.getDate(column);
+        if (date != null)
+            generator.writeString(DateTimeUtil.dateToString(date.getTime()));
+        else
+            generator.writeString(EMPTY_STRING);
+    };
+
+    /**
+     * Streams binary columns from {@link ResultSet#getBinaryStream(int)} as a base64 string.
+     */
+    public static final ColumnWriter BINARY = (rs, column, generator) -> {
+        try (InputStream in = rs.getBinaryStream(column)) {
+            if (in == null)
+                generator.writeString(EMPTY_STRING);
+            else
+                generator.writeBinary(in, -1);
+        }
+    };
+
+    /**
+     * Streams character large object columns from {@link ResultSet#getCharacterStream(int)} as a string.
+     */
+    public static final ColumnWriter CLOB = (rs, column, generator) -> {
+        try (Reader in = rs.getCharacterStream(column)) {
+            if (in == null)
+                generator.writeString(EMPTY_STRING);
+            else
+                generator.writeString(in, -1);
+        }
+    };
+
+    /**
+     * Writes {@link Array} columns as a json array of scalars.
+     */
+    public static final ColumnWriter ARRAY = (rs, column, generator) -> {
+        final Array array = rs.getArray(column);
+        if (array == null) {
+            generator.writeString(EMPTY_STRING);
+            return;
+        }
+        try {
+            final Object elements = array.getArray();
+            final int length = java.lang.reflect.Array.getLength(elements);
+            generator.writeStartArray();
+            for (int i = 0; i < length; i++) {
+                writeScalar(java.lang.reflect.Array.get(elements, i), generator);
+            }
+            generator.writeEndArray();
+        } finally {
+            array.free();
+        }
+    };
+
+    /**
+     * Writes any other column through {@link ResultSet#getObject(int)}.
+     */
+    public static final ColumnWriter OBJECT = (rs, column, generator) -> {
+        final Object value = rs.getObject(column);
+        generator.writeString(value == null ? EMPTY_STRING : value.toString());
+    };
+
+    /**
+     * The writers by {@link Types} code.
+     */
+    private final Map<Integer, ColumnWriter> byType = new ConcurrentHashMap<>();
+
+    /**
+     * The writers by upper-case vendor type name.
+     */
+    private final Map<String, ColumnWriter> byTypeName = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates an empty registry, use {@link #defaults()} for a registry with the built-in writers.
+     */
+    public ColumnWriterRegistry() {
+        // constructor intentionally kept empty
+    }
+
+    /**
+     * Creates a registry holding the built-in writers for the standard {@link Types}.
+     *
+     * @return the column writer registry
+     */
+    public static ColumnWriterRegistry defaults() {
+        final ColumnWriterRegistry registry = new ColumnWriterRegistry();
+        registry.register(LONG, Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT);
+        registry.register(DECIMAL, Types.DECIMAL, Types.NUMERIC);
+        registry.register(DOUBLE, Types.FLOAT, Types.REAL, Types.DOUBLE);
+        registry.register(BOOLEAN, Types.BIT, Types.BOOLEAN);
+        registry.register(STRING, Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR,
+                Types.NCHAR, Types.NVARCHAR, Types.LONGNVARCHAR);
+        registry.register(TIMESTAMP, Types.TIMESTAMP);
+        registry.register(DATE, Types.DATE);
+        registry.register(BINARY, Types.BINARY, Types.VARBINARY, Types.LONGVARBINARY, Types.BLOB);
+        registry.register(CLOB, Types.CLOB, Types.NCLOB);
+        registry.register(ARRAY, Types.ARRAY);
+        return registry;
+    }
+
+    /**
+     * Registers a writer for one or more {@link Types} codes, replacing any previous registration.
+     * Vendor specific codes can be registered as well.
+     *
+     * @param writer   the column writer
+     * @param sqlTypes the sql types
+     * @return this registry
+     */
+    public ColumnWriterRegistry register(final ColumnWriter writer, final int... sqlTypes) {
+        Assert.notNull(writer, "The column writer must not be null");
+        for (int sqlType : sqlTypes) {
+            byType.put(sqlType, writer);
+        }
+        return this;
+    }
+
+    /**
+     * Registers a writer for a vendor type name as reported by {@link java.sql.ResultSetMetaData#getColumnTypeName(int)}.
+     * Type name registrations take precedence over type code registrations, the name is matched case-insensitively.
+     *
+     * @param writer   the column writer
+     * @param typeName the vendor type name
+     * @return this registry
+     */
+    public ColumnWriterRegistry register(final ColumnWriter writer, final String typeName) {
+        Assert.notNull(writer, "The column writer must not be null");
+        Assert.isTrue(StringUtil.strFieldIsNotEmpty(typeName), "The type name must not be empty");
+        byTypeName.put(typeName.toUpperCase(Locale.ROOT), writer);
+        return this;
+    }
+
+    /**
+     * Removes the writer registered for a vendor type name, if any.
+     *
+     * @param typeName the vendor type name
+     * @return the removed writer, null if none was registered
+     */
+    public ColumnWriter unregister(final String typeName) {
+        Assert.isTrue(StringUtil.strFieldIsNotEmpty(typeName), "The type name must not be empty");
+        return byTypeName.remove(typeName.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Checks if any writer was registered by vendor type name.
+     *
+     * @return true, if type names need to be resolved
+     */
+    boolean hasTypeNameWriters() {
+        return !byTypeName.isEmpty();
+    }
+
+    /**
+     * Returns the writer for a column, {@link #OBJECT} if none is registered.
+     *
+     * @param sqlType  the {@link Types} code of the column
+     * @param typeName the vendor type name of the column, may be null
+     * @return the column writer
+     */
+    public ColumnWriter lookup(final int sqlType, final String typeName) {
+        if (typeName != null) {
+            final ColumnWriter writer = byTypeName.get(typeName.toUpperCase(Locale.ROOT));
+            if (writer != null) {
+                return writer;
+            }
+        }
+        final ColumnWriter writer = byType.get(sqlType);
+        return writer == null ? OBJECT : writer;
+    }
+
+    /**
+     * Writes an array element as a json scalar.
+     *
+     * @param value     the element
+     * @param generator the json generator
+     * @throws IOException the IO exception
+     */
+    private static void writeScalar(final Object value, final JsonGenerator generator) throws IOException {
+        if (value == null) {
+            generator.writeNull();
+        } else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            generator.writeNumber(((Number) value).longValue());
+        } else if (value instanceof BigDecimal) {
+            generator.writeNumber((BigDecimal) value);
+        } else if (value instanceof BigInteger) {
+            generator.writeNumber((BigInteger) value);
+        } else if (value instanceof Number) {
+            generator.writeNumber(((Number) value).doubleValue());
+        } else if (value instanceof Boolean) {
+            generator.writeBoolean((Boolean) value);
+        } else {
+            generator.writeString(value.toString());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.json;
+
+import com.github.spranshu1.common.util.Assert;
+
+import java.math.BigInteger;
+
+/**
+ * Splits a query into partitions, by supplying the statement parameters of every partition.
+ * <p>
+ * The query template of a {@link ResultSetExporter} must declare one {@code ?} placeholder for every parameter:
+ * <pre class="code">
+ *     // key range: from (inclusive), to (exclusive)
+ *     ExportPartitioning.keyRange(0, 1_000_000, 8)  // "select * from orders where id &gt;= ? and id &lt; ?"
+ *     // modulo: partition count, partition index
+ *     ExportPartitioning.modulo(8)                  // "select * from orders where mod(id, ?) = ?"
+ * </pre>
+ */
+public final class ExportPartitioning {
+
+    /**
+     * The number of partitions.
+     */
+    private final int partitions;
+
+    /**
+     * The lower key bound, for key range partitioning.
+     */
+    private final long from;
+
+    /**
+     * The upper key bound, for key range partitioning.
+     */
+    private final long to;
+
+    /**
+     * Whether this is a modulo partitioning.
+     */
+    private final boolean modulo;
+
+    /**
+     * Instantiates a new export partitioning.
+     *
+     * @param partitions the partitions
+     * @param from       the lower key bound
+     * @param to         the upper key bound
+     * @param modulo     true for modulo partitioning
+     */
+    private ExportPartitioning(final int partitions, final long from, final long to, final boolean modulo) {
+        Assert.isTrue(partitions > 0, "The number of partitions must be greater than zero");
+        this.partitions = partitions;
+        this.from = from;
+        this.to = to;
+        this.modulo = modulo;
+    }
+
+    /**
+     * Splits the key range {@code [from, to)} into {@code partitions} contiguous ranges of near equal size.
+     * Every partition binds two parameters, its own lower (inclusive) and upper (exclusive) key.
+     *
+     * @param from       the lower key bound, inclusive
+     * @param to         the upper key bound, exclusive
+     * @param partitions the number of partitions
+     * @return the export partitioning
+     */
+    public static ExportPartitioning keyRange(final long from, final long to, final int partitions) {
+        Assert.isTrue(from < to, "The key range must not be empty");
+        return new ExportPartitioning(partitions, from, to, false);
+    }
+
+    /**
+     * Splits the rows by key modulo {@code partitions}.
+     * Every partition binds two parameters, the number of partitions and its own index.
+     *
+     * @param partitions the number of partitions
+     * @return the export partitioning
+     */
+    public static ExportPartitioning modulo(final int partitions) {
+        return new ExportPartitioning(partitions, 0, 0, true);
+    }
+
+    /**
+     * Gets the number of partitions.
+     *
+     * @return the partitions
+     */
+    public int getPartitions() {
+        return partitions;
+    }
+
+    /**
+     * Returns the statement parameters of a partition.
+     *
+     * @param partition the partition index, starting at 0
+     * @return the parameters, in placeholder order
+     */
+    public Object[] parameters(final int partition) {
+        Assert.isTrue(partition >= 0 && partition < partitions, "Invalid partition index " + partition);
+        if (modulo) {
+            return new Object[]{partitions, partition};
+        }
+        // the span of a range wider than half of the long range does not fit in a long
+        final BigInteger[] share = BigInteger.valueOf(to).subtract(BigInteger.valueOf(from))
+                .divideAndRemainder(BigInteger.valueOf(partitions));
+        final int remainder = share[1].intValue();
+        final BigInteger lower = BigInteger.valueOf(from)
+                .add(share[0].multiply(BigInteger.valueOf(partition)))
+                .add(BigInteger.valueOf(Math.min(partition, remainder)));
+        final BigInteger upper = lower.add(share[0]).add(partition < remainder ? BigInteger.ONE : BigInteger.ZERO);
+        return new Object[]{lower.longValue(), upper.longValue()};
+    }
+}
@@ -21,25 +21,33 @@ import com.fasterxml.jackson.annotation.JsonInclude.Include;
 import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser.Feature;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.TreeNode;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import com.github.spranshu1.common.util.date.DateTimeUtil;
+import com.github.spranshu1.common.util.Assert;
+import com.github.spranshu1.common.util.file.ByteBufferInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.FilterWriter;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Timestamp;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Date;
 import java.util.List;
 
 
@@ -64,17 +72,21 @@ public final class JSONHandler {
      */
     private static final String EMPTY_STRING = "";
     /**
-     * The number sql types list
+     * The json factory, used for getting instance of json generator
      */
-    private static final List<Integer> numberSQLTypes = Arrays.asList(new Integer[]{-6, -5, 2, 4, 5});
+    private static final JsonFactory factory = new JsonFactory();
     /**
-     * The decimal sql types list
+     * The column writers used for result set conversion
      */
-    private static final List<Integer> decimalSQLTypes = Arrays.asList(new Integer[]{3, 6, 7, 8});
+    private static final ColumnWriterRegistry COLUMN_WRITERS = ColumnWriterRegistry.defaults();
     /**
-     * The json factory, used for getting instance of json generator
+     * The writer of {@link #writeTo(Object, OutputStream)}, leaving the target open
      */
-    private static final JsonFactory factory = new JsonFactory();
+    private static final ObjectWriter STREAM_WRITER;
+    /**
+     * The policy failures are reported by
+     */
+    private static final JsonErrorPolicy ERROR_POLICY = JsonErrorPolicy.defaults();
 
     static {
         OBJ_MAPPER.configure(Feature.IGNORE_UNDEFINED, true);
@@ -82,6 +94,8 @@ public final class JSONHandler {
         OBJ_MAPPER.configure(DeserializationFeature.FAIL_ON_NULL_FOR_PRIMITIVES, false);
         //OBJ_MAPPER.configure(SerializationFeature.WRITE_NULL_MAP_VALUES, false);
         OBJ_MAPPER.setSerializationInclusion(Include.NON_NULL);
+        factory.enable(JsonGenerator.Feature.WRITE_BIGDECIMAL_AS_PLAIN);
+        STREAM_WRITER = OBJ_MAPPER.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
     /**
@@ -93,76 +107,188 @@ public final class JSONHandler {
 
     /**
      * Create a json string from the input result set.
+     * Works with {@link ResultSet#TYPE_FORWARD_ONLY} cursors.
+     * <p>
+     * The whole result is held in memory, use one of the streaming overloads such as
+     * {@link #createJsonFromResultSet(ResultSet, OutputStream)} for large results.
      *
      * @param rs {@link ResultSet}
-     * @return json string
+     * @return json string, or an empty string if the result set has no rows
      * @throws SQLException the sql exception
      * @throws IOException  the IO exception
      */
     public static String createJsonFromResultSet(final ResultSet rs) throws Exception {
+        final StringWriter out = new StringWriter();
+        final JsonWriteStats stats = createJsonFromResultSet(rs, out);
+        return stats.getRows() == 0 ? EMPTY_STRING : out.toString();
+    }
 
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-             JsonGenerator generator = factory.createGenerator(baos)) {
-            if (rs.next()) {
-                rs.previous();
-            } else {
-                return EMPTY_STRING;
-            }
-            generator.writeStartArray();
+    /**
+     * Streams the input result set as a json array to the given output stream.
+     * <p>
+     * Rows are encoded one at a time, so memory use does not depend on the size of the result.
+     * The stream is flushed but not closed.
+     *
+     * @param rs  {@link ResultSet}, may be {@link ResultSet#TYPE_FORWARD_ONLY}
+     * @param out the target output stream
+     * @return the number of rows and bytes written
+     * @throws SQLException the sql exception
+     * @throws IOException  the IO exception
+     */
+    public static JsonWriteStats createJsonFromResultSet(final ResultSet rs, final OutputStream out)
+            throws IOException, SQLException {
+        return createJsonFromResultSet(rs, out, 0);
+    }
+
+    /**
+     * Streams the input result set as a json array to the given output stream,
+     * passing {@code fetchSize} to the driver as a hint for the number of rows to fetch per round trip.
+     * The stream is flushed but not closed.
+     *
+     * @param rs        {@link ResultSet}, may be {@link ResultSet#TYPE_FORWARD_ONLY}
+     * @param out       the target output stream
+     * @param fetchSize the JDBC fetch size hint, ignored if not positive
+     * @return the number of rows and bytes written
+     * @throws SQLException the sql exception
+     * @throws IOException  the IO exception
+     */
+    public static JsonWriteStats createJsonFromResultSet(final ResultSet rs, final OutputStream out, final int fetchSize)
+            throws IOException, SQLException {
+        final CountingOutputStream counter = new CountingOutputStream(out);
+        final long rows = writeResultSet(rs, factory.createGenerator(counter), fetchSize);
+        return new JsonWriteStats(rows, counter.count);
+    }
+
+    /**
+     * Streams the input result set as a json array to the given writer.
+     * The writer is flushed but not closed.
+     *
+     * @param rs  {@link ResultSet}, may be {@link ResultSet#TYPE_FORWARD_ONLY}
+     * @param out the target writer
+     * @return the number of rows and characters written
+     * @throws SQLException the sql exception
+     * @throws IOException  the IO exception
+     */
+    public static JsonWriteStats createJsonFromResultSet(final ResultSet rs, final Writer out)
+            throws IOException, SQLException {
+        return createJsonFromResultSet(rs, out, 0);
+    }
+
+    /**
+     * Streams the input result set as a json array to the given writer,
+     * passing {@code fetchSize} to the driver as a hint for the number of rows to fetch per round trip.
+     * The writer is flushed but not closed.
+     *
+     * @param rs        {@link ResultSet}, may be {@link ResultSet#TYPE_FORWARD_ONLY}
+     * @param out       the target writer
+     * @param fetchSize the JDBC fetch size hint, ignored if not positive
+     * @return the number of rows and characters written
+     * @throws SQLException the sql exception
+     * @throws IOException  the IO exception
+     */
+    public static JsonWriteStats createJsonFromResultSet(final ResultSet rs, final Writer out, final int fetchSize)
+            throws IOException, SQLException {
+        final CountingWriter counter = new CountingWriter(out);
+        final long rows = writeResultSet(rs, factory.createGenerator(counter), fetchSize);
+        return new JsonWriteStats(rows, counter.count);
+    }
+
+    /**
+     * Streams the input result set as a json array to the given channel.
+     * The channel is not closed.
+     *
+     * @param rs      {@link ResultSet}, may be {@link ResultSet#TYPE_FORWARD_ONLY}
+     * @param channel the target channel
+     * @return the number of rows and bytes written
+     * @throws SQLException the sql exception
+     * @throws IOException  the IO exception
+     */
+    public static JsonWriteStats createJsonFromResultSet(final ResultSet rs, final WritableByteChannel channel)
+            throws IOException, SQLException {
+        return createJsonFromResultSet(rs, channel, 0);
+    }
+
+    /**
+     * Streams the input result set as a json array to the given channel,
+     * passing {@code fetchSize} to the driver as a hint for the number of rows to fetch per round trip.
+     * The channel is not closed.
+     *
+     * @param rs        {@link ResultSet}, may be {@link ResultSet#TYPE_FORWARD_ONLY}
+     * @param channel   the target channel
+     * @param fetchSize the JDBC fetch size hint, ignored if not positive
+     * @return the number of rows and bytes written
+     * @throws SQLException the sql exception
+     * @throws IOException  the IO exception
+     */
+    public static JsonWriteStats createJsonFromResultSet(final ResultSet rs, final WritableByteChannel channel,
+                                                         final int fetchSize) throws IOException, SQLException {
+        return createJsonFromResultSet(rs, Channels.newOutputStream(channel), fetchSize);
+    }
+
+    /**
+     * Streams the input result set as newline delimited json (one object per line) to the given output stream,
+     * passing {@code fetchSize} to the driver as a hint for the number of rows to fetch per round trip.
+     * Nothing is written for an empty result set. The stream is flushed but not closed.
+     *
+     * @param rs        {@link ResultSet}, may be {@link ResultSet#TYPE_FORWARD_ONLY}
+     * @param out       the target output stream
+     * @param fetchSize the JDBC fetch size hint, ignored if not positive
+     * @return the number of rows and bytes written
+     * @throws SQLException the sql exception
+     * @throws IOException  the IO exception
+     */
+    public static JsonWriteStats createNdjsonFromResultSet(final ResultSet rs, final OutputStream out, final int fetchSize)
+            throws IOException, SQLException {
+        if (fetchSize > 0) {
+            rs.setFetchSize(fetchSize);
+        }
+        final CountingOutputStream counter = new CountingOutputStream(out);
+        final ResultSetColumnPlan plan = ResultSetColumnPlan.of(rs, COLUMN_WRITERS);
+        long rows = 0;
+        // a failure mid-stream leaves the partial row unterminated, rather than closed into a valid looking line
+        try (JsonGenerator gen = factory.createGenerator(counter)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)) {
+            gen.setRootValueSeparator(null);
             while (rs.next()) {
-                writeRow(rs, generator);
+                plan.writeRow(rs, gen);
+                gen.writeRaw('\n');
+                rows++;
             }
-            generator.writeEndArray();
-            generator.close();
-            return baos.toString();
         }
-
+        return new JsonWriteStats(rows, counter.count);
     }
 
     /**
-     * Write resultset row to json without null.
+     * Writes all remaining rows of the result set as a json array and closes the generator,
+     * leaving the underlying target open.
      *
      * @param rs        the resultset
      * @param generator the json generator
+     * @param fetchSize the JDBC fetch size hint, ignored if not positive
+     * @return the number of rows written
      * @throws IOException  the IO exception
      * @throws SQLException the sql exception
      */
-    private static void writeRow(final ResultSet rs, final JsonGenerator generator) throws IOException, SQLException {
-        generator.writeStartObject();
-        int noOfColumns = rs.getMetaData().getColumnCount();
-        for (int i = 1; i <= noOfColumns; i++) {
-            generator.writeFieldName(rs.getMetaData().getColumnLabel(i));
-            // 93 for timestamp type column
-            if (rs.getMetaData().getColumnType(i) == 93) {
-                Timestamp ts = rs.getTimestamp(i);
-                if (ts != null)
-                    generator.writeObject(DateTimeUtil.timestampToString(new Date(ts.getTime())));
-                else
-                    generator.writeString(EMPTY_STRING);
-                // 91 for date type column
-            } else if (rs.getMetaData().getColumnType(i) == 91) {
-                Date date = rs.getDate(i);
-                if (date != null)
-                    // dateFormat.format(new Date(date.getTime()))
-                    generator.writeObject(DateTimeUtil.dateToString(new Date(date.getTime())));
-                else
-                    generator.writeString(EMPTY_STRING);
-            } else {
-                if (rs.getObject(i) != null) {
-                    if (numberSQLTypes.contains(rs.getMetaData().getColumnType(i))) {
-                        generator.writeNumber(rs.getLong(i));
-                    } else if (decimalSQLTypes.contains(rs.getMetaData().getColumnType(i))) {
-                        generator.writeNumber(rs.getDouble(i));
-                    } else {
-                        generator.writeString(rs.getObject(i).toString());
-                    }
-                } else {
-                    generator.writeString(EMPTY_STRING);
-                }
-
+    private static long writeResultSet(final ResultSet rs, final JsonGenerator generator, final int fetchSize)
+            throws IOException, SQLException {
+        if (fetchSize > 0) {
+            rs.setFetchSize(fetchSize);
+        }
+        final ResultSetColumnPlan plan = ResultSetColumnPlan.of(rs, COLUMN_WRITERS);
+        long rows = 0;
+        // a failure mid-stream leaves the array unterminated, rather than closed into a valid looking document
+        try (JsonGenerator gen = generator
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT)) {
+            gen.writeStartArray();
+            while (rs.next()) {
+                plan.writeRow(rs, gen);
+                rows++;
             }
+            gen.writeEndArray();
         }
-        generator.writeEndObject();
+        return rows;
     }
 
     /**
@@ -204,12 +330,40 @@ public final class JSONHandler {
             payloadJson = OBJ_MAPPER.writeValueAsString(object);
         } catch (Exception ex) {
             payloadJson = null;
-            logger.error("{} - Exception converting Object to Json {}", "SYS_UNSUP_FUNC", object);
-            logger.error(ex.getMessage(), ex);
+            ERROR_POLICY.report(logger, ex, null);
         }
         return payloadJson;
     }
 
+    /**
+     * Converts given POJO into UTF-8 encoded JSON bytes, without building a string first.
+     *
+     * @param object to be transformed to JSON
+     * @return the JSON bytes
+     * @throws JsonProcessingException the json processing exception
+     */
+    public static byte[] writeValueAsBytes(final Object object) throws JsonProcessingException {
+        return OBJ_MAPPER.writeValueAsBytes(object);
+    }
+
+    /**
+     * Writes given POJO as UTF-8 encoded JSON to a stream.
+     * The stream is flushed but not closed.
+     * <p>
+     * Example,
+     * <pre><code>
+     * 	JSONHandler.<b>writeTo</b>(resObj, response.getOutputStream());
+     * </code></pre>
+     *
+     * @param object to be transformed to JSON
+     * @param out    the target stream
+     * @throws IOException the IO exception
+     */
+    public static void writeTo(final Object object, final OutputStream out) throws IOException {
+        Assert.notNull(out, "The stream must not be null");
+        STREAM_WRITER.writeValue(out, object);
+    }
+
     /**
      * Converts JSON string to Object of type specified as argument.
      * <p>
@@ -232,8 +386,7 @@ public final class JSONHandler {
         try {
             payloadObj = OBJ_MAPPER.readValue(payloadJson, type);
         } catch (Exception ex) {
-            logger.error("{} - Exception converting Json to Object of type {} - {}", "SYS_UNSUP_FUNC", type, payloadJson);
-            logger.error(ex.getMessage(), ex);
+            ERROR_POLICY.report(logger, ex, payloadJson);
         }
         return payloadObj;
     }
@@ -261,12 +414,167 @@ public final class JSONHandler {
         try {
             payloadObj = OBJ_MAPPER.readValue(strJson, ref);
         } catch (Exception ex) {
-            logger.error("{} - Exception converting Json to Object of type {} - {}", "SYS_UNSUP_FUNC", ref.getClass().getComponentType(), strJson);
-            logger.error(ex.getMessage(), ex);
+            ERROR_POLICY.report(logger, ex, strJson);
         }
         return payloadObj;
     }
 
+    /**
+     * Converts JSON string to Object of type specified as argument without throwing or logging,
+     * a failure is counted by {@link #getErrorPolicy()} and returned.
+     * <p>
+     * Example,
+     * <pre><code>
+     * 	JsonParseResult&lt;User&gt; result = JSONHandler.<b>tryFromJson</b>(payloadJson, User.class);
+     * 	User user = result.orElse(User.ANONYMOUS);
+     * </code></pre>
+     *
+     * @param <T>         the generic type
+     * @param payloadJson the JSON string data to be transformed to POJO
+     * @param type        the type of object to be returned
+     * @return the transformed object of type T, or the error
+     */
+    public static <T> JsonParseResult<T> tryFromJson(final String payloadJson, final Class<T> type) {
+        try {
+            return JsonParseResult.success(OBJ_MAPPER.readValue(payloadJson, type));
+        } catch (Exception ex) {
+            return JsonParseResult.failure(ERROR_POLICY.failure(ex, payloadJson));
+        }
+    }
+
+    /**
+     * Converts UTF-8 encoded JSON bytes to Object of type specified as argument without throwing or logging,
+     * a failure is counted by {@link #getErrorPolicy()} and returned.
+     *
+     * @param <T>    the generic type
+     * @param data   the JSON bytes
+     * @param offset the offset of the JSON in the bytes
+     * @param length the length of the JSON
+     * @param type   the type of object to be returned
+     * @return the transformed object of type T, or the error
+     */
+    public static <T> JsonParseResult<T> tryFromJson(final byte[] data, final int offset, final int length,
+                                                     final Class<T> type) {
+        try {
+            return JsonParseResult.success(OBJ_MAPPER.readValue(data, offset, length, type));
+        } catch (Exception ex) {
+            return JsonParseResult.failure(ERROR_POLICY.failure(ex, data, offset, length));
+        }
+    }
+
+    /**
+     * Converts UTF-8 encoded JSON bytes to Object of type specified as argument, without decoding them to a
+     * string first.
+     * <p>
+     * Example,
+     * <pre><code>
+     * 	User user = JSONHandler.<b>fromJson</b>(body, 0, body.length, User.class);
+     * </code></pre>
+     *
+     * @param <T>    the generic type
+     * @param data   the JSON bytes
+     * @param offset the offset of the JSON in the bytes
+     * @param length the length of the JSON
+     * @param type   the type of object to be returned
+     * @return the transformed object of type T, or null in case of exception
+     */
+    public static <T> T fromJson(final byte[] data, final int offset, final int length, final Class<T> type) {
+        try {
+            return OBJ_MAPPER.readValue(data, offset, length, type);
+        } catch (Exception ex) {
+            ERROR_POLICY.log(logger, ERROR_POLICY.failure(ex, data, offset, length), ex);
+            return null;
+        }
+    }
+
+    /**
+     * Converts the remaining UTF-8 encoded JSON bytes of a buffer, heap or direct, to Object of type specified
+     * as argument. A heap buffer is parsed in place, a direct one through a stream, neither is copied.
+     * The position of the buffer is left as it is.
+     *
+     * @param <T>    the generic type
+     * @param buffer the buffer
+     * @param type   the type of object to be returned
+     * @return the transformed object of type T, or null in case of exception
+     */
+    public static <T> T fromJson(final ByteBuffer buffer, final Class<T> type) {
+        Assert.notNull(buffer, "The buffer must not be null");
+        return buffer.hasArray()
+                ? fromJson(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(), type)
+                : fromJson(new ByteBufferInputStream(buffer), type);
+    }
+
+    /**
+     * Converts JSON read from a stream to Object of type specified as argument, the encoding is detected.
+     * The stream is closed.
+     *
+     * @param <T>    the generic type
+     * @param stream the stream
+     * @param type   the type of object to be returned
+     * @return the transformed object of type T, or null in case of exception
+     */
+    public static <T> T fromJson(final InputStream stream, final Class<T> type) {
+        try {
+            return OBJ_MAPPER.readValue(stream, type);
+        } catch (Exception ex) {
+            ERROR_POLICY.report(logger, ex, null);
+            return null;
+        }
+    }
+
+    /**
+     * Converts UTF-8 encoded JSON bytes to Object of the generic type specified as argument.
+     *
+     * @param <T>    the generic type
+     * @param data   the JSON bytes
+     * @param offset the offset of the JSON in the bytes
+     * @param length the length of the JSON
+     * @param ref    the type of object to be returned
+     * @return the transformed object of type T, or null in case of exception
+     */
+    public static <T> T fromJson(final byte[] data, final int offset, final int length, final TypeReference<T> ref) {
+        try {
+            return OBJ_MAPPER.readValue(data, offset, length, ref);
+        } catch (Exception ex) {
+            ERROR_POLICY.log(logger, ERROR_POLICY.failure(ex, data, offset, length), ex);
+            return null;
+        }
+    }
+
+    /**
+     * Converts the remaining UTF-8 encoded JSON bytes of a buffer, heap or direct, to Object of the generic type
+     * specified as argument. The position of the buffer is left as it is.
+     *
+     * @param <T>    the generic type
+     * @param buffer the buffer
+     * @param ref    the type of object to be returned
+     * @return the transformed object of type T, or null in case of exception
+     */
+    public static <T> T fromJson(final ByteBuffer buffer, final TypeReference<T> ref) {
+        Assert.notNull(buffer, "The buffer must not be null");
+        return buffer.hasArray()
+                ? fromJson(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining(), ref)
+                : fromJson(new ByteBufferInputStream(buffer), ref);
+    }
+
+    /**
+     * Converts JSON read from a stream to Object of the generic type specified as argument.
+     * The stream is closed.
+     *
+     * @param <T>    the generic type
+     * @param stream the stream
+     * @param ref    the type of object to be returned
+     * @return the transformed object of type T, or null in case of exception
+     */
+    public static <T> T fromJson(final InputStream stream, final TypeReference<T> ref) {
+        try {
+            return OBJ_MAPPER.readValue(stream, ref);
+        } catch (Exception ex) {
+            ERROR_POLICY.report(logger, ex, null);
+            return null;
+        }
+    }
+
     /**
      * Converts JSON string to {@link JsonNode}.
      * Example,
@@ -286,6 +594,55 @@ public final class JSONHandler {
         return OBJ_MAPPER.readTree(jsonString);
     }
 
+    /**
+     * Converts UTF-8 encoded JSON bytes to {@link JsonNode}.
+     *
+     * @param data   the JSON bytes
+     * @param offset the offset of the JSON in the bytes
+     * @param length the length of the JSON
+     * @return {@link JsonNode} the json node
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static JsonNode fromString(final byte[] data, final int offset, final int length) throws IOException {
+        return OBJ_MAPPER.readValue(data, offset, length, JsonNode.class);
+    }
+
+    /**
+     * Converts the remaining UTF-8 encoded JSON bytes of a buffer, heap or direct, to {@link JsonNode}.
+     * The position of the buffer is left as it is.
+     *
+     * @param buffer the buffer
+     * @return {@link JsonNode} the json node
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static JsonNode fromString(final ByteBuffer buffer) throws IOException {
+        Assert.notNull(buffer, "The buffer must not be null");
+        return buffer.hasArray()
+                ? fromString(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining())
+                : fromString(new ByteBufferInputStream(buffer));
+    }
+
+    /**
+     * Converts JSON read from a stream to {@link JsonNode}, the stream is closed.
+     *
+     * @param stream the stream
+     * @return {@link JsonNode} the json node
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public static JsonNode fromString(final InputStream stream) throws IOException {
+        return OBJ_MAPPER.readTree(stream);
+    }
+
+    /**
+     * Gets the policy the failures of this class are described, counted and logged by,
+     * {@link JsonErrorPolicy#defaults()}.
+     *
+     * @return the error policy
+     */
+    public static JsonErrorPolicy getErrorPolicy() {
+        return ERROR_POLICY;
+    }
+
     /**
      * Return OBJ_MAPPER object instance.
      *
@@ -295,6 +652,16 @@ public final class JSONHandler {
         return OBJ_MAPPER;
     }
 
+    /**
+     * Return the registry of column writers used by {@link #createJsonFromResultSet(ResultSet)} and its overloads.
+     * Writers for vendor types can be registered here.
+     *
+     * @return the column writer registry
+     */
+    public static ColumnWriterRegistry getColumnWriterRegistry() {
+        return COLUMN_WRITERS;
+    }
+
     /**
      * Converts ResultSet into array of JSONObjects
      *
@@ -303,22 +670,11 @@ public final class JSONHandler {
      * @throws SQLException the sql exception
      */
     @SuppressWarnings("unchecked")
-    public List<ObjectNode> resultSetToJson(ResultSet rs) throws SQLException {
+    public static List<ObjectNode> resultSetToJson(final ResultSet rs) throws SQLException {
         List<ObjectNode> jsonArray = new ArrayList<>();
+        final ResultSetColumnPlan plan = ResultSetColumnPlan.of(rs, COLUMN_WRITERS);
         while (rs.next()) {
-            ObjectNode object = OBJ_MAPPER.createObjectNode();
-            int noOfColumns = rs.getMetaData().getColumnCount();
-            for (int i = 1; i <= noOfColumns; i++) {
-                if (rs.getObject(i) != null && rs.getObject(i) != EMPTY_STRING) {
-                    if (rs.getMetaData().getColumnType(i) == 93)
-                        object.put(rs.getMetaData().getColumnLabel(i),
-                                DateTimeUtil.timestampToString(new Date(rs.getTimestamp(i).getTime())));
-                    else
-                        object.set(rs.getMetaData().getColumnLabel(i),
-                                OBJ_MAPPER.convertValue(rs.getObject(i), JsonNode.class));
-                }
-            }
-            jsonArray.add(object);
+            jsonArray.add(plan.toNode(rs, OBJ_MAPPER));
         }
         return jsonArray;
     }
@@ -361,5 +717,58 @@ public final class JSONHandler {
         return OBJ_MAPPER.valueToTree(obj);
     }
 
+    /**
+     * Output stream that counts the bytes passed to the wrapped stream.
+     */
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        private long count;
+
+        CountingOutputStream(final OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(final byte[] b, final int off, final int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    /**
+     * Writer that counts the characters passed to the wrapped writer.
+     */
+    private static final class CountingWriter extends FilterWriter {
+
+        private long count;
+
+        CountingWriter(final Writer out) {
+            super(out);
+        }
+
+        @Override
+        public void write(final int c) throws IOException {
+            out.write(c);
+            count++;
+        }
+
+        @Override
+        public void write(final char[] cbuf, final int off, final int len) throws IOException {
+            out.write(cbuf, off, len);
+            count += len;
+        }
+
+        @Override
+        public void write(final String str, final int off, final int len) throws IOException {
+            out.write(str, off, len);
+            count += len;
+        }
+    }
 
 }
@@ -0,0 +1,49 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.json;
+
+/**
+ * The category of a json failure, as counted by {@link JsonErrorPolicy}.
+ */
+public enum JsonErrorCategory {
+
+    /**
+     * The input is not well-formed json.
+     */
+    SYNTAX,
+
+    /**
+     * The input ends in the middle of a json value.
+     */
+    TRUNCATED,
+
+    /**
+     * The input is well-formed json that does not match the target type, or a value could not be serialized.
+     */
+    MAPPING,
+
+    /**
+     * The underlying stream failed.
+     */
+    IO,
+
+    /**
+     * Any other failure, such as a missing input.
+     */
+    OTHER
+}
@@ -0,0 +1,364 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.json;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.JsonEOFException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.github.spranshu1.common.util.Assert;
+import com.github.spranshu1.common.util.date.DateTimeUtil;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * How {@link JsonParser} and {@link JSONHandler} report json failures.
+ * <p>
+ * A failure is described by a {@link JsonParseError} holding its category, line, column and a preview of
+ * {@code previewLength} characters of the input around the failure, never the whole payload. It is counted by
+ * category and logged at error level, at most {@code maxLogsPerSecond} times a second, the failures beyond
+ * that are only counted and their number is logged with the next failure logged. Stack traces are off by
+ * default. Failures of {@code tryParse} are counted but not logged, the caller gets them as a result.
+ * <p>
+ * A policy is thread-safe and its counters are shared by every parser it is given to.
+ * Parsers built without a policy share {@link #defaults()}.
+ * <p>
+ * Example,
+ * <pre><code>
+ * 	JsonErrorPolicy policy = new JsonErrorPolicy.JsonErrorPolicyBuilder()
+ * 	        .withPreviewLength(32)
+ * 	        .withMaxLogsPerSecond(1)
+ * 	        .build();
+ *
+ * 	JsonParser&lt;Order&gt; parser = new JsonParser.JsonParserBuilder&lt;&gt;(Order.class)
+ * 	        .<b>withErrorPolicy</b>(policy)
+ * 	        .build();
+ *
+ * 	long malformed = policy.getFailureCount(JsonErrorCategory.SYNTAX);
+ * </code></pre>
+ */
+public final class JsonErrorPolicy {
+
+    /**
+     * The default preview length, 64 characters.
+     */
+    public static final int DEFAULT_PREVIEW_LENGTH = 64;
+
+    /**
+     * The default number of failures logged per second.
+     */
+    public static final int DEFAULT_MAX_LOGS_PER_SECOND = 10;
+
+    /**
+     * The length messages are truncated to, values quoted by jackson can be as long as the input.
+     */
+    public static final int MAX_MESSAGE_LENGTH = 256;
+
+    private static final String END_OF_INPUT = "Unexpected end-of-input";
+
+    private static final JsonErrorPolicy DEFAULTS = new JsonErrorPolicyBuilder().build();
+
+    private final int previewLength;
+
+    private final int maxLogsPerSecond;
+
+    private final boolean stackTraces;
+
+    private final Map<JsonErrorCategory, LongAdder> failures = new EnumMap<>(JsonErrorCategory.class);
+
+    /**
+     * The second of the current log window.
+     */
+    private final AtomicLong window = new AtomicLong();
+
+    /**
+     * The failures logged in the current window.
+     */
+    private final AtomicInteger logged = new AtomicInteger();
+
+    /**
+     * The failures not logged since the last one logged.
+     */
+    private final LongAdder suppressed = new LongAdder();
+
+    private final LongAdder totalSuppressed = new LongAdder();
+
+    /**
+     * The type Json error policy builder.
+     */
+    public static class JsonErrorPolicyBuilder {
+        private int previewLength = DEFAULT_PREVIEW_LENGTH;
+        private int maxLogsPerSecond = DEFAULT_MAX_LOGS_PER_SECOND;
+        private boolean stackTraces;
+
+        /**
+         * Sets the number of input characters around a failure kept in its preview, 0 disables previews.
+         *
+         * @param previewLength the preview length
+         * @return the json error policy builder
+         */
+        public JsonErrorPolicyBuilder withPreviewLength(int previewLength) {
+            this.previewLength = previewLength;
+            return this;
+        }
+
+        /**
+         * Sets the number of failures logged per second, 0 disables logging.
+         *
+         * @param maxLogsPerSecond the maximum logs per second
+         * @return the json error policy builder
+         */
+        public JsonErrorPolicyBuilder withMaxLogsPerSecond(int maxLogsPerSecond) {
+            this.maxLogsPerSecond = maxLogsPerSecond;
+            return this;
+        }
+
+        /**
+         * Logs the exception with every failure logged. The message of a jackson exception quotes up to
+         * 500 characters of the input.
+         *
+         * @param stackTraces true, to log stack traces
+         * @return the json error policy builder
+         */
+        public JsonErrorPolicyBuilder withStackTraces(boolean stackTraces) {
+            this.stackTraces = stackTraces;
+            return this;
+        }
+
+        /**
+         * Build json error policy.
+         *
+         * @return the json error policy
+         */
+        public JsonErrorPolicy build() {
+            Assert.isTrue(previewLength >= 0, "The preview length must not be negative");
+            Assert.isTrue(maxLogsPerSecond >= 0, "The maximum logs per second must not be negative");
+            return new JsonErrorPolicy(this);
+        }
+    }
+
+    /**
+     * Intentionally kept private use {@link JsonErrorPolicyBuilder}
+     */
+    private JsonErrorPolicy(final JsonErrorPolicyBuilder builder) {
+        this.previewLength = builder.previewLength;
+        this.maxLogsPerSecond = builder.maxLogsPerSecond;
+        this.stackTraces = builder.stackTraces;
+        for (JsonErrorCategory category : JsonErrorCategory.values()) {
+            failures.put(category, new LongAdder());
+        }
+    }
+
+    /**
+     * Gets the policy shared by the parsers built without one, and by {@link JSONHandler}.
+     *
+     * @return the json error policy
+     */
+    public static JsonErrorPolicy defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Gets the number of failures of a category.
+     *
+     * @param category the category
+     * @return the failure count
+     */
+    public long getFailureCount(final JsonErrorCategory category) {
+        return failures.get(category).sum();
+    }
+
+    /**
+     * Gets the number of failures of all categories.
+     *
+     * @return the failure count
+     */
+    public long getFailureCount() {
+        long total = 0;
+        for (LongAdder count : failures.values()) {
+            total += count.sum();
+        }
+        return total;
+    }
+
+    /**
+     * Gets the number of failures not logged because of the rate limit.
+     *
+     * @return the suppressed log count
+     */
+    public long getSuppressedLogCount() {
+        return totalSuppressed.sum();
+    }
+
+    /**
+     * Gets the preview length.
+     *
+     * @return the preview length
+     */
+    public int getPreviewLength() {
+        return previewLength;
+    }
+
+    /**
+     * Gets the number of failures logged per second.
+     *
+     * @return the maximum logs per second
+     */
+    public int getMaxLogsPerSecond() {
+        return maxLogsPerSecond;
+    }
+
+    /**
+     * Describes and counts a failure.
+     *
+     * @param e       the exception
+     * @param payload the input, null if it is not at hand
+     * @return the json parse error
+     */
+    JsonParseError failure(final Exception e, final String payload) {
+        final JsonLocation location = location(e);
+        String preview = "";
+        if (payload != null && previewLength > 0) {
+            final int start = start(location == null ? -1 : location.getCharOffset(), payload.length());
+            preview = payload.substring(start, Math.min(payload.length(), start + previewLength));
+        }
+        return failure(e, location, preview);
+    }
+
+    /**
+     * Describes and counts a failure of UTF-8 input.
+     *
+     * @param e      the exception
+     * @param data   the input
+     * @param offset the offset of the json in the input
+     * @param length the length of the json
+     * @return the json parse error
+     */
+    JsonParseError failure(final Exception e, final byte[] data, final int offset, final int length) {
+        final JsonLocation location = location(e);
+        String preview = "";
+        if (data != null && previewLength > 0 && offset >= 0 && length >= 0 && offset + length <= data.length) {
+            // the parser reports byte offsets relative to the start of the json, not of the array
+            final int start = start(location == null ? -1 : location.getByteOffset(), length);
+            preview = new String(data, offset + start, Math.min(length - start, previewLength), StandardCharsets.UTF_8);
+        }
+        return failure(e, location, preview);
+    }
+
+    /**
+     * Logs a failure, unless the rate limit is reached.
+     *
+     * @param logger the logger
+     * @param error  the error
+     * @param e      the exception
+     */
+    void log(final Logger logger, final JsonParseError error, final Exception e) {
+        if (!acquire()) {
+            suppressed.increment();
+            totalSuppressed.increment();
+            return;
+        }
+        final long skipped = suppressed.sumThenReset();
+        final String more = skipped == 0 ? "" : " (" + skipped + " more json errors not logged)";
+        if (stackTraces) {
+            logger.error("Json error, {}{}", error, more, e);
+        } else {
+            logger.error("Json error, {}{}", error, more);
+        }
+    }
+
+    /**
+     * Describes, counts and logs a failure.
+     *
+     * @param logger  the logger
+     * @param e       the exception
+     * @param payload the input, null if it is not at hand
+     */
+    void report(final Logger logger, final Exception e, final String payload) {
+        log(logger, failure(e, payload), e);
+    }
+
+    private JsonParseError failure(final Exception e, final JsonLocation location, final String preview) {
+        final JsonErrorCategory category = category(e);
+        failures.get(category).increment();
+        String message = e instanceof JsonProcessingException
+                ? ((JsonProcessingException) e).getOriginalMessage() : e.getMessage();
+        if (message == null) {
+            message = e.getClass().getSimpleName();
+        } else if (message.length() > MAX_MESSAGE_LENGTH) {
+            message = message.substring(0, MAX_MESSAGE_LENGTH) + "...";
+        }
+        final int line = location == null ? -1 : location.getLineNr();
+        final int column = location == null ? -1 : location.getColumnNr();
+        return new JsonParseError(category, message, line, column, preview);
+    }
+
+    /**
+     * Gets the start of a preview, centred on the failure if its offset is known.
+     */
+    private int start(final long offset, final int length) {
+        if (offset < 0) {
+            return 0;
+        }
+        final long start = Math.min(offset, length) - previewLength / 2;
+        return (int) Math.max(0, Math.min(start, length - previewLength));
+    }
+
+    private boolean acquire() {
+        if (maxLogsPerSecond == 0) {
+            return false;
+        }
+        final long second = DateTimeUtil.currentTimeMillis() / 1000;
+        final long current = window.get();
+        if (current != second && window.compareAndSet(current, second)) {
+            logged.set(0);
+        }
+        return logged.incrementAndGet() <= maxLogsPerSecond;
+    }
+
+    private static JsonLocation location(final Exception e) {
+        return e instanceof JsonProcessingException ? ((JsonProcessingException) e).getLocation() : null;
+    }
+
+    private static JsonErrorCategory category(final Exception e) {
+        if (e instanceof JsonEOFException) {
+            return JsonErrorCategory.TRUNCATED;
+        }
+        if (e instanceof JsonParseException) {
+            // between entries jackson reports the end of input without a JsonEOFException
+            final String message = ((JsonParseException) e).getOriginalMessage();
+            return message != null && message.startsWith(END_OF_INPUT)
+                    ? JsonErrorCategory.TRUNCATED : JsonErrorCategory.SYNTAX;
+        }
+        if (e instanceof JsonMappingException) {
+            return JsonErrorCategory.MAPPING;
+        }
+        if (e instanceof JsonProcessingException) {
+            return JsonErrorCategory.SYNTAX;
+        }
+        return e instanceof IOException ? JsonErrorCategory.IO : JsonErrorCategory.OTHER;
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.json;
+
+/**
+ * A json failure described without its payload: the category, the location and a short preview of the input
+ * around the location.
+ */
+public final class JsonParseError {
+
+    private final JsonErrorCategory category;
+
+    private final String message;
+
+    private final int line;
+
+    private final int column;
+
+    private final String preview;
+
+    /**
+     * Instantiates a new json parse error.
+     *
+     * @param category the category
+     * @param message  the message, without the source description
+     * @param line     the line, -1 if unknown
+     * @param column   the column, -1 if unknown
+     * @param preview  the preview, empty if none
+     */
+    JsonParseError(final JsonErrorCategory category, final String message, final int line, final int column,
+                   final String preview) {
+        this.category = category;
+        this.message = message;
+        this.line = line;
+        this.column = column;
+        this.preview = preview;
+    }
+
+    /**
+     * Gets the category.
+     *
+     * @return the category
+     */
+    public JsonErrorCategory getCategory() {
+        return category;
+    }
+
+    /**
+     * Gets the message of the failure, truncated to {@link JsonErrorPolicy#MAX_MESSAGE_LENGTH} characters.
+     *
+     * @return the message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Gets the line of the failure, starting at 1.
+     *
+     * @return the line, -1 if unknown
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * Gets the column of the failure, starting at 1.
+     *
+     * @return the column, -1 if unknown
+     */
+    public int getColumn() {
+        return column;
+    }
+
+    /**
+     * Gets the input around the failure, at most the preview length of the policy.
+     *
+     * @return the preview, empty if the input is a stream or previews are disabled
+     */
+    public String getPreview() {
+        return preview;
+    }
+
+    @Override
+    public String toString() {
+        return category + " at line " + line + ", column " + column + ": " + message
+                + (preview.isEmpty() ? "" : " near '" + preview + "'");
+    }
+}
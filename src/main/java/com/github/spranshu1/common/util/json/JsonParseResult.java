@@ -0,0 +1,108 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.json;
+
+/**
+ * The outcome of a parse that does not throw, either a value or a {@link JsonParseError}.
+ * <p>
+ * Example,
+ * <pre><code>
+ * 	JsonParseResult&lt;Order&gt; result = parser.<b>tryParse</b>(body);
+ * 	if (!result.isSuccess()) {
+ * 	    return badRequest(result.getError().toString());
+ * 	}
+ * 	process(result.getValue());
+ * </code></pre>
+ *
+ * @param <T> the type of the value
+ */
+public final class JsonParseResult<T> {
+
+    private final T value;
+
+    private final JsonParseError error;
+
+    private JsonParseResult(final T value, final JsonParseError error) {
+        this.value = value;
+        this.error = error;
+    }
+
+    /**
+     * Creates a successful result.
+     *
+     * @param <T>   the type parameter
+     * @param value the value, may be null for a json null
+     * @return the json parse result
+     */
+    static <T> JsonParseResult<T> success(final T value) {
+        return new JsonParseResult<>(value, null);
+    }
+
+    /**
+     * Creates a failed result.
+     *
+     * @param <T>   the type parameter
+     * @param error the error
+     * @return the json parse result
+     */
+    static <T> JsonParseResult<T> failure(final JsonParseError error) {
+        return new JsonParseResult<>(null, error);
+    }
+
+    /**
+     * Checks if the input was parsed.
+     *
+     * @return true, if there is a value
+     */
+    public boolean isSuccess() {
+        return error == null;
+    }
+
+    /**
+     * Gets the value.
+     *
+     * @return the value, null if the parse failed
+     */
+    public T getValue() {
+        return value;
+    }
+
+    /**
+     * Gets the error.
+     *
+     * @return the error, null if the parse succeeded
+     */
+    public JsonParseError getError() {
+        return error;
+    }
+
+    /**
+     * Gets the value, or a fallback if the parse failed.
+     *
+     * @param other the fallback
+     * @return the value or the fallback
+     */
+    public T orElse(final T other) {
+        return isSuccess() ? value : other;
+    }
+
+    @Override
+    public String toString() {
+        return isSuccess() ? "JsonParseResult{value=" + value + '}' : "JsonParseResult{error=" + error + '}';
+    }
+}
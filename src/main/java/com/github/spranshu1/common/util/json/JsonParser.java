@@ -1,6 +1,7 @@
 package com.github.spranshu1.common.util.json;
 
-import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.TreeNode;
 import com.fasterxml.jackson.databind.*;
@@ -8,28 +9,70 @@ import com.fasterxml.jackson.databind.module.SimpleModule;
 import com.fasterxml.jackson.core.JsonParser.Feature;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.github.spranshu1.common.util.Assert;
+import com.github.spranshu1.common.util.file.ByteBufferInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Generic Serializer/Deserializer class.
+ * <p>
+ * The mapper is never reconfigured once the parser is built, so a parser is safe to share between threads.
+ * Every serialization variant, with a root name, pretty printed, for a view or with another inclusion,
+ * is written by its own immutable {@link ObjectWriter}, built once per parser and reused.
  *
  * @param <T> the type of the concerned object which is to be serialized or to be de-serialized to. Use builder to create instance.
  */
 public class JsonParser<T> {
     private static final Logger log = LoggerFactory.getLogger(JsonParser.class);
 
-    private final ObjectMapper mapper = new ObjectMapper();
+    private final ObjectMapper mapper;
 
-    private ObjectReader reader;
+    private final ObjectReader reader;
 
-    private ObjectWriter writer;
+    private final ObjectWriter writer;
+
+    private final ObjectReader treeReader;
+
+    private final ObjectWriter streamWriter;
+
+    private final ObjectWriter rootWriter;
+
+    private final ObjectWriter prettyWriter;
+
+    /**
+     * The writers by view, built on first use.
+     */
+    private final Map<Class<?>, ObjectWriter> viewWriters = new ConcurrentHashMap<>();
+
+    /**
+     * The writers by inclusion, each over its own copy of the mapper, built on first use.
+     */
+    private final Map<Include, ObjectWriter> inclusionWriters = new ConcurrentHashMap<>();
+
+    private final JsonErrorPolicy errorPolicy;
 
     /**
      * The type Json parser builder.
@@ -38,8 +81,10 @@ public class JsonParser<T> {
      */
     public static class JsonParserBuilder<T> {
         private SimpleModule module;
+        private boolean customModule;
         private JavaType type;
         private List<Feature> features = new ArrayList<>();
+        private JsonErrorPolicy errorPolicy = JsonErrorPolicy.defaults();
 
         /**
          * Constructs an {@code JsonObjectParser} object with {@code module}
@@ -48,6 +93,7 @@ public class JsonParser<T> {
          */
         public JsonParserBuilder(SimpleModule module) {
             this.module = module;
+            this.customModule = true;
         }
 
 
@@ -69,7 +115,7 @@ public class JsonParser<T> {
          * @param readingClass Concerned object of the json structure
          */
         public JsonParserBuilder(Class<T> readingClass) {
-            type = new ObjectMapper().getTypeFactory().constructType(readingClass);
+            type = TypeFactory.defaultInstance().constructType(readingClass);
             module = new SimpleModule();
         }
 
@@ -88,6 +134,7 @@ public class JsonParser<T> {
          */
         public <S> JsonParserBuilder<T> withSerializer(Class<S> serializerEntity, JsonSerializer<S> serializer) {
             module.addSerializer(serializerEntity, serializer);
+            customModule = true;
             return this;
         }
 
@@ -105,6 +152,7 @@ public class JsonParser<T> {
          */
         public <S> JsonParserBuilder<T> withDeSerializer(Class<S> deserializerEntity, JsonDeserializer<S> deserializer) {
             module.addDeserializer(deserializerEntity, deserializer);
+            customModule = true;
             return this;
         }
 
@@ -120,28 +168,105 @@ public class JsonParser<T> {
             return this;
         }
 
+        /**
+         * Sets how failures are described, counted and logged, defaults to {@link JsonErrorPolicy#defaults()}.
+         *
+         * @param errorPolicy the error policy
+         * @return the json parser builder
+         */
+        public JsonParserBuilder<T> withErrorPolicy(JsonErrorPolicy errorPolicy) {
+            this.errorPolicy = errorPolicy;
+            return this;
+        }
+
         /**
          * Build json parser.
          *
          * @return the json parser
          */
         public JsonParser<T> build() {
-            this.features.add(Feature.ALLOW_BACKSLASH_ESCAPING_ANY_CHARACTER);
-            final JsonParser<T> parser = new JsonParser<>();
-            for (Feature feature : features) {
-                parser.mapper.configure(feature, true);
+            Assert.notNull(errorPolicy, "The error policy must not be null");
+            return new JsonParser<>(createMapper(), type, errorPolicy);
+        }
+
+        /**
+         * Gets the error policy.
+         *
+         * @return the error policy
+         */
+        JsonErrorPolicy getErrorPolicy() {
+            return errorPolicy;
+        }
+
+        /**
+         * Gets the type read by the parser.
+         *
+         * @return the type, null if none was given
+         */
+        JavaType getType() {
+            return type;
+        }
+
+        /**
+         * Gets the module, when it holds serializers or deserializers.
+         *
+         * @return the module, null if the builder only created an empty one
+         */
+        SimpleModule getCustomModule() {
+            return customModule ? module : null;
+        }
+
+        /**
+         * Gets the enabled parser features.
+         *
+         * @return the features
+         */
+        Set<Feature> getFeatures() {
+            final Set<Feature> enabled = EnumSet.of(Feature.ALLOW_BACKSLASH_ESCAPING_ANY_CHARACTER);
+            enabled.addAll(features);
+            return enabled;
+        }
+
+        /**
+         * Creates a mapper with the features and the module of this builder.
+         *
+         * @return the object mapper
+         */
+        ObjectMapper createMapper() {
+            final ObjectMapper mapper = new ObjectMapper();
+            for (Feature feature : getFeatures()) {
+                mapper.configure(feature, true);
             }
-            parser.mapper.registerModule(module);
-            parser.reader = parser.mapper.readerFor(type);
-            parser.writer = parser.mapper.writer();
-            return parser;
+            mapper.registerModule(module);
+            return mapper;
         }
     }
 
     /**
-     * Intentionally kept private use {@link JsonParserBuilder}
+     * Intentionally kept package-private use {@link JsonParserBuilder} or {@link JsonParserRegistry}
+     *
+     * @param mapper      the mapper, shared with the other parsers of the same configuration
+     * @param type        the type read
+     * @param errorPolicy the error policy
      */
-    private JsonParser() {
+    JsonParser(final ObjectMapper mapper, final JavaType type, final JsonErrorPolicy errorPolicy) {
+        this.mapper = mapper;
+        this.reader = mapper.readerFor(type);
+        this.writer = mapper.writer();
+        this.treeReader = mapper.readerFor(JsonNode.class);
+        this.streamWriter = writer.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.rootWriter = writer.with(SerializationFeature.WRAP_ROOT_VALUE);
+        this.prettyWriter = writer.withDefaultPrettyPrinter();
+        this.errorPolicy = errorPolicy;
+    }
+
+    /**
+     * Gets the mapper of this parser.
+     *
+     * @return the object mapper
+     */
+    ObjectMapper getMapper() {
+        return mapper;
     }
 
     /**
@@ -154,18 +279,53 @@ public class JsonParser<T> {
     public T getJavaObject(String jsonStr) throws IOException {
         try {
             return reader.readValue(jsonStr);
-        } catch (JsonParseException e) {
-            log.error("JsonParseException in parsing json {}, ", jsonStr, e);
-            throw e;
-        } catch (JsonMappingException e) {
-            log.error("JsonMappingException in parsing json {}, ", jsonStr, e);
-            throw e;
         } catch (IOException e) {
-            log.error("IOException in parsing json {}, ", jsonStr, e);
+            errorPolicy.report(log, e, jsonStr);
             throw e;
         }
     }
 
+    /**
+     * Deserialize the {@code jsonStr} to {@code Type} object without throwing. A failure is counted by the
+     * error policy, not logged.
+     *
+     * @param jsonStr Json string
+     * @return the deserialized object, or the error
+     */
+    public JsonParseResult<T> tryParse(String jsonStr) {
+        try {
+            return JsonParseResult.success(reader.readValue(jsonStr));
+        } catch (IOException | RuntimeException e) {
+            return JsonParseResult.failure(errorPolicy.failure(e, jsonStr));
+        }
+    }
+
+    /**
+     * Deserialize UTF-8 encoded json bytes to {@code Type} object without throwing. A failure is counted by the
+     * error policy, not logged.
+     *
+     * @param data   the bytes
+     * @param offset the offset of the json in the bytes
+     * @param length the length of the json
+     * @return the deserialized object, or the error
+     */
+    public JsonParseResult<T> tryParse(byte[] data, int offset, int length) {
+        try {
+            return JsonParseResult.success(reader.readValue(data, offset, length));
+        } catch (IOException | RuntimeException e) {
+            return JsonParseResult.failure(errorPolicy.failure(e, data, offset, length));
+        }
+    }
+
+    /**
+     * Gets the error policy of this parser.
+     *
+     * @return the error policy
+     */
+    public JsonErrorPolicy getErrorPolicy() {
+        return errorPolicy;
+    }
+
     /**
      * Gets java objects.
      *
@@ -182,19 +342,299 @@ public class JsonParser<T> {
                 }
                 return objList;
             }
-        } catch (JsonParseException e) {
-            log.error("JsonParseException in parsing json {}, ", jsonStr, e);
-            throw e;
-        } catch (JsonMappingException e) {
-            log.error("JsonMappingException in parsing json {}, ", jsonStr, e);
-            throw e;
         } catch (IOException e) {
-            log.error("IOException in parsing json {}, ", jsonStr, e);
+            errorPolicy.report(log, e, jsonStr);
             throw e;
         }
 
     }
 
+    /**
+     * Deserialize UTF-8 encoded json bytes to {@code Type} object, without decoding them to a string first.
+     *
+     * @param data   the bytes
+     * @param offset the offset of the json in the bytes
+     * @param length the length of the json
+     * @return Deserialized object
+     * @throws IOException the io exception
+     */
+    public T getJavaObject(byte[] data, int offset, int length) throws IOException {
+        Assert.notNull(data, "The data must not be null");
+        return read(() -> reader.readValue(data, offset, length), data, offset, length);
+    }
+
+    /**
+     * Deserialize the remaining UTF-8 encoded json bytes of a buffer, heap or direct, to {@code Type} object.
+     * A heap buffer is parsed in place, a direct one through a stream, neither is copied.
+     * The position of the buffer is left as it is.
+     *
+     * @param buffer the buffer
+     * @return Deserialized object
+     * @throws IOException the io exception
+     */
+    public T getJavaObject(ByteBuffer buffer) throws IOException {
+        Assert.notNull(buffer, "The buffer must not be null");
+        return buffer.hasArray()
+                ? getJavaObject(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining())
+                : getJavaObject(new ByteBufferInputStream(buffer));
+    }
+
+    /**
+     * Deserialize json read from a stream to {@code Type} object, the encoding is detected.
+     * The stream is closed.
+     *
+     * @param stream the stream
+     * @return Deserialized object
+     * @throws IOException the io exception
+     */
+    public T getJavaObject(InputStream stream) throws IOException {
+        Assert.notNull(stream, "The stream must not be null");
+        return read(() -> reader.readValue(stream), null, 0, 0);
+    }
+
+    /**
+     * Gets java objects from UTF-8 encoded json bytes.
+     *
+     * @param data   the bytes
+     * @param offset the offset of the json in the bytes
+     * @param length the length of the json
+     * @return the java objects
+     * @throws IOException the io exception
+     * @see #iterateJavaObjects(ByteBuffer)
+     */
+    public List<T> getJavaObjects(byte[] data, int offset, int length) throws IOException {
+        return getJavaObjects(ByteBuffer.wrap(data, offset, length));
+    }
+
+    /**
+     * Gets java objects from the remaining UTF-8 encoded json bytes of a buffer, heap or direct.
+     *
+     * @param buffer the buffer
+     * @return the java objects
+     * @throws IOException the io exception
+     * @see #iterateJavaObjects(ByteBuffer)
+     */
+    public List<T> getJavaObjects(ByteBuffer buffer) throws IOException {
+        final List<T> objList = new ArrayList<>();
+        forEachJavaObject(iterateJavaObjects(buffer), objList::add);
+        return objList;
+    }
+
+    /**
+     * Gets java objects from a stream, the stream is closed.
+     *
+     * @param stream the stream
+     * @return the java objects
+     * @throws IOException the io exception
+     * @see #forEachJavaObject(InputStream, Consumer)
+     */
+    public List<T> getJavaObjects(InputStream stream) throws IOException {
+        final List<T> objList = new ArrayList<>();
+        forEachJavaObject(stream, objList::add);
+        return objList;
+    }
+
+    /**
+     * Reads a json array, or a sequence of json values such as newline delimited json, one element at a time.
+     * Nothing is read before the first call to the iterator, and only the current element is held in memory.
+     * <p>
+     * Errors in the input are thrown by the iterator as {@link com.fasterxml.jackson.databind.RuntimeJsonMappingException},
+     * or as {@link IOException} by {@link MappingIterator#nextValue()}. Closing the iterator closes the stream.
+     * <p>
+     * Example,
+     * <pre><code>
+     * 	try (MappingIterator&lt;Order&gt; orders = parser.<b>iterateJavaObjects</b>(request.getInputStream())) {
+     * 	    while (orders.hasNextValue()) {
+     * 	        process(orders.nextValue());
+     * 	    }
+     * 	}
+     * </code></pre>
+     *
+     * @param stream the stream
+     * @return the iterator
+     * @throws IOException the io exception
+     */
+    public MappingIterator<T> iterateJavaObjects(InputStream stream) throws IOException {
+        Assert.notNull(stream, "The stream must not be null");
+        return reader.readValues(stream);
+    }
+
+    /**
+     * Reads a json array, or a sequence of json values, one element at a time.
+     * Closing the iterator closes the reader.
+     *
+     * @param source the reader
+     * @return the iterator
+     * @throws IOException the io exception
+     * @see #iterateJavaObjects(InputStream)
+     */
+    public MappingIterator<T> iterateJavaObjects(Reader source) throws IOException {
+        Assert.notNull(source, "The reader must not be null");
+        return reader.readValues(source);
+    }
+
+    /**
+     * Reads a json array, or a sequence of json values, from a file one element at a time.
+     * The file stays open until the iterator is closed.
+     *
+     * @param file the file
+     * @return the iterator
+     * @throws IOException the io exception
+     * @see #iterateJavaObjects(InputStream)
+     */
+    public MappingIterator<T> iterateJavaObjects(Path file) throws IOException {
+        Assert.notNull(file, "The file must not be null");
+        final InputStream stream = Files.newInputStream(file);
+        try {
+            return reader.readValues(stream);
+        } catch (IOException | RuntimeException e) {
+            stream.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Reads a json array, or a sequence of json values, from the remaining bytes of a buffer one element at a time.
+     * A heap buffer is parsed in place, a direct or memory-mapped one through a stream, neither is copied.
+     * The position of the buffer is left as it is.
+     *
+     * @param buffer the buffer
+     * @return the iterator
+     * @throws IOException the io exception
+     * @see #iterateJavaObjects(InputStream)
+     */
+    public MappingIterator<T> iterateJavaObjects(ByteBuffer buffer) throws IOException {
+        Assert.notNull(buffer, "The buffer must not be null");
+        if (buffer.hasArray()) {
+            return reader.readValues(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+        }
+        return reader.readValues(new ByteBufferInputStream(buffer));
+    }
+
+    /**
+     * Streams the elements of a json array, or of a sequence of json values.
+     * The stream is lazy and must be closed, which closes the source.
+     * <p>
+     * Example,
+     * <pre><code>
+     * 	try (Stream&lt;Order&gt; orders = parser.<b>streamJavaObjects</b>(Paths.get("/data/orders.json"))) {
+     * 	    total = orders.mapToLong(Order::getAmount).sum();
+     * 	}
+     * </code></pre>
+     *
+     * @param stream the stream
+     * @return the stream of elements
+     * @throws IOException the io exception
+     * @see #iterateJavaObjects(InputStream)
+     */
+    public Stream<T> streamJavaObjects(InputStream stream) throws IOException {
+        return toStream(iterateJavaObjects(stream));
+    }
+
+    /**
+     * Streams the elements of a json array, or of a sequence of json values.
+     *
+     * @param source the reader
+     * @return the stream of elements
+     * @throws IOException the io exception
+     * @see #streamJavaObjects(InputStream)
+     */
+    public Stream<T> streamJavaObjects(Reader source) throws IOException {
+        return toStream(iterateJavaObjects(source));
+    }
+
+    /**
+     * Streams the elements of a json array, or of a sequence of json values, held in a file.
+     *
+     * @param file the file
+     * @return the stream of elements
+     * @throws IOException the io exception
+     * @see #streamJavaObjects(InputStream)
+     */
+    public Stream<T> streamJavaObjects(Path file) throws IOException {
+        return toStream(iterateJavaObjects(file));
+    }
+
+    /**
+     * Streams the elements of a json array, or of a sequence of json values, held in a buffer.
+     *
+     * @param buffer the buffer
+     * @return the stream of elements
+     * @throws IOException the io exception
+     * @see #iterateJavaObjects(ByteBuffer)
+     */
+    public Stream<T> streamJavaObjects(ByteBuffer buffer) throws IOException {
+        return toStream(iterateJavaObjects(buffer));
+    }
+
+    /**
+     * Passes every element of a json array, or of a sequence of json values, to a consumer as it is read,
+     * then closes the stream.
+     *
+     * @param stream   the stream
+     * @param consumer the consumer
+     * @return the number of elements read
+     * @throws IOException the io exception
+     */
+    public long forEachJavaObject(InputStream stream, Consumer<? super T> consumer) throws IOException {
+        return forEachJavaObject(iterateJavaObjects(stream), consumer);
+    }
+
+    /**
+     * Passes every element of a json array, or of a sequence of json values, held in a file to a consumer
+     * as it is read.
+     *
+     * @param file     the file
+     * @param consumer the consumer
+     * @return the number of elements read
+     * @throws IOException the io exception
+     */
+    public long forEachJavaObject(Path file, Consumer<? super T> consumer) throws IOException {
+        return forEachJavaObject(iterateJavaObjects(file), consumer);
+    }
+
+    /**
+     * Passes the elements of a json array, or of a sequence of json values, to a consumer in batches of
+     * {@code batchSize}, the last one possibly smaller, then closes the stream.
+     * <p>
+     * The next batch is only read once the consumer returns, so a consumer blocking on a full queue or a slow
+     * sink holds the reading back, and at most one batch is in memory. Every batch is a new list the consumer
+     * may keep.
+     * <p>
+     * Example,
+     * <pre><code>
+     * 	parser.<b>forEachJavaObjectBatch</b>(in, 500, batch -&gt; repository.saveAll(batch));
+     * </code></pre>
+     *
+     * @param stream    the stream
+     * @param batchSize the number of elements of a batch
+     * @param consumer  the consumer of batches
+     * @return the number of elements read
+     * @throws IOException the io exception
+     */
+    public long forEachJavaObjectBatch(InputStream stream, int batchSize, Consumer<? super List<T>> consumer)
+            throws IOException {
+        Assert.isTrue(batchSize > 0, "The batch size must be greater than zero");
+        return forEachJavaObjectBatch(iterateJavaObjects(stream), batchSize, consumer);
+    }
+
+    /**
+     * Passes the elements of a json array, or of a sequence of json values, held in a file to a consumer
+     * in batches of {@code batchSize}.
+     *
+     * @param file      the file
+     * @param batchSize the number of elements of a batch
+     * @param consumer  the consumer of batches
+     * @return the number of elements read
+     * @throws IOException the io exception
+     * @see #forEachJavaObjectBatch(InputStream, int, Consumer)
+     */
+    public long forEachJavaObjectBatch(Path file, int batchSize, Consumer<? super List<T>> consumer)
+            throws IOException {
+        Assert.isTrue(batchSize > 0, "The batch size must be greater than zero");
+        return forEachJavaObjectBatch(iterateJavaObjects(file), batchSize, consumer);
+    }
+
     /**
      * Read json object node from the input stream.
      *
@@ -205,16 +645,61 @@ public class JsonParser<T> {
     public JsonNode getJsonNodeFromStream(InputStream stream) throws IOException {
         try {
             return reader.readValue(stream);
-        } catch (JsonParseException e) {
-            log.error("JsonParseException in parsing json ", e);
+        } catch (IOException e) {
+            errorPolicy.report(log, e, null);
             throw e;
-        } catch (JsonMappingException e) {
-            log.error("JsonMappingException in parsing json ", e);
+        }
+    }
+
+    private static <T> Stream<T> toStream(final MappingIterator<T> values) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(values, Spliterator.ORDERED), false)
+                .onClose(() -> {
+                    try {
+                        values.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    private long forEachJavaObject(final MappingIterator<T> values, final Consumer<? super T> consumer)
+            throws IOException {
+        Assert.notNull(consumer, "The consumer must not be null");
+        long count = 0;
+        try (MappingIterator<T> iterator = values) {
+            while (iterator.hasNextValue()) {
+                consumer.accept(iterator.nextValue());
+                count++;
+            }
+        } catch (IOException e) {
+            errorPolicy.report(log, e, null);
             throw e;
+        }
+        return count;
+    }
+
+    private long forEachJavaObjectBatch(final MappingIterator<T> values, final int batchSize,
+                                        final Consumer<? super List<T>> consumer) throws IOException {
+        Assert.notNull(consumer, "The consumer must not be null");
+        long count = 0;
+        List<T> batch = new ArrayList<>(batchSize);
+        try (MappingIterator<T> iterator = values) {
+            while (iterator.hasNextValue()) {
+                batch.add(iterator.nextValue());
+                count++;
+                if (batch.size() == batchSize) {
+                    consumer.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
         } catch (IOException e) {
-            log.error("IOException in parsing json ", e);
+            errorPolicy.report(log, e, null);
             throw e;
         }
+        if (!batch.isEmpty()) {
+            consumer.accept(batch);
+        }
+        return count;
     }
 
     /**
@@ -227,18 +712,53 @@ public class JsonParser<T> {
     public JsonNode readJsonNodeTree(String jsonStr) throws IOException {
         try {
             return mapper.readTree(jsonStr);
-        } catch (JsonParseException e) {
-            log.error("JsonParseException in parsing json {}, ", jsonStr, e);
-            throw e;
-        } catch (JsonMappingException e) {
-            log.error("JsonMappingException in parsing json {}, ", jsonStr, e);
-            throw e;
         } catch (IOException e) {
-            log.error("IOException in parsing json {}, ", jsonStr, e);
+            errorPolicy.report(log, e, jsonStr);
             throw e;
         }
     }
 
+    /**
+     * Reads UTF-8 encoded json bytes as a tree.
+     *
+     * @param data   the bytes
+     * @param offset the offset of the json in the bytes
+     * @param length the length of the json
+     * @return the json node
+     * @throws IOException the io exception
+     */
+    public JsonNode readJsonNodeTree(byte[] data, int offset, int length) throws IOException {
+        Assert.notNull(data, "The data must not be null");
+        return read(() -> treeReader.readValue(data, offset, length), data, offset, length);
+    }
+
+    /**
+     * Reads the remaining UTF-8 encoded json bytes of a buffer, heap or direct, as a tree.
+     * The position of the buffer is left as it is.
+     *
+     * @param buffer the buffer
+     * @return the json node
+     * @throws IOException the io exception
+     */
+    public JsonNode readJsonNodeTree(ByteBuffer buffer) throws IOException {
+        Assert.notNull(buffer, "The buffer must not be null");
+        return buffer.hasArray()
+                ? readJsonNodeTree(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining())
+                : readJsonNodeTree(new ByteBufferInputStream(buffer));
+    }
+
+    /**
+     * Reads json from a stream as a tree, the stream is closed.
+     *
+     * @param stream the stream
+     * @return the json node
+     * @throws IOException the io exception
+     */
+    public JsonNode readJsonNodeTree(InputStream stream) throws IOException {
+        Assert.notNull(stream, "The stream must not be null");
+        return read(() -> treeReader.readValue(stream), null, 0, 0);
+    }
+
     /**
      * Create a object node.
      *
@@ -287,7 +807,7 @@ public class JsonParser<T> {
      * @throws JsonProcessingException the json processing exception
      */
     public String getJsonFromAnnotatedPojo(Object obj) throws JsonProcessingException {
-        return mapper.writeValueAsString(obj);
+        return writer.writeValueAsString(obj);
     }
 
     /**
@@ -298,10 +818,54 @@ public class JsonParser<T> {
      * @throws JsonProcessingException the json processing exception
      */
     public String getJsonFromAnnotatedPojoWithRoot(Object obj) throws JsonProcessingException {
-        mapper.enable(SerializationFeature.WRAP_ROOT_VALUE);
-        String json = mapper.writeValueAsString(obj);
-        mapper.disable(SerializationFeature.WRAP_ROOT_VALUE);
-        return json;
+        return rootWriter.writeValueAsString(obj);
+    }
+
+    /**
+     * Serialize the annotated pojo object to a pretty printed json string.
+     *
+     * @param obj the obj
+     * @return the indented json
+     * @throws JsonProcessingException the json processing exception
+     */
+    public String getJsonFromAnnotatedPojoPretty(Object obj) throws JsonProcessingException {
+        return prettyWriter.writeValueAsString(obj);
+    }
+
+    /**
+     * Serialize the annotated pojo object to json string, with only the properties of a
+     * {@link com.fasterxml.jackson.annotation.JsonView}.
+     * <p>
+     * Example,
+     * <pre><code>
+     * 	String json = parser.<b>getJsonFromAnnotatedPojoWithView</b>(user, Views.Public.class);
+     * </code></pre>
+     *
+     * @param obj  the obj
+     * @param view the view class
+     * @return the json of the view
+     * @throws JsonProcessingException the json processing exception
+     */
+    public String getJsonFromAnnotatedPojoWithView(Object obj, Class<?> view) throws JsonProcessingException {
+        Assert.notNull(view, "The view must not be null");
+        return viewWriters.computeIfAbsent(view, writer::withView).writeValueAsString(obj);
+    }
+
+    /**
+     * Serialize the annotated pojo object to json string, including the properties of the given kind only,
+     * e.g. {@link Include#NON_NULL}. Annotations on the classes and properties take precedence.
+     * <p>
+     * The first call for an inclusion copies the mapper, its serializers are then resolved once for the copy.
+     *
+     * @param obj       the obj
+     * @param inclusion the inclusion
+     * @return the json
+     * @throws JsonProcessingException the json processing exception
+     */
+    public String getJsonFromAnnotatedPojo(Object obj, Include inclusion) throws JsonProcessingException {
+        Assert.notNull(inclusion, "The inclusion must not be null");
+        return inclusionWriters.computeIfAbsent(inclusion, i -> mapper.copy().setSerializationInclusion(i).writer())
+                .writeValueAsString(obj);
     }
 
     /**
@@ -314,16 +878,56 @@ public class JsonParser<T> {
     public String buildJSONFromJavaObject(T object) throws IOException {
         try {
             return writer.writeValueAsString(object);
-        } catch (JsonParseException e) {
-            log.error("JsonParseException in parsing json  ", e);
-            throw e;
-        } catch (JsonMappingException e) {
-            log.error("JsonMappingException in parsing json  ", e);
+        } catch (IOException e) {
+            errorPolicy.report(log, e, null);
             throw e;
+        }
+    }
+
+    /**
+     * Serializes the object as UTF-8 encoded json bytes, without building a string first.
+     *
+     * @param object Object to be serialized
+     * @return the json bytes
+     * @throws JsonProcessingException the json processing exception
+     */
+    public byte[] writeValueAsBytes(T object) throws JsonProcessingException {
+        return writer.writeValueAsBytes(object);
+    }
+
+    /**
+     * Serializes the object as UTF-8 encoded json to a stream.
+     * The stream is flushed but not closed.
+     *
+     * @param object Object to be serialized
+     * @param out    the target stream
+     * @throws IOException the io exception
+     */
+    public void writeTo(T object, OutputStream out) throws IOException {
+        Assert.notNull(out, "The stream must not be null");
+        streamWriter.writeValue(out, object);
+    }
+
+    /**
+     * Runs a read, reporting a failure with a preview of the bytes read, if they are at hand.
+     */
+    private <R> R read(final JsonRead<R> read, final byte[] data, final int offset, final int length)
+            throws IOException {
+        try {
+            return read.read();
         } catch (IOException e) {
-            log.error("IOException in parsing json  ", e);
+            errorPolicy.log(log, errorPolicy.failure(e, data, offset, length), e);
             throw e;
         }
     }
 
+    /**
+     * A read of a json value.
+     *
+     * @param <R> the type of the value
+     */
+    @FunctionalInterface
+    private interface JsonRead<R> {
+        R read() throws IOException;
+    }
 }
\ No newline at end of file
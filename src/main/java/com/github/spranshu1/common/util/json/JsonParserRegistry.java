@@ -0,0 +1,332 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.json;
+
+import com.fasterxml.jackson.core.JsonParser.Feature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.github.spranshu1.common.util.Assert;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A thread-safe cache of {@link JsonParser}s, one per configuration.
+ * <p>
+ * A parser is built on the first request for its type, module and features and returned to every later request.
+ * Parsers of the same module and features share one {@link ObjectMapper}, so a serializer or deserializer
+ * resolved for one of them is found warm by the others. Modules and error policies are matched by identity,
+ * a builder without serializers or deserializers matches any other such builder of the same type, features
+ * and error policy. A module created per request would therefore build a parser per request: register a
+ * module held in a constant, or name the module with {@link #get(String, JsonParser.JsonParserBuilder)} so that
+ * builders creating their own module of the same name share one parser.
+ * The configuration of a builder is captured on its first request, modules must not be changed afterwards.
+ * <p>
+ * The registry holds at most {@code maxSize} parsers and as many mappers, an arbitrary one is dropped to make
+ * room for a new one, so that a leaking configuration costs rebuilds rather than memory.
+ * <p>
+ * Example,
+ * <pre><code>
+ * 	// at startup
+ * 	JsonParserRegistry.shared().<b>prewarm</b>(Order.class, Invoice.class);
+ *
+ * 	// per request
+ * 	JsonParser&lt;Order&gt; parser = JsonParserRegistry.shared().<b>get</b>(Order.class);
+ * 	Order order = parser.getJavaObject(body);
+ * 	JsonParser&lt;Invoice&gt; money = JsonParserRegistry.shared().<b>get</b>("money",
+ * 	        new JsonParser.JsonParserBuilder&lt;&gt;(Invoice.class).withDeSerializer(Money.class, new MoneyDeserializer()));
+ * </code></pre>
+ */
+public final class JsonParserRegistry {
+
+    /**
+     * The default maximum number of parsers held.
+     */
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    private static final JsonParserRegistry SHARED = new JsonParserRegistry();
+
+    private final int maxSize;
+
+    /**
+     * The mappers by module and features.
+     */
+    private final Map<Key, ObjectMapper> mappers = new ConcurrentHashMap<>();
+
+    /**
+     * The parsers by type, module and features.
+     */
+    private final Map<Key, JsonParser<?>> parsers = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder buildNanos = new LongAdder();
+
+    /**
+     * Instantiates an empty registry holding at most {@link #DEFAULT_MAX_SIZE} parsers,
+     * use {@link #shared()} for the registry shared by the whole application.
+     */
+    public JsonParserRegistry() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Instantiates an empty registry.
+     *
+     * @param maxSize the maximum number of parsers held, and of mappers
+     */
+    public JsonParserRegistry(final int maxSize) {
+        Assert.isTrue(maxSize > 0, "The maximum size must be positive");
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Gets the registry shared by the whole application.
+     *
+     * @return the json parser registry
+     */
+    public static JsonParserRegistry shared() {
+        return SHARED;
+    }
+
+    /**
+     * Gets the parser of a type, with no module and the default features.
+     *
+     * @param <T>  the type parameter
+     * @param type the type read by the parser
+     * @return the json parser
+     */
+    public <T> JsonParser<T> get(final Class<T> type) {
+        Assert.notNull(type, "The type must not be null");
+        return get(new JsonParser.JsonParserBuilder<>(type));
+    }
+
+    /**
+     * Gets the parser of a type, with no module and the default features.
+     *
+     * @param <T>  the type parameter
+     * @param type the type read by the parser
+     * @return the json parser
+     */
+    public <T> JsonParser<T> get(final JavaType type) {
+        Assert.notNull(type, "The type must not be null");
+        return get(new JsonParser.JsonParserBuilder<>(type));
+    }
+
+    /**
+     * Gets the parser of the configuration of a builder, building it on the first request.
+     * The module of the builder, if it holds serializers or deserializers, is matched by identity.
+     *
+     * @param <T>     the type parameter
+     * @param builder the builder holding the configuration
+     * @return the json parser
+     */
+    public <T> JsonParser<T> get(final JsonParser.JsonParserBuilder<T> builder) {
+        Assert.notNull(builder, "The builder must not be null");
+        return get(new Key(builder.getType(), null, builder.getCustomModule(), builder.getFeatures(),
+                builder.getErrorPolicy()), builder);
+    }
+
+    /**
+     * Gets the parser of the configuration of a builder, building it on the first request.
+     * The module of the builder is matched by the given id rather than by identity: every builder of the
+     * same id must register the same serializers and deserializers.
+     *
+     * @param <T>      the type parameter
+     * @param moduleId the id of the module of the builder
+     * @param builder  the builder holding the configuration
+     * @return the json parser
+     */
+    public <T> JsonParser<T> get(final String moduleId, final JsonParser.JsonParserBuilder<T> builder) {
+        Assert.notNull(moduleId, "The module id must not be null");
+        Assert.notNull(builder, "The builder must not be null");
+        return get(new Key(builder.getType(), moduleId, null, builder.getFeatures(), builder.getErrorPolicy()),
+                builder);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> JsonParser<T> get(final Key key, final JsonParser.JsonParserBuilder<T> builder) {
+        JsonParser<?> parser = parsers.get(key);
+        if (parser != null) {
+            hits.increment();
+            return (JsonParser<T>) parser;
+        }
+        final boolean[] built = new boolean[1];
+        parser = parsers.computeIfAbsent(key, k -> {
+            final long start = System.nanoTime();
+            final Key mapperKey = new Key(null, k.moduleId, k.module, k.features, null);
+            ObjectMapper mapper = mappers.get(mapperKey);
+            if (mapper == null) {
+                evict(mappers, maxSize - 1, null);
+                mapper = mappers.computeIfAbsent(mapperKey, m -> builder.createMapper());
+            }
+            final JsonParser<T> created = new JsonParser<>(mapper, k.type, k.errorPolicy);
+            buildNanos.add(System.nanoTime() - start);
+            misses.increment();
+            built[0] = true;
+            return created;
+        });
+        if (built[0]) {
+            evictions.add(evict(parsers, maxSize, key));
+        } else {
+            // built by a concurrent request between the lookup and the computation
+            hits.increment();
+        }
+        return (JsonParser<T>) parser;
+    }
+
+    /**
+     * Drops arbitrary entries of a map other than the one to keep, until it holds at most {@code limit} entries.
+     *
+     * @return the number of entries dropped
+     */
+    private static int evict(final Map<Key, ?> map, final int limit, final Key keep) {
+        int dropped = 0;
+        final Iterator<Key> keys = map.keySet().iterator();
+        while (map.size() > limit && keys.hasNext()) {
+            if (!keys.next().equals(keep)) {
+                keys.remove();
+                dropped++;
+            }
+        }
+        return dropped;
+    }
+
+    /**
+     * Builds the parsers of the given types ahead of their first request, with no module and the default
+     * features, resolving their deserializers and serializers, so the first request does not pay for it.
+     *
+     * @param types the types
+     * @return this registry
+     */
+    public JsonParserRegistry prewarm(final Class<?>... types) {
+        for (Class<?> type : types) {
+            get(type).getMapper().canSerialize(type);
+        }
+        return this;
+    }
+
+    /**
+     * Gets the number of parsers held.
+     *
+     * @return the number of parsers
+     */
+    public int size() {
+        return parsers.size();
+    }
+
+    /**
+     * Gets the number of requests served by a parser already held.
+     *
+     * @return the hit count
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * Gets the number of parsers built.
+     *
+     * @return the miss count
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * Gets the number of parsers dropped to make room for new ones.
+     *
+     * @return the eviction count
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    /**
+     * Gets the total time spent building parsers, including their mappers and root deserializers.
+     *
+     * @param unit the time unit
+     * @return the build time
+     */
+    public long getBuildTime(final TimeUnit unit) {
+        return unit.convert(buildNanos.sum(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Drops every parser and mapper held. Parsers already handed out keep working.
+     */
+    public void clear() {
+        parsers.clear();
+        mappers.clear();
+    }
+
+    /**
+     * A parser configuration, the module is compared by id when it has one, the module and the error policy
+     * are otherwise compared by identity.
+     */
+    private static final class Key {
+
+        private final JavaType type;
+
+        private final String moduleId;
+
+        private final SimpleModule module;
+
+        private final Set<Feature> features;
+
+        private final JsonErrorPolicy errorPolicy;
+
+        Key(final JavaType type, final String moduleId, final SimpleModule module, final Set<Feature> features,
+            final JsonErrorPolicy errorPolicy) {
+            this.type = type;
+            this.moduleId = moduleId;
+            this.module = module;
+            this.features = features;
+            this.errorPolicy = errorPolicy;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) o;
+            return module == other.module && errorPolicy == other.errorPolicy && Objects.equals(type, other.type)
+                    && Objects.equals(moduleId, other.moduleId) && features.equals(other.features);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(type, moduleId, System.identityHashCode(module), features,
+                    System.identityHashCode(errorPolicy));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.json;
+
+/**
+ * Summary of a streamed JSON write, as returned by the streaming
+ * {@link JSONHandler#createJsonFromResultSet(java.sql.ResultSet, java.io.OutputStream)} overloads.
+ */
+public final class JsonWriteStats {
+
+    /**
+     * The number of rows written.
+     */
+    private final long rows;
+
+    /**
+     * The number of bytes (characters, for a {@link java.io.Writer} target) written.
+     */
+    private final long bytes;
+
+    /**
+     * Instantiates a new json write stats.
+     *
+     * @param rows  the rows written
+     * @param bytes the bytes written
+     */
+    public JsonWriteStats(final long rows, final long bytes) {
+        this.rows = rows;
+        this.bytes = bytes;
+    }
+
+    /**
+     * Gets the number of rows written.
+     *
+     * @return the rows
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Gets the number of bytes written.
+     * For a {@link java.io.Writer} target this is the number of characters.
+     *
+     * @return the bytes
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public String toString() {
+        return "JsonWriteStats{rows=" + rows + ", bytes=" + bytes + '}';
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.json;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of one partition of a {@link ResultSetExporter} run.
+ */
+public final class PartitionStats {
+
+    /**
+     * The partition index.
+     */
+    private final int partition;
+
+    /**
+     * The rows and bytes written.
+     */
+    private final JsonWriteStats written;
+
+    /**
+     * The time spent querying and writing, in nanoseconds.
+     */
+    private final long elapsedNanos;
+
+    /**
+     * Instantiates a new partition stats.
+     *
+     * @param partition    the partition index
+     * @param written      the rows and bytes written
+     * @param elapsedNanos the elapsed time in nanoseconds
+     */
+    public PartitionStats(final int partition, final JsonWriteStats written, final long elapsedNanos) {
+        this.partition = partition;
+        this.written = written;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Gets the partition index.
+     *
+     * @return the partition
+     */
+    public int getPartition() {
+        return partition;
+    }
+
+    /**
+     * Gets the number of rows written.
+     *
+     * @return the rows
+     */
+    public long getRows() {
+        return written.getRows();
+    }
+
+    /**
+     * Gets the number of bytes written.
+     *
+     * @return the bytes
+     */
+    public long getBytes() {
+        return written.getBytes();
+    }
+
+    /**
+     * Gets the time spent querying and writing the partition.
+     *
+     * @param unit the time unit
+     * @return the elapsed time
+     */
+    public long getElapsed(final TimeUnit unit) {
+        return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Gets the throughput in rows per second.
+     *
+     * @return the rows per second
+     */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : written.getRows() * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Gets the throughput in bytes per second.
+     *
+     * @return the bytes per second
+     */
+    public double getBytesPerSecond() {
+        return elapsedNanos == 0 ? 0 : written.getBytes() * 1e9 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "PartitionStats{partition=" + partition + ", rows=" + getRows() + ", bytes=" + getBytes()
+                + ", elapsedMs=" + getElapsed(TimeUnit.MILLISECONDS) + ", rowsPerSecond=" + (long) getRowsPerSecond() + '}';
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.spranshu1.common.util.date.DateTimeUtil;
+
+import java.io.IOException;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+/**
+ * The column plan of a {@link ResultSet}.
+ * <p>
+ * Column labels, SQL types and the writer for every column are resolved once from the
+ * {@link ResultSetMetaData}, so converting a row is a plain loop over the plan without any metadata calls.
+ * A plan is bound to the result set it was built from and is not thread-safe.
+ */
+final class ResultSetColumnPlan {
+
+    /**
+     * The empty string constant
+     */
+    private static final String EMPTY_STRING = "";
+
+    /**
+     * The column labels.
+     */
+    private final String[] labels;
+
+    /**
+     * The column labels, pre-encoded for the json generator.
+     */
+    private final SerializedString[] names;
+
+    /**
+     * The {@link Types} of the columns.
+     */
+    private final int[] sqlTypes;
+
+    /**
+     * The writer of every column.
+     */
+    private final ColumnWriter[] writers;
+
+    /**
+     * Instantiates a new column plan.
+     *
+     * @param metaData the result set metadata
+     * @param registry the column writer registry
+     * @throws SQLException the sql exception
+     */
+    private ResultSetColumnPlan(final ResultSetMetaData metaData, final ColumnWriterRegistry registry)
+            throws SQLException {
+        final boolean byTypeName = registry.hasTypeNameWriters();
+        final int columnCount = metaData.getColumnCount();
+        labels = new String[columnCount];
+        names = new SerializedString[columnCount];
+        sqlTypes = new int[columnCount];
+        writers = new ColumnWriter[columnCount];
+        for (int i = 0; i < columnCount; i++) {
+            labels[i] = metaData.getColumnLabel(i + 1);
+            names[i] = new SerializedString(labels[i]);
+            sqlTypes[i] = metaData.getColumnType(i + 1);
+            writers[i] = registry.lookup(sqlTypes[i], byTypeName ? metaData.getColumnTypeName(i + 1) : null);
+        }
+    }
+
+    /**
+     * Builds the column plan of the given result set.
+     *
+     * @param rs       the resultset
+     * @param registry the column writer registry
+     * @return the column plan
+     * @throws SQLException the sql exception
+     */
+    static ResultSetColumnPlan of(final ResultSet rs, final ColumnWriterRegistry registry) throws SQLException {
+        return new ResultSetColumnPlan(rs.getMetaData(), registry);
+    }
+
+    /**
+     * Gets the number of columns.
+     *
+     * @return the column count
+     */
+    int getColumnCount() {
+        return labels.length;
+    }
+
+    /**
+     * Write the current row as a json object, null values are written as empty strings.
+     *
+     * @param rs        the resultset
+     * @param generator the json generator
+     * @throws IOException  the IO exception
+     * @throws SQLException the sql exception
+     */
+    void writeRow(final ResultSet rs, final JsonGenerator generator) throws IOException, SQLException {
+        generator.writeStartObject();
+        for (int i = 0; i < writers.length; i++) {
+            generator.writeFieldName(names[i]);
+            writers[i].write(rs, i + 1, generator);
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * Converts the current row into an {@link ObjectNode}, null values are left out.
+     *
+     * @param rs     the resultset
+     * @param mapper the object mapper used for converting values
+     * @return the object node
+     * @throws SQLException the sql exception
+     */
+    ObjectNode toNode(final ResultSet rs, final ObjectMapper mapper) throws SQLException {
+        final ObjectNode object = mapper.createObjectNode();
+        for (int i = 0; i < labels.length; i++) {
+            if (sqlTypes[i] == Types.TIMESTAMP) {
+                final Timestamp timestamp = rs.getTimestamp(i + 1);
+                if (timestamp != null) {
+                    object.put(labels[i], DateTimeUtil.timestampToString(timestamp.getTime()));
+                }
+                continue;
+            }
+            final Object value = rs.getObject(i + 1);
+            // identity on purpose: the interned "" is what a result set built in memory hands back for a
+            // missing value and is left out like null, an empty string read from a column is data and is kept
+            if (value == null || value == EMPTY_STRING) {
+                continue;
+            }
+            object.set(labels[i], mapper.convertValue(value, JsonNode.class));
+        }
+        return object;
+    }
+}
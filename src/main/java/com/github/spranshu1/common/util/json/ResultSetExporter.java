@@ -0,0 +1,322 @@
+/*
+ * Created By: Pranshu Shrivastava
+
+ * All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.github.spranshu1.common.util.json;
+
+import com.github.spranshu1.common.util.Assert;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exports a query as newline delimited json, running the partitions of the query in parallel.
+ * <p>
+ * Every partition runs the query template on its own connection with the parameters of its
+ * {@link ExportPartitioning}, and streams its rows through {@link JSONHandler#createNdjsonFromResultSet}.
+ * At most {@code threads} partitions run at the same time.
+ * <p>
+ * Example,
+ * <pre><code>
+ * 	ResultSetExporter exporter = new ResultSetExporter.ResultSetExporterBuilder(dataSource,
+ * 	        "select * from orders where mod(id, ?) = ?", ExportPartitioning.modulo(16))
+ * 	        .withThreads(4)
+ * 	        .withFetchSize(5000)
+ * 	        .build();
+ *
+ * 	// One file per partition
+ * 	List&lt;PartitionStats&gt; stats = exporter.<b>exportToFiles</b>(Paths.get("/data/orders"), "orders");
+ * </code></pre>
+ * Some drivers only honour the fetch size outside auto-commit mode, configure the {@link DataSource} accordingly.
+ */
+public final class ResultSetExporter {
+
+    /**
+     * The constant logger.
+     */
+    private static final Logger log = LoggerFactory.getLogger(ResultSetExporter.class);
+
+    /**
+     * The extension of the exported files.
+     */
+    private static final String NDJSON_EXT = ".ndjson";
+
+    /**
+     * The options of partition files created by the export.
+     */
+    private static final OpenOption[] CREATE_OPTIONS = {
+            StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE};
+
+    /**
+     * The options of partition files created beforehand, failing if they were deleted since.
+     */
+    private static final OpenOption[] EXISTING_OPTIONS = {StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE};
+
+    private final DataSource dataSource;
+
+    private final String query;
+
+    private final ExportPartitioning partitioning;
+
+    private final int threads;
+
+    private final int fetchSize;
+
+    /**
+     * The type Result set exporter builder.
+     */
+    public static class ResultSetExporterBuilder {
+        private final DataSource dataSource;
+        private final String query;
+        private final ExportPartitioning partitioning;
+        private int threads = Runtime.getRuntime().availableProcessors();
+        private int fetchSize = 1000;
+
+        /**
+         * Constructs a builder for the given query template.
+         *
+         * @param dataSource   the data source, every partition borrows its own connection
+         * @param query        the query template, with a {@code ?} placeholder for every partition parameter
+         * @param partitioning the partitioning
+         */
+        public ResultSetExporterBuilder(DataSource dataSource, String query, ExportPartitioning partitioning) {
+            this.dataSource = dataSource;
+            this.query = query;
+            this.partitioning = partitioning;
+        }
+
+        /**
+         * Sets the maximum number of partitions exported at the same time.
+         *
+         * @param threads the number of threads
+         * @return the result set exporter builder
+         */
+        public ResultSetExporterBuilder withThreads(int threads) {
+            this.threads = threads;
+            return this;
+        }
+
+        /**
+         * Sets the JDBC fetch size hint of every partition query.
+         *
+         * @param fetchSize the fetch size
+         * @return the result set exporter builder
+         */
+        public ResultSetExporterBuilder withFetchSize(int fetchSize) {
+            this.fetchSize = fetchSize;
+            return this;
+        }
+
+        /**
+         * Build result set exporter.
+         *
+         * @return the result set exporter
+         */
+        public ResultSetExporter build() {
+            Assert.notNull(dataSource, "The data source must not be null");
+            Assert.notNull(query, "The query must not be null");
+            Assert.notNull(partitioning, "The partitioning must not be null");
+            Assert.isTrue(threads > 0, "The number of threads must be greater than zero");
+            return new ResultSetExporter(this);
+        }
+    }
+
+    /**
+     * Intentionally kept private use {@link ResultSetExporterBuilder}
+     */
+    private ResultSetExporter(final ResultSetExporterBuilder builder) {
+        this.dataSource = builder.dataSource;
+        this.query = builder.query;
+        this.partitioning = builder.partitioning;
+        this.threads = builder.threads;
+        this.fetchSize = builder.fetchSize;
+    }
+
+    /**
+     * Exports every partition to its own file {@code <prefix>-<partition>.ndjson} in the given directory.
+     *
+     * @param directory the target directory, created if missing
+     * @param prefix    the file name prefix
+     * @return the stats of every partition, in partition order
+     * @throws IOException  the IO exception
+     * @throws SQLException the sql exception
+     */
+    public List<PartitionStats> exportToFiles(final Path directory, final String prefix) throws IOException, SQLException {
+        Files.createDirectories(directory);
+        final List<Path> files = new ArrayList<>();
+        for (int p = 0; p < partitioning.getPartitions(); p++) {
+            files.add(directory.resolve(String.format(Locale.ROOT, "%s-%05d%s", prefix, p, NDJSON_EXT)));
+        }
+        return run(files, null, CREATE_OPTIONS);
+    }
+
+    /**
+     * Exports all partitions into a single output, in partition order.
+     * <p>
+     * Partitions are written to temporary files in parallel, a merge stage appends each one to the
+     * output as soon as it and all partitions before it are complete.
+     * The output is flushed but not closed.
+     *
+     * @param out the target output stream
+     * @return the stats of every partition, in partition order
+     * @throws IOException  the IO exception
+     * @throws SQLException the sql exception
+     */
+    public List<PartitionStats> exportTo(final OutputStream out) throws IOException, SQLException {
+        final List<Path> files = new ArrayList<>();
+        try {
+            for (int p = 0; p < partitioning.getPartitions(); p++) {
+                files.add(Files.createTempFile("export-" + p + "-", NDJSON_EXT));
+            }
+            // the temporary files exist, they are not created again once deleted
+            return run(files, out, EXISTING_OPTIONS);
+        } finally {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    /**
+     * Runs all partitions on a bounded pool, merging them into {@code out} in order if it is given.
+     *
+     * @param files   the target file of every partition
+     * @param out     the merged output, may be null
+     * @param options the options the partition files are opened with
+     * @return the partition stats
+     * @throws IOException  the IO exception
+     * @throws SQLException the sql exception
+     */
+    private List<PartitionStats> run(final List<Path> files, final OutputStream out, final OpenOption[] options)
+            throws IOException, SQLException {
+        final ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, files.size()));
+        try {
+            final List<Future<PartitionStats>> futures = new ArrayList<>();
+            for (int p = 0; p < files.size(); p++) {
+                final int partition = p;
+                futures.add(pool.submit(() -> exportPartition(partition, files.get(partition), options)));
+            }
+            final List<PartitionStats> stats = new ArrayList<>();
+            for (int p = 0; p < futures.size(); p++) {
+                stats.add(await(futures.get(p)));
+                if (out != null) {
+                    Files.copy(files.get(p), out);
+                    Files.delete(files.get(p));
+                }
+            }
+            if (out != null) {
+                out.flush();
+            }
+            return stats;
+        } finally {
+            pool.shutdownNow();
+            awaitTermination(pool);
+        }
+    }
+
+    /**
+     * Waits for the partitions still running after a failure, so that none writes to a file once it is deleted.
+     *
+     * @param pool the stopped pool
+     */
+    private static void awaitTermination(final ExecutorService pool) {
+        try {
+            while (!pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                log.warn("Waiting for the partitions of a stopped export to complete");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Exports one partition to a file.
+     *
+     * @param partition the partition index
+     * @param file      the target file
+     * @param options   the options the file is opened with
+     * @return the partition stats
+     * @throws IOException  the IO exception
+     * @throws SQLException the sql exception
+     */
+    private PartitionStats exportPartition(final int partition, final Path file, final OpenOption[] options)
+            throws IOException, SQLException {
+        final long start = System.nanoTime();
+        final Object[] parameters = partitioning.parameters(partition);
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(query,
+                     ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setObject(i + 1, parameters[i]);
+            }
+            statement.setFetchSize(fetchSize);
+            try (ResultSet rs = statement.executeQuery();
+                 OutputStream fileOut = new BufferedOutputStream(Files.newOutputStream(file, options), 64 * 1024)) {
+                // the fetch size is already set on the statement, before the first round trip
+                final JsonWriteStats written = JSONHandler.createNdjsonFromResultSet(rs, fileOut, 0);
+                final PartitionStats stats = new PartitionStats(partition, written, System.nanoTime() - start);
+                log.debug("Exported {}", stats);
+                return stats;
+            }
+        }
+    }
+
+    /**
+     * Waits for a partition, rethrowing its failure.
+     *
+     * @param future the partition future
+     * @return the partition stats
+     * @throws IOException  the IO exception
+     * @throws SQLException the sql exception
+     */
+    private static PartitionStats await(final Future<PartitionStats> future) throws IOException, SQLException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Export interrupted", e);
+        } catch (ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof SQLException) {
+                throw (SQLException) cause;
+            }
+            throw new IOException("Export failed", cause);
+        }
+    }
+}
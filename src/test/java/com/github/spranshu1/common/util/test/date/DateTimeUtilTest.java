@@ -0,0 +1,254 @@
+package com.github.spranshu1.common.util.test.date;
+
+import com.github.spranshu1.common.util.date.CachedClockSource;
+import com.github.spranshu1.common.util.date.ClockSource;
+import com.github.spranshu1.common.util.date.DateTimeUtil;
+import com.github.spranshu1.common.util.date.FormatterCache;
+import com.github.spranshu1.common.util.date.ManualClockSource;
+import com.github.spranshu1.common.util.date.MonotonicClockSource;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The type Date time util test.
+ */
+public class DateTimeUtilTest {
+
+    private static SimpleDateFormat utcFormat(String pattern) {
+        SimpleDateFormat format = new SimpleDateFormat(pattern);
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format;
+    }
+
+    /**
+     * Formatting matches SimpleDateFormat in UTC.
+     */
+    @Test
+    public void testFormatMatchesSimpleDateFormat() {
+        SimpleDateFormat tf = utcFormat("yyyy-MM-dd'T'HH:mm:ss.SSS");
+        SimpleDateFormat df = utcFormat("yyyy-MM-dd");
+        SimpleDateFormat iso = utcFormat(DateTimeUtil.ISO_DATE_FMT);
+        Random random = new Random(42);
+        long from = -2208988800000L; // 1900-01-01
+        long span = 6311433600000L;  // 200 years
+        for (int i = 0; i < 10000; i++) {
+            Date date = new Date(from + (long) (random.nextDouble() * span));
+            Assert.assertEquals(tf.format(date), DateTimeUtil.timestampToString(date));
+            Assert.assertEquals(df.format(date), DateTimeUtil.dateToString(date));
+            Assert.assertEquals(iso.format(date), DateTimeUtil.dateToISOString(date));
+        }
+        Assert.assertEquals("1969-12-31T23:59:59.999", DateTimeUtil.timestampToString(-1L));
+        Assert.assertNull(DateTimeUtil.timestampToString((Date) null));
+    }
+
+    /**
+     * Formatting into a caller supplied buffer.
+     */
+    @Test
+    public void testFormatTimestampIntoBuffer() {
+        char[] buf = new char[DateTimeUtil.MAX_FORMATTED_LENGTH + 2];
+        int len = DateTimeUtil.formatTimestamp(0L, buf, 2);
+        Assert.assertEquals("1970-01-01T00:00:00.000", new String(buf, 2, len));
+    }
+
+    /**
+     * Parsing an ISO string, and rejecting a malformed one.
+     */
+    @Test
+    public void testIsoStringToDate() {
+        Assert.assertEquals(1591790400123L, DateTimeUtil.isoStringToDate("2020-06-10T12:00:00.123Z").getTime());
+        Assert.assertNull(DateTimeUtil.isoStringToDate("2020-06-10 12:00"));
+        Assert.assertNull(DateTimeUtil.isoStringToDate(null));
+    }
+
+    /**
+     * A cached pattern parses in the default time zone current at each call.
+     */
+    @Test
+    public void testStringToDateAfterDefaultZoneChange() {
+        TimeZone original = TimeZone.getDefault();
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+            Assert.assertEquals(1577836800000L, DateTimeUtil.stringToDate("2020-01-01 00:00", "yyyy-MM-dd HH:mm").getTime());
+            TimeZone.setDefault(TimeZone.getTimeZone("Asia/Kolkata"));
+            Assert.assertEquals(1577817000000L, DateTimeUtil.stringToDate("2020-01-01 00:00", "yyyy-MM-dd HH:mm").getTime());
+        } finally {
+            TimeZone.setDefault(original);
+        }
+    }
+
+    /**
+     * Formatting and parsing from many threads at once gives consistent results.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testConcurrentFormatAndParse() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final long seed = t;
+                results.add(pool.submit(() -> {
+                    Random random = new Random(seed);
+                    for (int i = 0; i < 20000; i++) {
+                        long millis = Math.abs(random.nextLong() % 4102444800000L);
+                        String iso = DateTimeUtil.dateToISOString(new Date(millis));
+                        if (DateTimeUtil.isoStringToDate(iso).getTime() != millis) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> result : results) {
+                Assert.assertTrue(result.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Patterns are compiled once and then served from the cache.
+     */
+    @Test
+    public void testFormatterCacheHits() {
+        String pattern = "dd.MM.uuuu HH:mm:ss";
+        FormatterCache<DateTimeFormatter> cache = DateTimeUtil.getDateTimeFormatterCache();
+        long misses = cache.getMissCount();
+        long hits = cache.getHitCount();
+
+        for (int i = 0; i < 10; i++) {
+            Assert.assertEquals(LocalDateTime.of(2020, 6, 10, 11, 55, i),
+                    DateTimeUtil.stringToLocalDateTime(String.format("10.06.2020 11:55:%02d", i), pattern));
+        }
+
+        Assert.assertEquals(misses + 1, cache.getMissCount());
+        Assert.assertEquals(hits + 9, cache.getHitCount());
+    }
+
+    /**
+     * The cached date format stays non-lenient.
+     */
+    @Test
+    public void testStringToDateCached() {
+        Assert.assertNotNull(DateTimeUtil.stringToDate("2020-02-29", "yyyy-MM-dd"));
+        Assert.assertNull(DateTimeUtil.stringToDate("2020-02-30", "yyyy-MM-dd"));
+        Assert.assertTrue(DateTimeUtil.getDateFormatCache().getHitCount() > 0);
+    }
+
+    /**
+     * A column is parsed with a single formatter lookup, empty values become null.
+     */
+    @Test
+    public void testParseAll() {
+        String pattern = "uuuu/MM/dd HH:mm";
+        long misses = DateTimeUtil.getDateTimeFormatterCache().getMissCount();
+
+        List<LocalDateTime> parsed = DateTimeUtil.parseAll(new CharSequence[]{"2020/06/10 10:15", "", null,
+                new StringBuilder("2021/01/01 00:00")}, pattern);
+
+        Assert.assertEquals(Arrays.asList(LocalDateTime.of(2020, 6, 10, 10, 15), null, null,
+                LocalDateTime.of(2021, 1, 1, 0, 0)), parsed);
+        Assert.assertEquals(misses + 1, DateTimeUtil.getDateTimeFormatterCache().getMissCount());
+    }
+
+    /**
+     * The fast path agrees with the general parser over the whole four digit year range.
+     */
+    @Test
+    public void testParseIsoMillisFastPath() {
+        Random random = new Random(7);
+        for (int i = 0; i < 10000; i++) {
+            long millis = -62167219200000L + (long) (random.nextDouble() * 315569520000000L);
+            String iso = Instant.ofEpochMilli(millis).toString();
+            if (iso.length() != 24) {
+                continue;
+            }
+            Assert.assertEquals(iso, millis, DateTimeUtil.parseIsoMillis(iso));
+            byte[] bytes = (" " + iso + " ").getBytes(StandardCharsets.US_ASCII);
+            Assert.assertEquals(iso, millis, DateTimeUtil.parseIsoMillis(bytes, 1, 24));
+        }
+        Assert.assertEquals(951782400000L, DateTimeUtil.parseIsoMillis("2000-02-29T00:00:00.000Z"));
+    }
+
+    /**
+     * Non canonical input goes through the general parser.
+     */
+    @Test
+    public void testParseIsoMillisFallback() {
+        Assert.assertEquals(1591790400000L, DateTimeUtil.parseIsoMillis("2020-06-10T12:00:00Z"));
+        Assert.assertEquals(1591783200500L, DateTimeUtil.parseIsoMillis("2020-06-10T12:00:00.5+02:00"));
+        Assert.assertEquals(1591790400000L, DateTimeUtil.parseIsoMillis("2020-06-10T12:00:00"));
+    }
+
+    /**
+     * Invalid input is reported, not silently mapped.
+     */
+    @Test
+    public void testParseIsoMillisInvalid() {
+        for (String invalid : new String[]{"2019-02-29T00:00:00.000Z", "2020-06-10T24:00:00.000Z",
+                "2020-06-1xT12:00:00.000Z", "2020-06-10 12:00:00.000Z", "garbage"}) {
+            try {
+                DateTimeUtil.parseIsoMillis(invalid);
+                Assert.fail(invalid);
+            } catch (DateTimeParseException e) {
+                Assert.assertEquals(invalid, e.getParsedString());
+            }
+        }
+    }
+
+    /**
+     * The timestamp follows the configured clock source.
+     */
+    @Test
+    public void testManualClockSource() {
+        ManualClockSource clock = new ManualClockSource(1000L);
+        DateTimeUtil.setClockSource(clock);
+        try {
+            Assert.assertEquals(Instant.ofEpochMilli(1000L), DateTimeUtil.getTimestamp());
+            clock.advance(5, TimeUnit.SECONDS);
+            Assert.assertEquals(6000L, DateTimeUtil.currentTimeMillis());
+        } finally {
+            DateTimeUtil.setClockSource(ClockSource.SYSTEM);
+        }
+    }
+
+    /**
+     * The cached clock stays close to the system clock and the monotonic clock never goes back.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testCachedAndMonotonicClockSource() throws Exception {
+        try (CachedClockSource cached = new CachedClockSource(1)) {
+            Thread.sleep(20);
+            Assert.assertTrue(Math.abs(System.currentTimeMillis() - cached.currentTimeMillis()) < 1000);
+        }
+        MonotonicClockSource monotonic = new MonotonicClockSource();
+        long previous = monotonic.currentTimeMillis();
+        for (int i = 0; i < 100000; i++) {
+            long now = monotonic.currentTimeMillis();
+            Assert.assertTrue(now >= previous);
+            previous = now;
+        }
+    }
+}
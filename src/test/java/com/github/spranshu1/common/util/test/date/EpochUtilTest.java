@@ -0,0 +1,87 @@
+package com.github.spranshu1.common.util.test.date;
+
+import com.github.spranshu1.common.util.date.DateTimeUtil;
+import com.github.spranshu1.common.util.date.EpochUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.IsoFields;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * The type Epoch util test.
+ */
+public class EpochUtilTest {
+
+    private static final int[] OFFSETS = {0, 19800, -18000, 50400, -43200};
+
+    /**
+     * Fields agree with java.time for random instants and offsets.
+     */
+    @Test
+    public void testFieldsMatchJavaTime() {
+        Random random = new Random(11);
+        for (int i = 0; i < 20000; i++) {
+            long millis = (long) ((random.nextDouble() - 0.5) * 2 * 8_000_000_000_000L);
+            int offset = OFFSETS[i % OFFSETS.length];
+            OffsetDateTime expected = Instant.ofEpochMilli(millis).atOffset(ZoneOffset.ofTotalSeconds(offset));
+
+            Assert.assertEquals(expected.getMinute(), EpochUtil.minuteOfHour(millis, offset));
+            Assert.assertEquals(expected.getHour(), EpochUtil.hourOfDay(millis, offset));
+            Assert.assertEquals(expected.getDayOfMonth(), EpochUtil.dayOfMonth(millis, offset));
+            Assert.assertEquals(expected.getDayOfWeek().getValue(), EpochUtil.dayOfWeek(millis, offset));
+            Assert.assertEquals(expected.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR), EpochUtil.weekOfYear(millis, offset));
+        }
+    }
+
+    /**
+     * Buckets are aligned to the epoch in UTC and to local midnight at an offset.
+     */
+    @Test
+    public void testBuckets() {
+        long millis = 1591790400123L; // 2020-06-10T12:00:00.123Z
+        Assert.assertEquals(1591790400000L, EpochUtil.floorToBucket(millis, 300_000L));
+        Assert.assertEquals(1591790700000L, EpochUtil.ceilToBucket(millis, 300_000L));
+        Assert.assertEquals(1591790400000L, EpochUtil.ceilToBucket(1591790400000L, 300_000L));
+        // daily bucket at +05:30 starts at 2020-06-10T00:00+05:30
+        Assert.assertEquals(1591727400000L, EpochUtil.floorToBucket(millis, 86_400_000L, 19800));
+        Assert.assertEquals(-300_000L, EpochUtil.floorToBucket(-1L, 300_000L));
+    }
+
+    /**
+     * getMinute reads the system default time zone, across a daylight saving change too.
+     */
+    @Test
+    public void testGetMinute() {
+        Date date = new Date(1591790400123L + 17 * 60_000L);
+        Calendar cal = Calendar.getInstance();
+        cal.setTime(date);
+        Assert.assertEquals(cal.get(Calendar.MINUTE), DateTimeUtil.getMinute(date));
+        for (long millis = 1583020800000L; millis < 1583020800000L + 400L * 86_400_000L; millis += 86_400_000L + 7 * 60_000L) {
+            cal.setTimeInMillis(millis);
+            Assert.assertEquals(cal.get(Calendar.MINUTE), DateTimeUtil.getMinute(new Date(millis)));
+        }
+    }
+
+    /**
+     * getMinute follows a change of the default time zone.
+     */
+    @Test
+    public void testGetMinuteAfterDefaultZoneChange() {
+        final TimeZone original = TimeZone.getDefault();
+        try {
+            TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+            Assert.assertEquals(0, DateTimeUtil.getMinute(new Date(0)));
+            TimeZone.setDefault(TimeZone.getTimeZone("Asia/Kolkata"));
+            Assert.assertEquals(30, DateTimeUtil.getMinute(new Date(0)));
+        } finally {
+            TimeZone.setDefault(original);
+        }
+    }
+}
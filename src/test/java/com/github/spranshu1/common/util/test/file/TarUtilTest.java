@@ -0,0 +1,198 @@
+package com.github.spranshu1.common.util.test.file;
+
+import com.github.spranshu1.common.util.file.TarUtil;
+import com.github.spranshu1.common.util.file.UnzipOptions;
+import com.github.spranshu1.common.util.file.ZipOptions;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * The type Tar util test.
+ */
+public class TarUtilTest {
+
+    private static final String LONG_DIR = "a-directory-name-long-enough-to-need-the-ustar-prefix/"
+            + "and-another-one-making-the-path-longer-than-a-hundred-bytes/";
+
+    private static final String LONG_FILE = "a-file-name-that-alone-is-longer-than-the-hundred-bytes-of-a-tar-header"
+            + "-name-field-so-it-needs-a-gnu-long-name.txt";
+
+    /**
+     * The Temp folder.
+     */
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    /**
+     * Test tar and untar of a directory.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testTarDirectory() throws IOException {
+        final Path source = tempFolder.newFolder("source").toPath();
+        final Map<String, byte[]> expected = createFiles(source);
+        Files.createDirectories(source.resolve("empty"));
+        final Path tar = tempFolder.getRoot().toPath().resolve("source.tar");
+
+        Assert.assertTrue(TarUtil.tar(source.toString(), tar.toString()));
+        Assert.assertEquals(0, Files.size(tar) % 10240);
+
+        final Path target = tempFolder.getRoot().toPath().resolve("target");
+        Assert.assertEquals(expected.size(), TarUtil.untar(tar.toString(), target.toString()));
+        assertExtracted(expected, target);
+        Assert.assertTrue(Files.isDirectory(target.resolve("empty")));
+        Assert.assertEquals(Files.getLastModifiedTime(source.resolve("tiny.txt")).toMillis() / 1000,
+                Files.getLastModifiedTime(target.resolve("tiny.txt")).toMillis() / 1000);
+    }
+
+    /**
+     * Test a tar.gz compressed as several gzip members is read as one gzip stream.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testTarGzParallel() throws IOException {
+        final Path source = tempFolder.newFolder("source").toPath();
+        final Map<String, byte[]> expected = createFiles(source);
+        final Path tarGz = tempFolder.getRoot().toPath().resolve("source.tar.gz");
+        final ZipOptions options = new ZipOptions.ZipOptionsBuilder()
+                .withThreads(3)
+                .withChunkSize(64 * 1024)
+                .build();
+
+        Assert.assertTrue(TarUtil.tarGz(source.toString(), tarGz.toString(), options));
+        final Path tar = tempFolder.getRoot().toPath().resolve("source.tar");
+        TarUtil.tar(source.toString(), tar.toString());
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(tarGz))) {
+            Assert.assertArrayEquals(Files.readAllBytes(tar), TestFiles.readAll(in));
+        }
+
+        final Path target = tempFolder.getRoot().toPath().resolve("target");
+        Assert.assertEquals(expected.size(), TarUtil.untar(tarGz.toString(), target.toString()));
+        assertExtracted(expected, target);
+    }
+
+    /**
+     * Test tar.gz of a single file, and of an empty directory.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testTarGzFileAndEmpty() throws IOException {
+        final Path file = tempFolder.newFile("single.txt").toPath();
+        Files.write(file, "single".getBytes(StandardCharsets.UTF_8));
+        final Path tarGz = tempFolder.getRoot().toPath().resolve("single.tar.gz");
+        TarUtil.tarGz(file.toString(), tarGz.toString());
+        final Path target = tempFolder.getRoot().toPath().resolve("single");
+        Assert.assertEquals(1, TarUtil.untar(tarGz.toString(), target.toString()));
+        Assert.assertEquals("single", new String(Files.readAllBytes(target.resolve("single.txt")), StandardCharsets.UTF_8));
+
+        final Path empty = tempFolder.newFolder("empty").toPath();
+        final Path emptyGz = tempFolder.getRoot().toPath().resolve("empty.tar.gz");
+        TarUtil.tarGz(empty.toString(), emptyGz.toString());
+        Assert.assertEquals(0, TarUtil.untar(emptyGz.toString(), tempFolder.getRoot().toPath().resolve("none").toString()));
+    }
+
+    /**
+     * Test untar of selected entries, within limits.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testUntarOptions() throws IOException {
+        final Path source = tempFolder.newFolder("source").toPath();
+        createFiles(source);
+        final Path tarGz = tempFolder.getRoot().toPath().resolve("source.tar.gz");
+        TarUtil.tarGz(source.toString(), tarGz.toString());
+
+        final Path logs = tempFolder.getRoot().toPath().resolve("logs");
+        final UnzipOptions byGlob = new UnzipOptions.UnzipOptionsBuilder().withGlob("logs/*.log").build();
+        Assert.assertEquals(1, TarUtil.untar(tarGz.toString(), logs.toString(), byGlob));
+        Assert.assertTrue(Files.exists(logs.resolve("logs/app.log")));
+
+        final UnzipOptions limited = new UnzipOptions.UnzipOptionsBuilder().withMaxTotalSize(100_000).build();
+        try {
+            TarUtil.untar(tarGz.toString(), tempFolder.getRoot().toPath().resolve("limited").toString(), limited);
+            Assert.fail("Expected a ZipException");
+        } catch (ZipException e) {
+            Assert.assertTrue(e.getMessage().endsWith("100000"));
+        }
+    }
+
+    /**
+     * Test malformed pax records are rejected.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testUntarMalformedPaxHeader() throws IOException {
+        for (String records : new String[]{"1 ", "2 ", "0 ", "99999999999 path=x\n"}) {
+            final Path tar = tempFolder.getRoot().toPath().resolve("pax.tar");
+            final byte[] data = records.getBytes(StandardCharsets.US_ASCII);
+            final byte[] archive = new byte[512 + 512 + 1024];
+            writeHeader(archive, "pax", data.length, (byte) 'x');
+            System.arraycopy(data, 0, archive, 512, data.length);
+            Files.write(tar, archive);
+            try {
+                TarUtil.untar(tar.toString(), tempFolder.getRoot().toPath().resolve("pax").toString());
+                Assert.fail("Expected an IOException for " + records);
+            } catch (IOException e) {
+                Assert.assertEquals("Invalid tar pax header", e.getMessage());
+            }
+        }
+    }
+
+    private static void writeHeader(final byte[] archive, final String name, final long size, final byte type) {
+        final byte[] header = new byte[512];
+        put(header, 0, name);
+        put(header, 100, "0000644");
+        put(header, 124, String.format("%011o", size));
+        put(header, 136, String.format("%011o", 0));
+        header[156] = type;
+        put(header, 257, "ustar");
+        put(header, 263, "00");
+        long checksum = 0;
+        for (int i = 0; i < header.length; i++) {
+            checksum += i >= 148 && i < 156 ? ' ' : header[i] & 0xFF;
+        }
+        put(header, 148, String.format("%06o", checksum));
+        header[155] = ' ';
+        System.arraycopy(header, 0, archive, 0, header.length);
+    }
+
+    private static void put(final byte[] header, final int offset, final String value) {
+        final byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        System.arraycopy(bytes, 0, header, offset, bytes.length);
+    }
+
+    /**
+     * Creates the shared tree of files, with names needing the ustar prefix and a gnu long name.
+     */
+    private static Map<String, byte[]> createFiles(final Path root) throws IOException {
+        final Map<String, byte[]> longNames = new HashMap<>();
+        longNames.put(LONG_DIR + "nested.txt", "nested".getBytes(StandardCharsets.UTF_8));
+        longNames.put(LONG_FILE, "long".getBytes(StandardCharsets.UTF_8));
+        final Map<String, byte[]> files = TestFiles.createFiles(root);
+        files.putAll(TestFiles.writeFiles(root, longNames));
+        return files;
+    }
+
+    private static void assertExtracted(final Map<String, byte[]> expected, final Path target) throws IOException {
+        for (Map.Entry<String, byte[]> entry : expected.entrySet()) {
+            Assert.assertArrayEquals(entry.getKey(), entry.getValue(), Files.readAllBytes(target.resolve(entry.getKey())));
+        }
+    }
+}
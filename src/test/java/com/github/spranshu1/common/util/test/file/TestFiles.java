@@ -0,0 +1,92 @@
+package com.github.spranshu1.common.util.test.file;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Files and streams shared by the archive tests.
+ */
+public final class TestFiles {
+
+    private TestFiles() {
+        // constructor intentionally kept empty
+    }
+
+    /**
+     * Creates a small tree of files: empty, tiny, compressible and random, some larger than a 64 KB chunk.
+     *
+     * @param root the root directory
+     * @return the contents by relative path
+     * @throws IOException the io exception
+     */
+    public static Map<String, byte[]> createFiles(final Path root) throws IOException {
+        final Map<String, byte[]> files = new HashMap<>();
+        files.put("empty.txt", new byte[0]);
+        files.put("tiny.txt", "hello".getBytes(StandardCharsets.UTF_8));
+        files.put("logs/app.log", compressibleData(300_000, 1));
+        files.put("logs/archive/old.log", compressibleData(65_536, 2));
+        final byte[] random = new byte[200_000];
+        new Random(3).nextBytes(random);
+        files.put("bin/random.bin", random);
+        files.put("bin/notes.txt", "caf\u00e9".getBytes(StandardCharsets.UTF_8));
+        return writeFiles(root, files);
+    }
+
+    /**
+     * Writes files under a root directory, creating their parent directories.
+     *
+     * @param root  the root directory
+     * @param files the contents by relative path
+     * @return the files
+     * @throws IOException the io exception
+     */
+    public static Map<String, byte[]> writeFiles(final Path root, final Map<String, byte[]> files) throws IOException {
+        for (Map.Entry<String, byte[]> entry : files.entrySet()) {
+            final Path file = root.resolve(entry.getKey());
+            Files.createDirectories(file.getParent());
+            Files.write(file, entry.getValue());
+        }
+        return files;
+    }
+
+    /**
+     * Generates text-like data.
+     *
+     * @param size the size in bytes
+     * @param seed the random seed
+     * @return the data
+     */
+    public static byte[] compressibleData(final int size, final long seed) {
+        final Random random = new Random(seed);
+        final StringBuilder text = new StringBuilder(size + 64);
+        while (text.length() < size) {
+            text.append("2020-06-10 12:00:").append(random.nextInt(60)).append(" INFO request ")
+                    .append(random.nextInt(1000)).append(" served\n");
+        }
+        return text.substring(0, size).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Reads a stream to its end, without closing it.
+     *
+     * @param in the stream
+     * @return the bytes read
+     * @throws IOException the io exception
+     */
+    public static byte[] readAll(final InputStream in) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final byte[] buffer = new byte[8192];
+        int len;
+        while ((len = in.read(buffer)) >= 0) {
+            out.write(buffer, 0, len);
+        }
+        return out.toByteArray();
+    }
+}
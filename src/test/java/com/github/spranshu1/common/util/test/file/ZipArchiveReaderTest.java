@@ -0,0 +1,205 @@
+package com.github.spranshu1.common.util.test.file;
+
+import com.github.spranshu1.common.util.file.UnzipOptions;
+import com.github.spranshu1.common.util.file.ZipArchiveReader;
+import com.github.spranshu1.common.util.file.ZipUtil;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * The type Zip archive reader test.
+ */
+public class ZipArchiveReaderTest {
+
+    private static final int ENTRIES = 3000;
+
+    /**
+     * The Temp folder.
+     */
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    /**
+     * Test lookup of every entry, deflated and stored.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testReadEntries() throws IOException {
+        final byte[] image = new byte[100_000];
+        new Random(1).nextBytes(image);
+        final Path zip = createArchive(image);
+
+        try (ZipArchiveReader reader = ZipArchiveReader.open(zip)) {
+            Assert.assertEquals(ENTRIES + 1, reader.size());
+            for (int i = 0; i < ENTRIES; i += 7) {
+                final String name = "dir" + (i % 10) + "/file-" + i + ".txt";
+                Assert.assertTrue(reader.contains(name));
+                Assert.assertEquals(ZipEntry.DEFLATED, reader.getMethod(name));
+                try (InputStream in = reader.getInputStream(name)) {
+                    Assert.assertEquals(content(i), new String(TestFiles.readAll(in), StandardCharsets.UTF_8));
+                }
+            }
+
+            Assert.assertEquals(image.length, reader.getSize("img/logo.png"));
+            final ByteBuffer buffer = reader.getBuffer("img/logo.png");
+            Assert.assertTrue(buffer.isReadOnly());
+            final byte[] mapped = new byte[buffer.remaining()];
+            buffer.get(mapped);
+            Assert.assertArrayEquals(image, mapped);
+            try (InputStream in = reader.getInputStream("img/logo.png")) {
+                Assert.assertArrayEquals(image, TestFiles.readAll(in));
+            }
+        }
+    }
+
+    /**
+     * Test lookup of missing entries and of a compressed entry as a buffer.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testMissingAndCompressedEntries() throws IOException {
+        final Path zip = createArchive(new byte[10]);
+        try (ZipArchiveReader reader = ZipArchiveReader.open(zip)) {
+            Assert.assertFalse(reader.contains("missing.txt"));
+            Assert.assertNull(reader.getInputStream("missing.txt"));
+            Assert.assertNull(reader.getBuffer("missing.txt"));
+            Assert.assertEquals(-1, reader.getSize("missing.txt"));
+            try {
+                reader.getBuffer("dir0/file-0.txt");
+                Assert.fail("Expected ZipException");
+            } catch (ZipException e) {
+                // expected
+            }
+        }
+    }
+
+    /**
+     * Test a stored entry with a corrupted data byte, detected at the end of its stream.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testCorruptStoredEntry() throws IOException {
+        final byte[] image = new byte[10_000];
+        new Random(2).nextBytes(image);
+        final Path zip = createArchive(image);
+        final byte[] bytes = Files.readAllBytes(zip);
+        final int data = indexOf(bytes, image);
+        bytes[data + 5000] ^= 0x01;
+        Files.write(zip, bytes);
+
+        try (ZipArchiveReader reader = ZipArchiveReader.open(zip);
+             InputStream in = reader.getInputStream("img/logo.png")) {
+            TestFiles.readAll(in);
+            Assert.fail("Expected a ZipException");
+        } catch (ZipException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("CRC-32"));
+        }
+    }
+
+    /**
+     * Test open of a file that is not an archive.
+     *
+     * @throws IOException the io exception
+     */
+    @Test(expected = ZipException.class)
+    public void testOpenNotAZip() throws IOException {
+        final Path file = tempFolder.newFile("plain.txt").toPath();
+        Files.write(file, "not a zip".getBytes(StandardCharsets.UTF_8));
+        ZipArchiveReader.open(file).close();
+    }
+
+    /**
+     * Test open of an archive declaring more entries than its central directory can hold,
+     * rejected before the index is allocated.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testOpenEntryCountBeyondDirectory() throws IOException {
+        final ByteBuffer zip = ByteBuffer.allocate(98).order(ByteOrder.LITTLE_ENDIAN);
+        // ZIP64 end of central directory record, 200,000,000 entries in a 0 byte directory at offset 0
+        zip.putInt(0x06064b50).putLong(44).putShort((short) 45).putShort((short) 45).putInt(0).putInt(0)
+                .putLong(200_000_000L).putLong(200_000_000L).putLong(0).putLong(0);
+        // ZIP64 end of central directory locator
+        zip.putInt(0x07064b50).putInt(0).putLong(0).putInt(1);
+        // end of central directory, every field deferring to ZIP64
+        zip.putInt(0x06054b50).putShort((short) 0).putShort((short) 0).putShort((short) 0xFFFF)
+                .putShort((short) 0xFFFF).putInt(0xFFFFFFFF).putInt(0xFFFFFFFF).putShort((short) 0);
+        final Path file = tempFolder.getRoot().toPath().resolve("claims.zip");
+        Files.write(file, zip.array());
+
+        try {
+            ZipArchiveReader.open(file).close();
+            Assert.fail("Expected a ZipException");
+        } catch (ZipException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("200000000 entries"));
+        }
+        final UnzipOptions options = new UnzipOptions.UnzipOptionsBuilder().withMaxEntries(10).build();
+        try {
+            ZipUtil.unzip(file.toString(), tempFolder.newFolder("claims").toString(), options);
+            Assert.fail("Expected a ZipException");
+        } catch (ZipException e) {
+            // expected
+        }
+    }
+
+    private Path createArchive(final byte[] image) throws IOException {
+        final Path zip = tempFolder.getRoot().toPath().resolve("archive.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            for (int i = 0; i < ENTRIES; i++) {
+                out.putNextEntry(new ZipEntry("dir" + (i % 10) + "/file-" + i + ".txt"));
+                out.write(content(i).getBytes(StandardCharsets.UTF_8));
+                out.closeEntry();
+            }
+            final ZipEntry stored = new ZipEntry("img/logo.png");
+            stored.setMethod(ZipEntry.STORED);
+            stored.setSize(image.length);
+            final CRC32 crc = new CRC32();
+            crc.update(image);
+            stored.setCrc(crc.getValue());
+            out.putNextEntry(stored);
+            out.write(image);
+            out.closeEntry();
+        }
+        return zip;
+    }
+
+    private static String content(final int i) {
+        final StringBuilder text = new StringBuilder();
+        for (int line = 0; line <= i % 50; line++) {
+            text.append("entry ").append(i).append(" line ").append(line).append('\n');
+        }
+        return text.toString();
+    }
+
+    private static int indexOf(final byte[] bytes, final byte[] part) {
+        outer:
+        for (int i = 0; i <= bytes.length - part.length; i++) {
+            for (int j = 0; j < part.length; j++) {
+                if (bytes[i + j] != part[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        throw new AssertionError("Part not found");
+    }
+}
@@ -1,20 +1,53 @@
 package com.github.spranshu1.common.util.test.file;
 
 
+import com.github.spranshu1.common.util.file.ChangeDetection;
+import com.github.spranshu1.common.util.file.StandardCompressionPolicy;
+import com.github.spranshu1.common.util.file.UnzipOptions;
+import com.github.spranshu1.common.util.file.ZipArchiveReader;
+import com.github.spranshu1.common.util.file.ZipOptions;
+import com.github.spranshu1.common.util.file.ZipPhase;
+import com.github.spranshu1.common.util.file.ZipProgress;
+import com.github.spranshu1.common.util.file.ZipProgressListener;
 import com.github.spranshu1.common.util.file.ZipUtil;
+import com.github.spranshu1.common.util.file.ZipWriter;
 import org.junit.AfterClass;
 import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
 
 /**
  * The type Zip util test.
@@ -31,6 +64,12 @@ public class ZipUtilTest {
 
     private static final String DESTINATION = absolutePath + "/test_data/";
 
+    /**
+     * The Temp folder.
+     */
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
     /**
      * Cleanup.
      *
@@ -110,7 +149,628 @@ public class ZipUtilTest {
      */
     @Test
     public void testUnzip() throws IOException {
-        ZipUtil.unzip(SRC_DIR_PATH+"/unzipme.zip",DESTINATION+"unzipme");
+        final Path target = tempFolder.getRoot().toPath().resolve("unzipme");
+        ZipUtil.unzip(SRC_DIR_PATH+"/unzipme.zip", target.toString());
+        Assert.assertEquals(1312, Files.size(target.resolve("dummy.txt")));
+    }
+
+    /**
+     * Test parallel directory zip, with files spanning several chunks.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testParallelDirZip() throws IOException {
+        final Path source = tempFolder.newFolder("source").toPath();
+        final Map<String, byte[]> expected = TestFiles.createFiles(source);
+        final Path output = tempFolder.getRoot().toPath().resolve("parallel.zip");
+
+        final ZipOptions options = new ZipOptions.ZipOptionsBuilder()
+                .withThreads(4)
+                .withChunkSize(64 * 1024)
+                .withCompressionLevel(Deflater.BEST_SPEED)
+                .build();
+        Assert.assertTrue(ZipUtil.zip(source.toString(), output.toString(), options));
+
+        Assert.assertEquals(expected.keySet(), readZipFile(output).keySet());
+        for (Map.Entry<String, byte[]> entry : readZipFile(output).entrySet()) {
+            Assert.assertArrayEquals(entry.getKey(), expected.get(entry.getKey()), entry.getValue());
+        }
+        // sequential readers go through the data descriptors instead of the central directory
+        final Map<String, byte[]> streamed = readZipStream(output);
+        Assert.assertEquals(expected.size(), streamed.size());
+        for (Map.Entry<String, byte[]> entry : streamed.entrySet()) {
+            Assert.assertArrayEquals(entry.getKey(), expected.get(entry.getKey()), entry.getValue());
+        }
     }
 
+    /**
+     * Test parallel zip of a single file, which is still compressed in parallel chunks.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testParallelFileZip() throws IOException {
+        final Path file = tempFolder.newFile("big.log").toPath();
+        final byte[] data = TestFiles.compressibleData(700_000, 7);
+        Files.write(file, data);
+        final Path output = tempFolder.getRoot().toPath().resolve("big.zip");
+
+        final ZipOptions options = new ZipOptions.ZipOptionsBuilder().withChunkSize(100_000).build();
+        ZipUtil.zip(file.toString(), output.toString(), options);
+
+        final Map<String, byte[]> entries = readZipFile(output);
+        Assert.assertEquals(1, entries.size());
+        Assert.assertArrayEquals(data, entries.get("big.log"));
+        Assert.assertTrue(Files.size(output) < data.length / 2);
+    }
+
+    /**
+     * Test parallel zip storing already compressed files, by extension and by sampling.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testParallelZipStoredEntries() throws IOException {
+        final Path source = tempFolder.newFolder("source").toPath();
+        final Map<String, byte[]> expected = TestFiles.createFiles(source);
+        final byte[] photo = new byte[50_000];
+        new Random(4).nextBytes(photo);
+        Files.write(source.resolve("photo.JPG"), photo);
+        expected.put("photo.JPG", photo);
+        final Path output = tempFolder.getRoot().toPath().resolve("stored.zip");
+
+        final ZipOptions options = new ZipOptions.ZipOptionsBuilder()
+                .withChunkSize(64 * 1024)
+                .withCompressionPolicy(new StandardCompressionPolicy.StandardCompressionPolicyBuilder()
+                        .withExtensionLevel("log", Deflater.BEST_COMPRESSION)
+                        .build())
+                .build();
+        ZipUtil.zip(source.toString(), output.toString(), options);
+
+        try (ZipFile zipFile = new ZipFile(output.toFile())) {
+            Assert.assertEquals(ZipEntry.STORED, zipFile.getEntry("photo.JPG").getMethod());
+            Assert.assertEquals(ZipEntry.STORED, zipFile.getEntry("bin/random.bin").getMethod());
+            Assert.assertEquals(ZipEntry.DEFLATED, zipFile.getEntry("logs/app.log").getMethod());
+            Assert.assertEquals(ZipEntry.DEFLATED, zipFile.getEntry("tiny.txt").getMethod());
+        }
+        final Map<String, byte[]> entries = readZipFile(output);
+        Assert.assertEquals(expected.keySet(), entries.keySet());
+        for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            Assert.assertArrayEquals(entry.getKey(), expected.get(entry.getKey()), entry.getValue());
+        }
+    }
+
+    /**
+     * Test parallel unzip of stored and deflated entries with a small buffer.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testParallelUnzipStoredEntries() throws IOException {
+        final Path source = tempFolder.newFolder("source").toPath();
+        final Map<String, byte[]> expected = TestFiles.createFiles(source);
+        final Path zip = tempFolder.getRoot().toPath().resolve("mixed.zip");
+        final ZipOptions zipOptions = new ZipOptions.ZipOptionsBuilder()
+                .withBufferSize(1024)
+                .withCompressionPolicy(new StandardCompressionPolicy.StandardCompressionPolicyBuilder()
+                        .withStoredExtensions("txt")
+                        .build())
+                .build();
+        ZipUtil.zip(source.toString(), zip.toString(), zipOptions);
+
+        final Path target = tempFolder.getRoot().toPath().resolve("mixed");
+        final UnzipOptions options = new UnzipOptions.UnzipOptionsBuilder().withBufferSize(1024).build();
+        Assert.assertEquals(expected.size(), ZipUtil.unzip(zip.toString(), target.toString(), options));
+        for (Map.Entry<String, byte[]> entry : expected.entrySet()) {
+            Assert.assertArrayEquals(entry.getKey(), entry.getValue(), Files.readAllBytes(target.resolve(entry.getKey())));
+        }
+    }
+
+    /**
+     * Test concurrent directory zips do not share their file lists.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testConcurrentDirZip() throws Exception {
+        final int jobs = 4;
+        final ExecutorService pool = Executors.newFixedThreadPool(jobs);
+        try {
+            final List<Future<Path>> results = new ArrayList<>();
+            for (int j = 0; j < jobs; j++) {
+                final Path source = tempFolder.newFolder("job" + j).toPath();
+                for (int f = 0; f < 50; f++) {
+                    final Path file = source.resolve("dir" + (f % 5)).resolve("job" + j + "-" + f + ".txt");
+                    Files.createDirectories(file.getParent());
+                    Files.write(file, TestFiles.compressibleData(1000 + f, f));
+                }
+                final Path output = tempFolder.getRoot().toPath().resolve("job" + j + ".zip");
+                results.add(pool.submit(() -> {
+                    ZipUtil.zip(source.toString(), output.toString());
+                    return output;
+                }));
+            }
+            for (int j = 0; j < jobs; j++) {
+                final Map<String, byte[]> entries = readZipFile(results.get(j).get());
+                Assert.assertEquals(50, entries.size());
+                for (String name : entries.keySet()) {
+                    Assert.assertTrue(name, name.matches("dir[0-4]/job" + j + "-\\d+\\.txt"));
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Test parallel unzip of all entries.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testParallelUnzip() throws IOException {
+        final Path source = tempFolder.newFolder("source").toPath();
+        final Map<String, byte[]> expected = TestFiles.createFiles(source);
+        final Path zip = tempFolder.getRoot().toPath().resolve("all.zip");
+        ZipUtil.zip(source.toString(), zip.toString());
+
+        final Path target = tempFolder.getRoot().toPath().resolve("all");
+        final UnzipOptions options = new UnzipOptions.UnzipOptionsBuilder().withThreads(3).build();
+        Assert.assertEquals(expected.size(), ZipUtil.unzip(zip.toString(), target.toString(), options));
+        for (Map.Entry<String, byte[]> entry : expected.entrySet()) {
+            Assert.assertArrayEquals(entry.getKey(), entry.getValue(), Files.readAllBytes(target.resolve(entry.getKey())));
+        }
+    }
+
+    /**
+     * Test parallel unzip of the entries selected by a glob or by name.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testParallelUnzipSubset() throws IOException {
+        final Path source = tempFolder.newFolder("source").toPath();
+        final Map<String, byte[]> expected = TestFiles.createFiles(source);
+        final Path zip = tempFolder.getRoot().toPath().resolve("subset.zip");
+        ZipUtil.zip(source.toString(), zip.toString());
+
+        final Path logs = tempFolder.getRoot().toPath().resolve("logs");
+        final UnzipOptions byGlob = new UnzipOptions.UnzipOptionsBuilder().withGlob("logs/**.log").build();
+        Assert.assertEquals(2, ZipUtil.unzip(zip.toString(), logs.toString(), byGlob));
+        Assert.assertArrayEquals(expected.get("logs/archive/old.log"),
+                Files.readAllBytes(logs.resolve("logs/archive/old.log")));
+        Assert.assertFalse(Files.exists(logs.resolve("bin")));
+
+        final Path named = tempFolder.getRoot().toPath().resolve("named");
+        final UnzipOptions byName = new UnzipOptions.UnzipOptionsBuilder().withEntryNames("tiny.txt").build();
+        Assert.assertEquals(1, ZipUtil.unzip(zip.toString(), named.toString(), byName));
+        try (Stream<Path> files = Files.list(named)) {
+            Assert.assertEquals(1, files.count());
+        }
+    }
+
+    /**
+     * Test the progress reported by parallel zip and unzip.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testProgressListener() throws IOException {
+        final Path source = tempFolder.newFolder("source").toPath();
+        final Map<String, byte[]> expected = TestFiles.createFiles(source);
+        final long totalSize = expected.values().stream().mapToLong(data -> data.length).sum();
+        final Path zip = tempFolder.getRoot().toPath().resolve("progress.zip");
+
+        final RecordingListener zipListener = new RecordingListener();
+        final ZipOptions zipOptions = new ZipOptions.ZipOptionsBuilder()
+                .withThreads(2)
+                .withChunkSize(64 * 1024)
+                .withProgressListener(zipListener)
+                .build();
+        Assert.assertTrue(ZipUtil.zip(source.toString(), zip.toString(), zipOptions));
+        Assert.assertEquals(expected.keySet(), zipListener.names);
+        final ZipProgress zipped = zipListener.completed;
+        Assert.assertNotNull(zipped);
+        Assert.assertEquals(expected.size(), zipped.getEntriesDone());
+        Assert.assertEquals(totalSize, zipped.getBytesRead());
+        Assert.assertEquals(Files.size(zip), zipped.getBytesWritten());
+        Assert.assertTrue(zipped.getCompressionRatio() > 0 && zipped.getCompressionRatio() < 1);
+        Assert.assertTrue(zipped.getElapsed(ZipPhase.DEFLATE, TimeUnit.NANOSECONDS) > 0);
+        Assert.assertTrue(zipped.getElapsed(ZipPhase.WRITE, TimeUnit.NANOSECONDS) > 0);
+
+        final RecordingListener unzipListener = new RecordingListener();
+        final UnzipOptions unzipOptions = new UnzipOptions.UnzipOptionsBuilder()
+                .withThreads(2)
+                .withProgressListener(unzipListener)
+                .build();
+        ZipUtil.unzip(zip.toString(), tempFolder.getRoot().toPath().resolve("progress").toString(), unzipOptions);
+        Assert.assertEquals(expected.keySet(), unzipListener.names);
+        final ZipProgress unzipped = unzipListener.completed;
+        Assert.assertEquals(expected.size(), unzipped.getEntriesDone());
+        Assert.assertEquals(totalSize, unzipped.getBytesWritten());
+        Assert.assertEquals(zipped.getCompressionRatio(), unzipped.getCompressionRatio(), 0.01);
+        Assert.assertTrue(unzipped.getElapsed(ZipPhase.INFLATE, TimeUnit.NANOSECONDS) > 0);
+    }
+
+    /**
+     * Test a ZIP64 archive of more than 65535 entries, read back and unzipped with progress.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testZip64EntryCount() throws IOException {
+        final int count = 70_000;
+        final Path zip = tempFolder.getRoot().toPath().resolve("many.zip");
+        try (ZipWriter writer = new ZipWriter(Files.newOutputStream(zip))) {
+            for (int i = 0; i < count; i++) {
+                writer.addEntry("dir" + (i % 100) + "/entry" + i + ".txt", Integer.toString(i).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            Assert.assertEquals(count, zipFile.size());
+            Assert.assertEquals("69999", new String(TestFiles.readAll(zipFile.getInputStream(zipFile.getEntry("dir99/entry69999.txt"))),
+                    StandardCharsets.UTF_8));
+        }
+        try (ZipArchiveReader reader = ZipArchiveReader.open(zip)) {
+            Assert.assertEquals(count, reader.size());
+            Assert.assertEquals("12345", new String(TestFiles.readAll(reader.getInputStream("dir45/entry12345.txt")), StandardCharsets.UTF_8));
+        }
+
+        final RecordingListener listener = new RecordingListener();
+        final Path target = tempFolder.getRoot().toPath().resolve("many");
+        final UnzipOptions options = new UnzipOptions.UnzipOptionsBuilder()
+                .withGlob("dir7/**")
+                .withProgressListener(listener)
+                .build();
+        Assert.assertEquals(count / 100, ZipUtil.unzip(zip.toString(), target.toString(), options));
+        Assert.assertEquals(count / 100, listener.completed.getEntriesDone());
+        Assert.assertEquals("7", new String(Files.readAllBytes(target.resolve("dir7/entry7.txt")), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Test a ZIP64 archive of a file larger than 4 GB. It needs about 5 GB of disk space and a minute,
+     * so it only runs with {@code -Dzip64.large=true}.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testZip64LargeFile() throws IOException {
+        Assume.assumeTrue(Boolean.getBoolean("zip64.large"));
+        final long size = 0x1_0000_0000L + 1_000_000L;
+        final Path source = tempFolder.newFolder("large").toPath().resolve("sparse.bin");
+        try (RandomAccessFile file = new RandomAccessFile(source.toFile(), "rw")) {
+            file.setLength(size);
+            file.seek(size - 5);
+            file.write("tail!".getBytes(StandardCharsets.UTF_8));
+        }
+        final Path zip = tempFolder.getRoot().toPath().resolve("large.zip");
+        final RecordingListener listener = new RecordingListener();
+        final ZipOptions options = new ZipOptions.ZipOptionsBuilder()
+                .withChunkSize(16 * 1024 * 1024)
+                .withProgressListener(listener)
+                .build();
+        Assert.assertTrue(ZipUtil.zip(source.toString(), zip.toString(), options));
+        Assert.assertEquals(size, listener.completed.getBytesRead());
+        Assert.assertEquals(Files.size(zip), listener.completed.getBytesWritten());
+
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            final ZipEntry entry = zipFile.getEntry("sparse.bin");
+            Assert.assertEquals(size, entry.getSize());
+            try (InputStream in = zipFile.getInputStream(entry)) {
+                long skipped = 0;
+                while (skipped < size - 5) {
+                    skipped += in.skip(size - 5 - skipped);
+                }
+                Assert.assertEquals("tail!", new String(TestFiles.readAll(in), StandardCharsets.UTF_8));
+            }
+        }
+        try (ZipArchiveReader reader = ZipArchiveReader.open(zip)) {
+            Assert.assertEquals(size, reader.getSize("sparse.bin"));
+        }
+    }
+
+    /**
+     * Test an incremental zip copying the entries of unchanged files as they are.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testIncrementalZip() throws IOException {
+        final Path source = tempFolder.newFolder("source").toPath();
+        final Map<String, byte[]> expected = TestFiles.createFiles(source);
+        final Path zip = tempFolder.getRoot().toPath().resolve("incremental.zip");
+        ZipUtil.zip(source.toString(), zip.toString(), incrementalOptions(Deflater.BEST_COMPRESSION, ChangeDetection.SIZE_AND_TIME));
+        final Map<String, Long> before = compressedSizes(zip);
+
+        final byte[] changed = TestFiles.compressibleData(300_000, 9);
+        Files.write(source.resolve("logs/app.log"), changed);
+        Files.setLastModifiedTime(source.resolve("logs/app.log"), FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        expected.put("logs/app.log", changed);
+        Files.write(source.resolve("logs/new.log"), TestFiles.compressibleData(10_000, 10));
+        expected.put("logs/new.log", Files.readAllBytes(source.resolve("logs/new.log")));
+        Files.delete(source.resolve("tiny.txt"));
+        expected.remove("tiny.txt");
+        ZipUtil.zip(source.toString(), zip.toString(), incrementalOptions(Deflater.BEST_SPEED, ChangeDetection.SIZE_AND_TIME));
+
+        final Map<String, byte[]> entries = readZipFile(zip);
+        Assert.assertEquals(expected.keySet(), entries.keySet());
+        for (Map.Entry<String, byte[]> entry : entries.entrySet()) {
+            Assert.assertArrayEquals(entry.getKey(), expected.get(entry.getKey()), entry.getValue());
+        }
+        final Map<String, Long> after = compressedSizes(zip);
+        Assert.assertEquals(before.get("logs/archive/old.log"), after.get("logs/archive/old.log"));
+        Assert.assertEquals(before.get("bin/random.bin"), after.get("bin/random.bin"));
+        Assert.assertNotEquals(before.get("logs/app.log"), after.get("logs/app.log"));
+        Assert.assertFalse(Files.exists(zip.resolveSibling("incremental.zip.tmp")));
+    }
+
+    /**
+     * Test an incremental zip detecting changes by content, whatever the modification times.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testIncrementalZipByContent() throws IOException {
+        final Path source = tempFolder.newFolder("source").toPath();
+        TestFiles.createFiles(source);
+        final Path zip = tempFolder.getRoot().toPath().resolve("content.zip");
+        ZipUtil.zip(source.toString(), zip.toString(), incrementalOptions(Deflater.BEST_COMPRESSION, ChangeDetection.CONTENT));
+        final Map<String, Long> before = compressedSizes(zip);
+
+        final FileTime later = FileTime.fromMillis(System.currentTimeMillis() + 10_000);
+        Files.setLastModifiedTime(source.resolve("logs/app.log"), later);
+        final byte[] sameSize = TestFiles.compressibleData(65_536, 11);
+        Files.write(source.resolve("logs/archive/old.log"), sameSize);
+        ZipUtil.zip(source.toString(), zip.toString(), incrementalOptions(Deflater.BEST_SPEED, ChangeDetection.CONTENT));
+
+        final Map<String, Long> after = compressedSizes(zip);
+        Assert.assertEquals(before.get("logs/app.log"), after.get("logs/app.log"));
+        Assert.assertNotEquals(before.get("logs/archive/old.log"), after.get("logs/archive/old.log"));
+        Assert.assertArrayEquals(sameSize, readZipFile(zip).get("logs/archive/old.log"));
+    }
+
+    /**
+     * Test entries escaping the destination are rejected by both unzip paths.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testUnzipSlip() throws IOException {
+        final Path zip = tempFolder.getRoot().toPath().resolve("slip.zip");
+        writeZip(zip, "ok.txt", new byte[10], "../evil.txt", new byte[10]);
+        final Path target = tempFolder.newFolder("slip").toPath();
+
+        try {
+            ZipUtil.unzip(zip.toString(), target.toString());
+            Assert.fail("Expected a ZipException");
+        } catch (ZipException e) {
+            Assert.assertTrue(e.getMessage().contains("../evil.txt"));
+        }
+        try {
+            ZipUtil.unzip(zip.toString(), target.toString(), UnzipOptions.defaults());
+            Assert.fail("Expected a ZipException");
+        } catch (ZipException e) {
+            Assert.assertTrue(e.getMessage().contains("../evil.txt"));
+        }
+        Assert.assertFalse(Files.exists(tempFolder.getRoot().toPath().resolve("evil.txt")));
+    }
+
+    /**
+     * Test a symbolic link in the destination cannot lead an entry outside of it.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testUnzipThroughSymbolicLink() throws IOException {
+        final Path outside = tempFolder.newFolder("outside").toPath();
+        final Path target = tempFolder.newFolder("linked").toPath();
+        try {
+            Files.createSymbolicLink(target.resolve("link"), outside);
+        } catch (UnsupportedOperationException | IOException e) {
+            Assume.assumeNoException(e);
+        }
+        final Path zip = tempFolder.getRoot().toPath().resolve("link.zip");
+        writeZip(zip, "link/evil.txt", new byte[10]);
+
+        try {
+            ZipUtil.unzip(zip.toString(), target.toString(), UnzipOptions.defaults());
+            Assert.fail("Expected a ZipException");
+        } catch (ZipException e) {
+            Assert.assertFalse(Files.exists(outside.resolve("evil.txt")));
+        }
+    }
+
+    /**
+     * Test entries resolving to the same file are extracted once by the parallel unzip, the last one winning.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testParallelUnzipDuplicateTargets() throws IOException {
+        final byte[] first = TestFiles.compressibleData(200_000, 4);
+        final byte[] last = TestFiles.compressibleData(100_000, 5);
+        final Path zip = tempFolder.getRoot().toPath().resolve("duplicates.zip");
+        writeZip(zip, "dup.txt", first, "other.txt", new byte[10], "x/../dup.txt", last);
+        final Path target = tempFolder.newFolder("duplicates").toPath();
+
+        final UnzipOptions options = new UnzipOptions.UnzipOptionsBuilder().withThreads(4).build();
+        Assert.assertEquals(2, ZipUtil.unzip(zip.toString(), target.toString(), options));
+        Assert.assertArrayEquals(last, Files.readAllBytes(target.resolve("dup.txt")));
+    }
+
+    /**
+     * Test corrupted stored data and a wrong CRC-32 of a deflated entry are rejected by the parallel unzip.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testUnzipCorruptEntries() throws IOException {
+        final byte[] data = new byte[10_000];
+        new Random(3).nextBytes(data);
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+        final Path zip = tempFolder.getRoot().toPath().resolve("corrupt.zip");
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            final ZipEntry stored = new ZipEntry("stored.bin");
+            stored.setMethod(ZipEntry.STORED);
+            stored.setSize(data.length);
+            stored.setCrc(crc.getValue());
+            out.putNextEntry(stored);
+            out.write(data);
+            out.closeEntry();
+            out.putNextEntry(new ZipEntry("deflated.txt"));
+            out.write(TestFiles.compressibleData(50_000, 3));
+            out.closeEntry();
+        }
+        final byte[] valid = Files.readAllBytes(zip);
+        final Path target = tempFolder.newFolder("corrupt").toPath();
+
+        // a flipped byte in the data of the stored entry
+        final byte[] flipped = valid.clone();
+        flipped[30 + "stored.bin".length() + 5000] ^= 0x01;
+        Files.write(zip, flipped);
+        try {
+            ZipUtil.unzip(zip.toString(), target.toString(), UnzipOptions.defaults());
+            Assert.fail("Expected a ZipException");
+        } catch (ZipException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("stored.bin"));
+        }
+
+        // a wrong CRC-32 of the deflated entry in the central directory
+        final byte[] wrongCrc = valid.clone();
+        for (int i = wrongCrc.length - 22; i >= 0; i--) {
+            if (wrongCrc[i] == 'P' && wrongCrc[i + 1] == 'K' && wrongCrc[i + 2] == 1 && wrongCrc[i + 3] == 2
+                    && new String(wrongCrc, i + 46, "deflated.txt".length(), StandardCharsets.UTF_8).equals("deflated.txt")) {
+                wrongCrc[i + 16] ^= 0x01;
+                break;
+            }
+        }
+        Files.write(zip, wrongCrc);
+        try {
+            ZipUtil.unzip(zip.toString(), target.toString(), UnzipOptions.defaults());
+            Assert.fail("Expected a ZipException");
+        } catch (ZipException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().contains("deflated.txt"));
+        }
+
+        Files.write(zip, valid);
+        Assert.assertEquals(2, ZipUtil.unzip(zip.toString(), target.toString(), UnzipOptions.defaults()));
+        Assert.assertArrayEquals(data, Files.readAllBytes(target.resolve("stored.bin")));
+    }
+
+    /**
+     * Test the size, entry count and compression ratio limits of unzip.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testUnzipLimits() throws IOException {
+        final Path bomb = tempFolder.getRoot().toPath().resolve("bomb.zip");
+        writeZip(bomb, "zeros.bin", new byte[20 * 1024 * 1024], "small.txt", new byte[100]);
+        final Path target = tempFolder.getRoot().toPath().resolve("bomb");
+
+        assertUnzipFails(bomb, target, new UnzipOptions.UnzipOptionsBuilder().withMaxCompressionRatio(100).build(),
+                "zeros.bin");
+        assertUnzipFails(bomb, target, new UnzipOptions.UnzipOptionsBuilder().withMaxTotalSize(1024 * 1024).build(),
+                "1048576");
+        assertUnzipFails(bomb, target, new UnzipOptions.UnzipOptionsBuilder().withMaxEntries(1).build(), "1");
+
+        final UnzipOptions enough = new UnzipOptions.UnzipOptionsBuilder()
+                .withMaxEntries(2)
+                .withMaxTotalSize(21 * 1024 * 1024)
+                .withMaxCompressionRatio(2000)
+                .build();
+        Assert.assertEquals(2, ZipUtil.unzip(bomb.toString(), target.toString(), enough));
+        Assert.assertEquals(20 * 1024 * 1024, Files.size(target.resolve("zeros.bin")));
+    }
+
+    private static void assertUnzipFails(final Path zip, final Path target, final UnzipOptions options,
+                                         final String message) throws IOException {
+        try {
+            ZipUtil.unzip(zip.toString(), target.toString(), options);
+            Assert.fail("Expected a ZipException");
+        } catch (ZipException e) {
+            Assert.assertTrue(e.getMessage(), e.getMessage().endsWith(message));
+        }
+    }
+
+    private static void writeZip(final Path zip, final Object... entries) throws IOException {
+        try (ZipOutputStream out = new ZipOutputStream(Files.newOutputStream(zip))) {
+            for (int i = 0; i < entries.length; i += 2) {
+                out.putNextEntry(new ZipEntry((String) entries[i]));
+                out.write((byte[]) entries[i + 1]);
+                out.closeEntry();
+            }
+        }
+    }
+
+    private static ZipOptions incrementalOptions(final int level, final ChangeDetection changeDetection) {
+        return new ZipOptions.ZipOptionsBuilder()
+                .withCompressionLevel(level)
+                .withIncremental(changeDetection)
+                .build();
+    }
+
+    private static Map<String, Long> compressedSizes(final Path zip) throws IOException {
+        final Map<String, Long> sizes = new HashMap<>();
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                final ZipEntry entry = entries.nextElement();
+                sizes.put(entry.getName(), entry.getCompressedSize());
+            }
+        }
+        return sizes;
+    }
+
+    /**
+     * Reads all entries through the central directory.
+     */
+    private static Map<String, byte[]> readZipFile(final Path zip) throws IOException {
+        final Map<String, byte[]> entries = new HashMap<>();
+        try (ZipFile zipFile = new ZipFile(zip.toFile())) {
+            final Enumeration<? extends ZipEntry> it = zipFile.entries();
+            while (it.hasMoreElements()) {
+                final ZipEntry entry = it.nextElement();
+                try (InputStream in = zipFile.getInputStream(entry)) {
+                    entries.put(entry.getName(), TestFiles.readAll(in));
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Reads all entries sequentially.
+     */
+    private static Map<String, byte[]> readZipStream(final Path zip) throws IOException {
+        final Map<String, byte[]> entries = new HashMap<>();
+        try (ZipInputStream in = new ZipInputStream(Files.newInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                entries.put(entry.getName(), TestFiles.readAll(in));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Records the entries and the final progress.
+     */
+    private static final class RecordingListener implements ZipProgressListener {
+        private final Set<String> names = new TreeSet<>();
+        private ZipProgress completed;
+
+        @Override
+        public void onEntry(final ZipProgress progress) {
+            names.add(progress.getCurrentEntry());
+        }
+
+        @Override
+        public void onComplete(final ZipProgress progress) {
+            completed = progress;
+        }
+    }
 }
@@ -0,0 +1,182 @@
+package com.github.spranshu1.common.util.test.file;
+
+import com.github.spranshu1.common.util.file.CompressionPolicy;
+import com.github.spranshu1.common.util.file.StandardCompressionPolicy;
+import com.github.spranshu1.common.util.file.ZipWriter;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * The type Zip writer test.
+ */
+public class ZipWriterTest {
+
+    /**
+     * The Temp folder.
+     */
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
+    /**
+     * Test entries from every kind of source.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testWriteSources() throws IOException {
+        final Path file = tempFolder.newFile("file.txt").toPath();
+        Files.write(file, repeat("from a file\n", 5000));
+        final AtomicInteger opened = new AtomicInteger();
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipWriter zip = new ZipWriter(out)) {
+            zip.addEntry("bytes.txt", "hello".getBytes(StandardCharsets.UTF_8));
+            Assert.assertEquals(0, opened.get());
+            zip.addEntry("stream.txt", () -> {
+                opened.incrementAndGet();
+                return new ByteArrayInputStream(repeat("from a stream\n", 1000));
+            });
+            Assert.assertEquals(1, opened.get());
+            zip.addEntry("dir/file.txt", file);
+            zip.addEntry("channel.txt", Channels.newChannel(new ByteArrayInputStream(new byte[0])));
+            zip.addDirectory("empty");
+            Assert.assertEquals(5, zip.getEntryCount());
+        }
+
+        final Map<String, byte[]> entries = read(out.toByteArray());
+        Assert.assertEquals(5, entries.size());
+        Assert.assertEquals("hello", new String(entries.get("bytes.txt"), StandardCharsets.UTF_8));
+        Assert.assertArrayEquals(repeat("from a stream\n", 1000), entries.get("stream.txt"));
+        Assert.assertArrayEquals(Files.readAllBytes(file), entries.get("dir/file.txt"));
+        Assert.assertEquals(0, entries.get("channel.txt").length);
+        Assert.assertTrue(entries.containsKey("empty/"));
+    }
+
+    /**
+     * Test writing to a channel, finish leaves it open.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testWriteToChannel() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ZipWriter zip = new ZipWriter(Channels.newChannel(out));
+        zip.addEntry("a.txt", "a".getBytes(StandardCharsets.UTF_8));
+        zip.finish();
+        Assert.assertEquals(out.size(), zip.getBytesWritten());
+        Assert.assertEquals(1, read(out.toByteArray()).size());
+    }
+
+    /**
+     * Test a stored file transferred to a file channel.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testStoredFileToChannel() throws IOException {
+        final byte[] data = new byte[300_000];
+        new Random(5).nextBytes(data);
+        final Path file = tempFolder.newFile("archive.zip").toPath();
+        Files.write(file, data);
+        final Path output = tempFolder.getRoot().toPath().resolve("out.zip");
+
+        try (FileChannel channel = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+             ZipWriter zip = new ZipWriter(channel, CompressionPolicy.fixed(CompressionPolicy.STORE))) {
+            zip.addEntry("before.txt", repeat("before\n", 100));
+            zip.addEntry("archive.zip", file);
+            zip.addEntry("after.txt", repeat("after\n", 100));
+        }
+
+        final Map<String, byte[]> entries = read(Files.readAllBytes(output));
+        Assert.assertArrayEquals(repeat("before\n", 100), entries.get("before.txt"));
+        Assert.assertArrayEquals(data, entries.get("archive.zip"));
+        Assert.assertArrayEquals(repeat("after\n", 100), entries.get("after.txt"));
+    }
+
+    /**
+     * Test adding an entry once finished.
+     *
+     * @throws IOException the io exception
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddAfterFinish() throws IOException {
+        final ZipWriter zip = new ZipWriter(new ByteArrayOutputStream());
+        zip.finish();
+        zip.addEntry("late.txt", new byte[1]);
+    }
+
+    /**
+     * Test a compression policy storing compressed formats.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testCompressionPolicy() throws IOException {
+        final byte[] image = new byte[40_000];
+        new Random(2).nextBytes(image);
+        final Path file = tempFolder.newFile("clip.mp4").toPath();
+        Files.write(file, image);
+        final CompressionPolicy policy = new StandardCompressionPolicy.StandardCompressionPolicyBuilder().build();
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipWriter zip = new ZipWriter(out, policy)) {
+            zip.addEntry("logo.png", image);
+            zip.addEntry("clip.mp4", file);
+            zip.addEntry("noise.bin", image);
+            zip.addEntry("text.txt", repeat("text\n", 1000));
+        }
+
+        final Map<String, Integer> methods = new LinkedHashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                methods.put(entry.getName(), entry.getMethod());
+                final byte[] content = TestFiles.readAll(in);
+                if (!entry.getName().equals("text.txt")) {
+                    Assert.assertArrayEquals(entry.getName(), image, content);
+                }
+            }
+        }
+        Assert.assertEquals(ZipEntry.STORED, (int) methods.get("logo.png"));
+        Assert.assertEquals(ZipEntry.STORED, (int) methods.get("clip.mp4"));
+        Assert.assertEquals(ZipEntry.STORED, (int) methods.get("noise.bin"));
+        Assert.assertEquals(ZipEntry.DEFLATED, (int) methods.get("text.txt"));
+    }
+
+    private static byte[] repeat(final String text, final int times) {
+        final StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            builder.append(text);
+        }
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, byte[]> read(final byte[] zip) throws IOException {
+        final Map<String, byte[]> entries = new LinkedHashMap<>();
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zip))) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                entries.put(entry.getName(), TestFiles.readAll(in));
+            }
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,184 @@
+package com.github.spranshu1.common.util.test.json;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Forward-only, in-memory {@link ResultSet} used to test the result set converters without a database.
+ */
+public final class FakeResultSet {
+
+    private final String[] labels;
+
+    private final int[] types;
+
+    private final List<Object[]> rows;
+
+    private int cursor = -1;
+
+    private boolean lastWasNull;
+
+    private int metaDataCalls;
+
+    private int fetchSize;
+
+    private int failingRow = -1;
+
+    private final Map<String, Integer> getterCalls = new HashMap<>();
+
+    private FakeResultSet(String[] labels, int[] types, List<Object[]> rows) {
+        this.labels = labels;
+        this.types = types;
+        this.rows = rows;
+    }
+
+    /**
+     * Creates a forward-only result set over the given rows.
+     *
+     * @param labels the column labels
+     * @param types  the {@link java.sql.Types} of the columns
+     * @param rows   the row values, indexed by column
+     * @return the fake
+     */
+    public static FakeResultSet of(String[] labels, int[] types, List<Object[]> rows) {
+        return new FakeResultSet(labels, types, rows);
+    }
+
+    /**
+     * Makes every column read of a row fail, as a driver losing its connection mid-stream would.
+     *
+     * @param row the zero based index of the failing row
+     * @return this fake
+     */
+    public FakeResultSet failingAt(int row) {
+        this.failingRow = row;
+        return this;
+    }
+
+    /**
+     * Gets the number of {@link ResultSet#getMetaData()} calls made so far.
+     *
+     * @return the calls
+     */
+    public int getMetaDataCalls() {
+        return metaDataCalls;
+    }
+
+    /**
+     * Gets the number of calls made so far to a column getter, such as {@code getObject}.
+     *
+     * @param getter the getter name
+     * @return the calls
+     */
+    public int getGetterCalls(String getter) {
+        return getterCalls.getOrDefault(getter, 0);
+    }
+
+    /**
+     * Gets the fetch size set by the code under test.
+     *
+     * @return the fetch size
+     */
+    public int getFetchSize() {
+        return fetchSize;
+    }
+
+    /**
+     * Returns the {@link ResultSet} view of this fake.
+     *
+     * @return the result set
+     */
+    public ResultSet resultSet() {
+        return (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "next":
+                            return ++cursor < rows.size();
+                        case "previous":
+                            throw new SQLException("ResultSet is TYPE_FORWARD_ONLY");
+                        case "getType":
+                            return ResultSet.TYPE_FORWARD_ONLY;
+                        case "setFetchSize":
+                            fetchSize = (Integer) args[0];
+                            return null;
+                        case "getFetchSize":
+                            return fetchSize;
+                        case "getMetaData":
+                            metaDataCalls++;
+                            return metaData();
+                        case "wasNull":
+                            return lastWasNull;
+                        case "close":
+                            return null;
+                        case "isClosed":
+                            return false;
+                        default:
+                            if (method.getName().startsWith("get") && args != null && args[0] instanceof Integer) {
+                                return get(method.getName(), (Integer) args[0]);
+                            }
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private Object get(String getter, int column) throws SQLException {
+        getterCalls.merge(getter, 1, Integer::sum);
+        if (cursor < 0 || cursor >= rows.size()) {
+            throw new SQLException("No current row");
+        }
+        if (cursor == failingRow) {
+            throw new SQLException("Connection lost");
+        }
+        Object value = rows.get(cursor)[column - 1];
+        lastWasNull = value == null;
+        switch (getter) {
+            case "getLong":
+                return value == null ? 0L : ((Number) value).longValue();
+            case "getInt":
+                return value == null ? 0 : ((Number) value).intValue();
+            case "getDouble":
+                return value == null ? 0d : ((Number) value).doubleValue();
+            case "getBoolean":
+                return value != null && (Boolean) value;
+            case "getBigDecimal":
+                return value == null ? null : new BigDecimal(value.toString());
+            case "getString":
+                return value == null ? null : value.toString();
+            case "getBinaryStream":
+                return value == null ? null : new ByteArrayInputStream((byte[]) value);
+            case "getBytes":
+                return value;
+            case "getCharacterStream":
+                return value == null ? null : new StringReader(value.toString());
+            default:
+                return value;
+        }
+    }
+
+    private ResultSetMetaData metaData() {
+        return (ResultSetMetaData) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ResultSetMetaData.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getColumnCount":
+                            return labels.length;
+                        case "getColumnLabel":
+                        case "getColumnName":
+                            return labels[(Integer) args[0] - 1];
+                        case "getColumnType":
+                            return types[(Integer) args[0] - 1];
+                        case "getColumnTypeName":
+                            return "TYPE_" + types[(Integer) args[0] - 1];
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
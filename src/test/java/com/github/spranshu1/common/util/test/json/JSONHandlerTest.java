@@ -18,12 +18,276 @@
 package com.github.spranshu1.common.util.test.json;
 
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.spranshu1.common.util.json.JSONHandler;
+import com.github.spranshu1.common.util.json.JsonWriteStats;
+import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
 public class JSONHandlerTest {
 
+    private static final String[] LABELS = {"id", "name"};
+
+    private static final int[] TYPES = {Types.INTEGER, Types.VARCHAR};
+
+    private static FakeResultSet people() {
+        return FakeResultSet.of(LABELS, TYPES, Arrays.asList(
+                new Object[]{1, "Ravi"},
+                new Object[]{2, null}));
+    }
+
+    @Test
+    public void resultSetToJsonTest() throws Exception {
+        List<ObjectNode> nodes = JSONHandler.resultSetToJson(people().resultSet());
+        Assert.assertEquals(2, nodes.size());
+        Assert.assertEquals("Ravi", nodes.get(0).get("name").asText());
+        Assert.assertEquals(2, nodes.get(1).get("id").intValue());
+        Assert.assertFalse(nodes.get(1).has("name"));
+    }
+
+    /**
+     * Empty strings read by the driver are kept, timestamps are read once per cell.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void resultSetToJsonKeepsDriverEmptyStrings() throws Exception {
+        FakeResultSet fake = FakeResultSet.of(new String[]{"name", "at"}, new int[]{Types.VARCHAR, Types.TIMESTAMP},
+                Arrays.asList(
+                        new Object[]{new String(new char[0]), new Timestamp(0L)},
+                        new Object[]{"", null}));
+
+        List<ObjectNode> nodes = JSONHandler.resultSetToJson(fake.resultSet());
+
+        Assert.assertEquals("", nodes.get(0).get("name").asText());
+        Assert.assertTrue(nodes.get(0).has("at"));
+        Assert.assertEquals(0, nodes.get(1).size());
+        Assert.assertEquals(2, fake.getGetterCalls("getTimestamp"));
+        Assert.assertEquals(2, fake.getGetterCalls("getObject"));
+    }
+
+    /**
+     * Result set metadata is read once per result set, not per row.
+     *
+     * @throws Exception the exception
+     */
     @Test
-    public void resultSetToJsonTest() {
+    public void metaDataReadOncePerResultSet() throws Exception {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            rows.add(new Object[]{i, "name-" + i});
+        }
+        FakeResultSet fake = FakeResultSet.of(LABELS, TYPES, rows);
+        JSONHandler.createJsonFromResultSet(fake.resultSet(), new ByteArrayOutputStream());
+        Assert.assertEquals(1, fake.getMetaDataCalls());
+
+        fake = FakeResultSet.of(LABELS, TYPES, rows);
+        JSONHandler.resultSetToJson(fake.resultSet());
+        Assert.assertEquals(1, fake.getMetaDataCalls());
+    }
+
+    /**
+     * The string variant works on forward-only cursors.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void createJsonFromForwardOnlyResultSet() throws Exception {
+        String json = JSONHandler.createJsonFromResultSet(people().resultSet());
+        Assert.assertEquals("[{\"id\":1,\"name\":\"Ravi\"},{\"id\":2,\"name\":\"\"}]", json);
+    }
+
+    /**
+     * An empty result set gives an empty string.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void createJsonFromEmptyResultSet() throws Exception {
+        FakeResultSet empty = FakeResultSet.of(LABELS, TYPES, Collections.<Object[]>emptyList());
+        Assert.assertEquals("", JSONHandler.createJsonFromResultSet(empty.resultSet()));
+    }
+
+    /**
+     * Streaming to an output stream reports rows and bytes and applies the fetch size hint.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void streamResultSetToOutputStream() throws Exception {
+        FakeResultSet fake = people();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        JsonWriteStats stats = JSONHandler.createJsonFromResultSet(fake.resultSet(), out, 500);
+
+        Assert.assertEquals(2, stats.getRows());
+        Assert.assertEquals(out.size(), stats.getBytes());
+        Assert.assertEquals(500, fake.getFetchSize());
+        Assert.assertEquals("[{\"id\":1,\"name\":\"Ravi\"},{\"id\":2,\"name\":\"\"}]",
+                new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Streaming to a writer or channel writes the same document.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void streamResultSetToWriterAndChannel() throws Exception {
+        StringWriter writer = new StringWriter();
+        JsonWriteStats stats = JSONHandler.createJsonFromResultSet(people().resultSet(), writer);
+        Assert.assertEquals(writer.toString().length(), stats.getBytes());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JSONHandler.createJsonFromResultSet(people().resultSet(), Channels.newChannel(out));
+        Assert.assertEquals(writer.toString(), new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * A large result set is streamed without buffering the whole document.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void streamLargeResultSet() throws Exception {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 20000; i++) {
+            rows.add(new Object[]{i, "name-" + i});
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JsonWriteStats stats = JSONHandler.createJsonFromResultSet(FakeResultSet.of(LABELS, TYPES, rows).resultSet(), out);
+        Assert.assertEquals(20000, stats.getRows());
+        Assert.assertEquals(out.size(), stats.getBytes());
+    }
+
+    /**
+     * A result set failing mid-stream leaves visibly broken output, not a document closed around the rows written.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void resultSetFailingMidStream() throws Exception {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(new Object[]{i, "name-" + i});
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            JSONHandler.createJsonFromResultSet(FakeResultSet.of(LABELS, TYPES, rows).failingAt(5).resultSet(), out);
+            Assert.fail("Expected an SQLException");
+        } catch (SQLException e) {
+            // expected
+        }
+        String json = out.toString(StandardCharsets.UTF_8.name());
+        Assert.assertTrue(json, json.startsWith("[{\"id\":0,"));
+        Assert.assertFalse(json, json.endsWith("]"));
+        Assert.assertNull(JSONHandler.tryFromJson(json, List.class).getValue());
+
+        out = new ByteArrayOutputStream();
+        try {
+            JSONHandler.createNdjsonFromResultSet(FakeResultSet.of(LABELS, TYPES, rows).failingAt(5).resultSet(), out, 0);
+            Assert.fail("Expected an SQLException");
+        } catch (SQLException e) {
+            // expected
+        }
+        String[] lines = out.toString(StandardCharsets.UTF_8.name()).split("\n", -1);
+        Assert.assertEquals(6, lines.length);
+        Assert.assertEquals("{\"id\":4,\"name\":\"name-4\"}", lines[4]);
+        Assert.assertFalse(lines[5], lines[5].endsWith("}"));
+    }
+
+    /**
+     * Typed columns keep their precision and binary and character objects are streamed.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void typedColumnsWrittenPrecisely() throws Exception {
+        FakeResultSet fake = FakeResultSet.of(
+                new String[]{"amount", "active", "blob", "text", "big"},
+                new int[]{Types.DECIMAL, Types.BOOLEAN, Types.BLOB, Types.CLOB, Types.BIGINT},
+                Arrays.asList(
+                        new Object[]{new BigDecimal("12345678901234567.89"), true, new byte[]{1, 2, 3}, "clob", Long.MAX_VALUE},
+                        new Object[]{null, null, null, null, null}));
+
+        String json = JSONHandler.createJsonFromResultSet(fake.resultSet());
+
+        Assert.assertEquals("[{\"amount\":12345678901234567.89,\"active\":true,\"blob\":\"AQID\",\"text\":\"clob\","
+                + "\"big\":9223372036854775807},"
+                + "{\"amount\":\"\",\"active\":\"\",\"blob\":\"\",\"text\":\"\",\"big\":\"\"}]", json);
+    }
+
+    /**
+     * Writers registered for a vendor type name are used for matching columns until they are unregistered.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void vendorColumnWriter() throws Exception {
+        JSONHandler.getColumnWriterRegistry().register(
+                (rs, column, generator) -> generator.writeRawValue(rs.getString(column)), "type_1111");
+        try {
+            FakeResultSet fake = FakeResultSet.of(new String[]{"doc"}, new int[]{Types.OTHER},
+                    Collections.singletonList(new Object[]{"{\"a\":1}"}));
+
+            Assert.assertEquals("[{\"doc\":{\"a\":1}}]", JSONHandler.createJsonFromResultSet(fake.resultSet()));
+        } finally {
+            // the registry is shared by every test of the run
+            JSONHandler.getColumnWriterRegistry().unregister("TYPE_1111");
+        }
+        FakeResultSet fake = FakeResultSet.of(new String[]{"doc"}, new int[]{Types.OTHER},
+                Collections.singletonList(new Object[]{"{\"a\":1}"}));
+        Assert.assertEquals("[{\"doc\":\"{\\\"a\\\":1}\"}]", JSONHandler.createJsonFromResultSet(fake.resultSet()));
+    }
+
+    /**
+     * Json bytes are read from arrays, buffers and streams, and objects written as bytes.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void bytesRoundTrip() throws Exception {
+        final Map<String, Object> value = JSONHandler.fromJson("{\"id\":7,\"name\":\"Ravi\"}",
+                new TypeReference<Map<String, Object>>() { });
+        final byte[] bytes = JSONHandler.writeValueAsBytes(value);
+        Assert.assertEquals(JSONHandler.toJson(value), new String(bytes, StandardCharsets.UTF_8));
+
+        final byte[] framed = new byte[bytes.length + 4];
+        System.arraycopy(bytes, 0, framed, 2, bytes.length);
+        final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+
+        Assert.assertEquals(value, JSONHandler.fromJson(framed, 2, bytes.length, Map.class));
+        Assert.assertEquals(value, JSONHandler.fromJson(ByteBuffer.wrap(framed, 2, bytes.length),
+                new TypeReference<Map<String, Object>>() { }));
+        Assert.assertEquals(value, JSONHandler.fromJson(direct, Map.class));
+        Assert.assertEquals(0, direct.position());
+        Assert.assertEquals(value, JSONHandler.fromJson(new ByteArrayInputStream(bytes), Map.class));
+        Assert.assertEquals("Ravi", JSONHandler.fromString(direct).get("name").asText());
+        Assert.assertEquals(7, JSONHandler.fromString(framed, 2, bytes.length).get("id").intValue());
+        Assert.assertNull(JSONHandler.fromJson(new byte[]{'{'}, 0, 1, Map.class));
 
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        JSONHandler.writeTo(value, out);
+        JSONHandler.writeTo(value, out);
+        Assert.assertEquals(2 * bytes.length, out.size());
     }
 }
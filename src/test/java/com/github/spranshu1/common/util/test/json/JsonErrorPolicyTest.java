@@ -0,0 +1,151 @@
+package com.github.spranshu1.common.util.test.json;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.github.spranshu1.common.util.date.ClockSource;
+import com.github.spranshu1.common.util.date.DateTimeUtil;
+import com.github.spranshu1.common.util.date.ManualClockSource;
+import com.github.spranshu1.common.util.json.JSONHandler;
+import com.github.spranshu1.common.util.json.JsonErrorCategory;
+import com.github.spranshu1.common.util.json.JsonErrorPolicy;
+import com.github.spranshu1.common.util.json.JsonParseError;
+import com.github.spranshu1.common.util.json.JsonParseResult;
+import com.github.spranshu1.common.util.json.JsonParser;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The type Json error policy test.
+ */
+public class JsonErrorPolicyTest {
+
+    /**
+     * Test a failure is described by its location and a preview, not by the payload.
+     */
+    @Test
+    public void testParseError() {
+        final JsonErrorPolicy policy = new JsonErrorPolicy.JsonErrorPolicyBuilder().withPreviewLength(16).build();
+        final JsonParser<JsonNode> parser = new JsonParser.JsonParserBuilder<>(JsonNode.class)
+                .withErrorPolicy(policy)
+                .build();
+        final StringBuilder payload = new StringBuilder("[\n");
+        for (int i = 0; i < 100_000; i++) {
+            payload.append("{\"id\":").append(i).append("},");
+        }
+        payload.append("{\"id\":oops}]");
+
+        final JsonParseResult<JsonNode> result = parser.tryParse(payload.toString());
+        Assert.assertFalse(result.isSuccess());
+        Assert.assertNull(result.getValue());
+        final JsonParseError error = result.getError();
+        Assert.assertEquals(JsonErrorCategory.SYNTAX, error.getCategory());
+        Assert.assertEquals(2, error.getLine());
+        Assert.assertTrue(error.getColumn() > 100_000);
+        Assert.assertEquals(16, error.getPreview().length());
+        Assert.assertTrue(error.getPreview(), error.getPreview().contains("oops"));
+        Assert.assertTrue(error.toString().length() < 512);
+        Assert.assertEquals(1, policy.getFailureCount(JsonErrorCategory.SYNTAX));
+
+        final byte[] bytes = payload.toString().getBytes(StandardCharsets.UTF_8);
+        Assert.assertTrue(parser.tryParse(bytes, 0, bytes.length).getError().getPreview().contains("oops"));
+        Assert.assertEquals(2, policy.getFailureCount());
+
+        // the json embedded in a larger buffer, the preview still centred on the failure
+        final byte[] framed = new byte[bytes.length + 20_000];
+        System.arraycopy(bytes, 0, framed, 10_000, bytes.length);
+        final JsonParseError framedError = parser.tryParse(framed, 10_000, bytes.length).getError();
+        Assert.assertEquals(16, framedError.getPreview().length());
+        Assert.assertTrue(framedError.getPreview(), framedError.getPreview().contains("oops"));
+    }
+
+    /**
+     * Test failures are counted by category, and thrown by the throwing methods.
+     */
+    @Test
+    public void testCategories() {
+        final JsonErrorPolicy policy = new JsonErrorPolicy.JsonErrorPolicyBuilder().withMaxLogsPerSecond(0).build();
+        final JsonParser<Item> parser = new JsonParser.JsonParserBuilder<>(Item.class)
+                .withErrorPolicy(policy)
+                .build();
+
+        Assert.assertEquals(JsonErrorCategory.TRUNCATED, parser.tryParse("{\"id\":1,").getError().getCategory());
+        Assert.assertEquals(JsonErrorCategory.MAPPING, parser.tryParse("{\"id\":\"one\"}").getError().getCategory());
+        Assert.assertEquals(JsonErrorCategory.OTHER, parser.tryParse(null).getError().getCategory());
+        Assert.assertEquals(1, parser.tryParse("{\"id\":1}").getValue().id);
+        try {
+            parser.getJavaObject("{\"id\":");
+            Assert.fail("Expected an IOException");
+        } catch (IOException e) {
+            // expected
+        }
+        Assert.assertEquals(2, policy.getFailureCount(JsonErrorCategory.TRUNCATED));
+        Assert.assertEquals(1, policy.getFailureCount(JsonErrorCategory.MAPPING));
+        Assert.assertEquals(4, policy.getFailureCount());
+        Assert.assertEquals(1, policy.getSuppressedLogCount());
+    }
+
+    /**
+     * Test logging is limited per second.
+     */
+    @Test
+    public void testRateLimit() {
+        final ClockSource clock = DateTimeUtil.getClockSource();
+        final ManualClockSource manual = new ManualClockSource(1_000_000L);
+        DateTimeUtil.setClockSource(manual);
+        try {
+            final JsonErrorPolicy policy = new JsonErrorPolicy.JsonErrorPolicyBuilder().withMaxLogsPerSecond(2).build();
+            final JsonParser<JsonNode> parser = new JsonParser.JsonParserBuilder<>(JsonNode.class)
+                    .withErrorPolicy(policy)
+                    .build();
+            for (int i = 0; i < 10; i++) {
+                readMalformed(parser);
+            }
+            Assert.assertEquals(8, policy.getSuppressedLogCount());
+            manual.advance(1, TimeUnit.SECONDS);
+            readMalformed(parser);
+            readMalformed(parser);
+            readMalformed(parser);
+            Assert.assertEquals(9, policy.getSuppressedLogCount());
+            Assert.assertEquals(13, policy.getFailureCount(JsonErrorCategory.SYNTAX));
+        } finally {
+            DateTimeUtil.setClockSource(clock);
+        }
+    }
+
+    /**
+     * Test the non-throwing variant of json handler.
+     */
+    @Test
+    public void testHandlerTryFromJson() {
+        final long failures = JSONHandler.getErrorPolicy().getFailureCount();
+        final JsonParseResult<Item> result = JSONHandler.tryFromJson("{\"id\":", Item.class);
+        Assert.assertFalse(result.isSuccess());
+        Assert.assertEquals(JsonErrorCategory.TRUNCATED, result.getError().getCategory());
+        Assert.assertEquals(1, JSONHandler.getErrorPolicy().getFailureCount() - failures);
+
+        final byte[] bytes = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        Assert.assertEquals(1, JSONHandler.tryFromJson(bytes, 0, bytes.length, Item.class).getValue().id);
+    }
+
+    private static void readMalformed(final JsonParser<JsonNode> parser) {
+        try {
+            parser.readJsonNodeTree("{oops}");
+            Assert.fail("Expected an IOException");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    /**
+     * The type Item.
+     */
+    public static class Item {
+        /**
+         * The Id.
+         */
+        public int id;
+    }
+}
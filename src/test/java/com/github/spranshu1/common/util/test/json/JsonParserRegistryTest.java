@@ -0,0 +1,186 @@
+package com.github.spranshu1.common.util.test.json;
+
+import com.fasterxml.jackson.core.JsonParser.Feature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.github.spranshu1.common.util.json.JsonParser;
+import com.github.spranshu1.common.util.json.JsonParserRegistry;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The type Json parser registry test.
+ */
+public class JsonParserRegistryTest {
+
+    /**
+     * Test the same configuration returns the same parser.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void testSameConfiguration() throws IOException {
+        final JsonParserRegistry registry = new JsonParserRegistry();
+        final JsonParser<JsonNode> parser = registry.get(JsonNode.class);
+
+        Assert.assertSame(parser, registry.get(JsonNode.class));
+        Assert.assertSame(parser, registry.get(TypeFactory.defaultInstance().constructType(JsonNode.class)));
+        Assert.assertSame(parser, registry.get(new JsonParser.JsonParserBuilder<>(JsonNode.class)));
+        Assert.assertSame(parser, registry.get(new JsonParser.JsonParserBuilder<>(JsonNode.class)
+                .withFeatures(Feature.ALLOW_BACKSLASH_ESCAPING_ANY_CHARACTER)));
+        Assert.assertEquals(1, registry.size());
+        Assert.assertEquals(1, registry.getMissCount());
+        Assert.assertEquals(4, registry.getHitCount());
+        Assert.assertEquals(12, parser.getJavaObject("{\"c\":12}").get("c").intValue());
+    }
+
+    /**
+     * Test different types, features and modules get their own parsers.
+     */
+    @Test
+    public void testDifferentConfigurations() {
+        final JsonParserRegistry registry = new JsonParserRegistry();
+        final JsonParser<JsonNode> parser = registry.get(JsonNode.class);
+        final JsonParser<JsonNode> comments = registry.get(new JsonParser.JsonParserBuilder<>(JsonNode.class)
+                .withFeatures(Feature.ALLOW_COMMENTS));
+        final SimpleModule module = new SimpleModule();
+        final JsonParser<JsonNode> withModule = registry.get(new JsonParser.JsonParserBuilder<JsonNode>(module));
+
+        Assert.assertNotSame(parser, comments);
+        Assert.assertNotSame(parser, withModule);
+        Assert.assertNotSame(parser, registry.get(Map.class));
+        Assert.assertSame(withModule, registry.get(new JsonParser.JsonParserBuilder<JsonNode>(module)));
+        Assert.assertNotSame(withModule, registry.get(new JsonParser.JsonParserBuilder<JsonNode>(new SimpleModule())));
+        Assert.assertEquals(5, registry.size());
+
+        registry.clear();
+        Assert.assertEquals(0, registry.size());
+        Assert.assertNotSame(parser, registry.get(JsonNode.class));
+    }
+
+    /**
+     * Test prewarmed parsers are served without a build.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testPrewarmConcurrent() throws Exception {
+        final JsonParserRegistry registry = new JsonParserRegistry().prewarm(JsonNode.class, String.class);
+        Assert.assertEquals(2, registry.getMissCount());
+        Assert.assertTrue(registry.getBuildTime(TimeUnit.NANOSECONDS) > 0);
+
+        final ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<JsonParser<String>>> futures = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                futures.add(pool.submit(() -> registry.get(String.class)));
+            }
+            for (Future<JsonParser<String>> future : futures) {
+                Assert.assertSame(registry.get(String.class), future.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+        Assert.assertEquals(2, registry.getMissCount());
+        Assert.assertEquals(2, registry.size());
+    }
+
+    /**
+     * Test every concurrent request of a new configuration is counted, as a hit or as the one miss.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testConcurrentFirstRequests() throws Exception {
+        final JsonParserRegistry registry = new JsonParserRegistry();
+        final int requests = 64;
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return registry.get(JsonNode.class);
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+        Assert.assertEquals(1, registry.getMissCount());
+        Assert.assertEquals(requests - 1, registry.getHitCount());
+    }
+
+
+    /**
+     * Test root wrapping through one parser does not leak into another parser sharing its mapper.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testRootWrappingOnSharedMapper() throws Exception {
+        final JsonParserRegistry registry = new JsonParserRegistry();
+        final JsonParser<JsonNode> wrapping = registry.get(JsonNode.class);
+        final JsonParser<Object> plain = registry.get(Object.class);
+
+        final Map<String, Integer> value = Collections.singletonMap("a", 1);
+        final ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<String>> futures = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                futures.add(pool.submit(() -> wrapping.getJsonFromAnnotatedPojoWithRoot(value)));
+                futures.add(pool.submit(() -> plain.getJsonFromAnnotatedPojo(value)));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                final String json = futures.get(i).get();
+                Assert.assertEquals(i % 2 == 0, !"{\"a\":1}".equals(json));
+            }
+        } finally {
+            pool.shutdown();
+        }
+        Assert.assertEquals("{\"a\":1}", wrapping.getJsonFromAnnotatedPojo(value));
+    }
+
+    /**
+     * Test builders creating their own module share one parser through a module id.
+     */
+    @Test
+    public void testModuleId() {
+        final JsonParserRegistry registry = new JsonParserRegistry();
+        final JsonParser<JsonNode> parser = registry.get("strict", new JsonParser.JsonParserBuilder<JsonNode>(new SimpleModule()));
+
+        Assert.assertSame(parser, registry.get("strict", new JsonParser.JsonParserBuilder<JsonNode>(new SimpleModule())));
+        Assert.assertNotSame(parser, registry.get("lenient", new JsonParser.JsonParserBuilder<JsonNode>(new SimpleModule())));
+        Assert.assertEquals(2, registry.size());
+    }
+
+    /**
+     * Test the registry holds at most its maximum size, dropping parsers to make room.
+     */
+    @Test
+    public void testMaxSize() {
+        final JsonParserRegistry registry = new JsonParserRegistry(4);
+        for (int i = 0; i < 20; i++) {
+            registry.get(new JsonParser.JsonParserBuilder<JsonNode>(new SimpleModule()));
+            Assert.assertTrue(registry.size() <= 4);
+        }
+        Assert.assertEquals(4, registry.size());
+        Assert.assertTrue(registry.getEvictionCount() >= 16);
+    }
+}
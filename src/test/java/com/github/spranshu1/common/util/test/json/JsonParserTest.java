@@ -1,9 +1,13 @@
 package com.github.spranshu1.common.util.test.json;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonRootName;
+import com.fasterxml.jackson.annotation.JsonView;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.Version;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 import com.fasterxml.jackson.databind.module.SimpleModule;
@@ -11,9 +15,26 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fasterxml.jackson.databind.ser.std.StdSerializer;
 import com.github.spranshu1.common.util.json.JsonParser;
 import org.junit.Assert;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 /**
  * The type Json parser test.
@@ -22,6 +43,12 @@ public class JsonParserTest {
 
     private static final String SAMPLE_JSON = "{\"name\":\"shivansh\",\"email\":\"shiv@domain.com\",\"age\":22}";
 
+    /**
+     * The Temp folder.
+     */
+    @Rule
+    public TemporaryFolder tempFolder = new TemporaryFolder();
+
     /**
      * Sample test.
      */
@@ -68,6 +95,250 @@ public class JsonParserTest {
     }
 
 
+    /**
+     * Test iterating an array from every kind of source.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void iterateJavaObjectsTest() throws IOException {
+        final JsonParser<Item> parser = new JsonParser.JsonParserBuilder<>(Item.class).build();
+        final String json = items(100);
+        final byte[] bytes = json.getBytes(StandardCharsets.UTF_8);
+        final Path file = tempFolder.newFile("items.json").toPath();
+        Files.write(file, bytes);
+        final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length + 2);
+        direct.put((byte) ' ').put(bytes).flip();
+        direct.get();
+
+        Assert.assertEquals(100, count(parser.iterateJavaObjects(new ByteArrayInputStream(bytes))));
+        Assert.assertEquals(100, count(parser.iterateJavaObjects(new StringReader(json))));
+        Assert.assertEquals(100, count(parser.iterateJavaObjects(file)));
+        Assert.assertEquals(100, count(parser.iterateJavaObjects(ByteBuffer.wrap(bytes))));
+        Assert.assertEquals(100, count(parser.iterateJavaObjects(direct)));
+        Assert.assertEquals(1, direct.position());
+        Assert.assertEquals(parser.getJavaObjects(json).size(), count(parser.iterateJavaObjects(file)));
+    }
+
+    /**
+     * Test a value sequence is streamed, and the source closed with the stream.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void streamJavaObjectsTest() throws IOException {
+        final JsonParser<Item> parser = new JsonParser.JsonParserBuilder<>(Item.class).build();
+        final AtomicBoolean closed = new AtomicBoolean();
+        final InputStream in = new ByteArrayInputStream(
+                "{\"id\":1,\"name\":\"a\"}\n{\"id\":2,\"name\":\"b\"}\n{\"id\":3,\"name\":\"c\"}\n"
+                        .getBytes(StandardCharsets.UTF_8)) {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+
+        try (Stream<Item> items = parser.streamJavaObjects(in)) {
+            Assert.assertEquals(6, items.mapToInt(item -> item.id).sum());
+        }
+        Assert.assertTrue(closed.get());
+    }
+
+    /**
+     * Test elements are passed to a consumer one at a time and in batches.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void forEachJavaObjectTest() throws IOException {
+        final JsonParser<Item> parser = new JsonParser.JsonParserBuilder<>(Item.class).build();
+        final byte[] bytes = items(25).getBytes(StandardCharsets.UTF_8);
+
+        final List<Item> items = new ArrayList<>();
+        Assert.assertEquals(25, parser.forEachJavaObject(new ByteArrayInputStream(bytes), items::add));
+        Assert.assertEquals(24, items.get(24).id);
+        Assert.assertEquals("item24", items.get(24).name);
+
+        final List<Integer> sizes = new ArrayList<>();
+        Assert.assertEquals(25, parser.forEachJavaObjectBatch(new ByteArrayInputStream(bytes), 10,
+                batch -> sizes.add(batch.size())));
+        Assert.assertEquals("[10, 10, 5]", sizes.toString());
+
+        try {
+            parser.forEachJavaObject(new ByteArrayInputStream("[{\"id\":1},{\"id\":".getBytes(StandardCharsets.UTF_8)),
+                    item -> { });
+            Assert.fail("Expected an IOException");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    /**
+     * Test reading from bytes and writing bytes.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void bytesTest() throws IOException {
+        final JsonParser<Item> parser = new JsonParser.JsonParserBuilder<>(Item.class).build();
+        final Item item = new Item();
+        item.id = 3;
+        item.name = "three";
+        final byte[] bytes = parser.writeValueAsBytes(item);
+        Assert.assertEquals(parser.buildJSONFromJavaObject(item), new String(bytes, StandardCharsets.UTF_8));
+
+        final byte[] framed = new byte[bytes.length + 3];
+        System.arraycopy(bytes, 0, framed, 3, bytes.length);
+        final ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        Assert.assertEquals("three", parser.getJavaObject(framed, 3, bytes.length).name);
+        Assert.assertEquals("three", parser.getJavaObject(direct).name);
+        Assert.assertEquals("three", parser.getJavaObject(new ByteArrayInputStream(bytes)).name);
+        Assert.assertEquals(3, parser.readJsonNodeTree(ByteBuffer.wrap(framed, 3, bytes.length)).get("id").intValue());
+        Assert.assertEquals(3, parser.readJsonNodeTree(direct).get("id").intValue());
+
+        final byte[] array = items(3).getBytes(StandardCharsets.UTF_8);
+        Assert.assertEquals(3, parser.getJavaObjects(array, 0, array.length).size());
+        Assert.assertEquals(3, parser.getJavaObjects(new ByteArrayInputStream(array)).size());
+
+        final AtomicBoolean closed = new AtomicBoolean();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        };
+        parser.writeTo(item, out);
+        Assert.assertArrayEquals(bytes, out.toByteArray());
+        Assert.assertFalse(closed.get());
+    }
+
+    /**
+     * Test root wrapping does not leak into concurrent plain serialization.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void rootWriterConcurrentTest() throws Exception {
+        final JsonParser<Account> parser = new JsonParser.JsonParserBuilder<>(Account.class).build();
+        final Account account = new Account("acme", null);
+        final ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            final List<Future<Boolean>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final boolean root = t % 2 == 0;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < 2000; i++) {
+                        final String json = root
+                                ? parser.getJsonFromAnnotatedPojoWithRoot(account)
+                                : parser.getJsonFromAnnotatedPojo(account);
+                        if (json.startsWith("{\"account\"") != root) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                Assert.assertTrue(future.get());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Test the pretty, view and inclusion variants.
+     *
+     * @throws IOException the io exception
+     */
+    @Test
+    public void writerVariantsTest() throws IOException {
+        final JsonParser<Account> parser = new JsonParser.JsonParserBuilder<>(Account.class).build();
+        final Account account = new Account("acme", null);
+
+        Assert.assertEquals("{\"name\":\"acme\",\"secret\":null}", parser.getJsonFromAnnotatedPojo(account));
+        Assert.assertEquals("{\"account\":{\"name\":\"acme\",\"secret\":null}}",
+                parser.getJsonFromAnnotatedPojoWithRoot(account));
+        Assert.assertTrue(parser.getJsonFromAnnotatedPojoPretty(account).contains("\n"));
+        Assert.assertEquals("{\"name\":\"acme\"}", parser.getJsonFromAnnotatedPojoWithView(account, Account.Public.class));
+        Assert.assertEquals("{\"name\":\"acme\"}", parser.getJsonFromAnnotatedPojo(account, JsonInclude.Include.NON_NULL));
+        Assert.assertEquals("{\"name\":\"acme\",\"secret\":null}", parser.getJsonFromAnnotatedPojo(account));
+    }
+
+    private static String items(final int count) {
+        final StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            json.append(i == 0 ? "" : ",").append("{\"id\":").append(i).append(",\"name\":\"item").append(i).append("\"}");
+        }
+        return json.append(']').toString();
+    }
+
+    private static int count(final MappingIterator<Item> items) throws IOException {
+        int count = 0;
+        try (MappingIterator<Item> iterator = items) {
+            while (iterator.hasNextValue()) {
+                iterator.nextValue();
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * The type Account.
+     */
+    @JsonRootName("account")
+    public static class Account {
+        /**
+         * The public view.
+         */
+        public interface Public {
+        }
+
+        /**
+         * The internal view.
+         */
+        public interface Internal extends Public {
+        }
+
+        /**
+         * The Name.
+         */
+        @JsonView(Public.class)
+        public String name;
+        /**
+         * The Secret.
+         */
+        @JsonView(Internal.class)
+        public String secret;
+
+        /**
+         * Instantiates a new Account.
+         *
+         * @param name   the name
+         * @param secret the secret
+         */
+        public Account(String name, String secret) {
+            this.name = name;
+            this.secret = secret;
+        }
+    }
+
+    /**
+     * The type Item.
+     */
+    public static class Item {
+        /**
+         * The Id.
+         */
+        public int id;
+        /**
+         * The Name.
+         */
+        public String name;
+    }
+
     /**
      * The type Emp de serializer.
      */
@@ -0,0 +1,188 @@
+package com.github.spranshu1.common.util.test.json;
+
+import com.github.spranshu1.common.util.file.FileUtil;
+import com.github.spranshu1.common.util.json.ExportPartitioning;
+import com.github.spranshu1.common.util.json.PartitionStats;
+import com.github.spranshu1.common.util.json.ResultSetExporter;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * The type Result set exporter test.
+ */
+public class ResultSetExporterTest {
+
+    private static final int ROWS = 1000;
+
+    /**
+     * Data source whose partition queries select the ids matching {@code mod(id, ?) = ?}.
+     */
+    private static DataSource moduloDataSource() {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                (ds, dsMethod, dsArgs) -> Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                        (con, conMethod, conArgs) -> {
+                            if (!conMethod.getName().equals("prepareStatement")) {
+                                return null;
+                            }
+                            Object[] params = new Object[2];
+                            return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                                    (ps, psMethod, psArgs) -> {
+                                        if (psMethod.getName().equals("setObject")) {
+                                            params[(Integer) psArgs[0] - 1] = psArgs[1];
+                                        } else if (psMethod.getName().equals("executeQuery")) {
+                                            int mod = (Integer) params[0];
+                                            int partition = (Integer) params[1];
+                                            List<Object[]> rows = new ArrayList<>();
+                                            for (int id = 0; id < ROWS; id++) {
+                                                if (id % mod == partition) {
+                                                    rows.add(new Object[]{id});
+                                                }
+                                            }
+                                            return FakeResultSet.of(new String[]{"id"}, new int[]{Types.INTEGER}, rows).resultSet();
+                                        }
+                                        return null;
+                                    });
+                        }));
+    }
+
+    /**
+     * Data source whose first partition fails at once and whose second one completes slowly, ignoring interrupts.
+     */
+    private static DataSource failingDataSource(AtomicBoolean slowClosed) {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                (ds, dsMethod, dsArgs) -> Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                        (con, conMethod, conArgs) -> {
+                            if (!conMethod.getName().equals("prepareStatement")) {
+                                return null;
+                            }
+                            Object[] params = new Object[2];
+                            return Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(), new Class<?>[]{PreparedStatement.class},
+                                    (ps, psMethod, psArgs) -> {
+                                        if (psMethod.getName().equals("setObject")) {
+                                            params[(Integer) psArgs[0] - 1] = psArgs[1];
+                                        } else if (psMethod.getName().equals("executeQuery")) {
+                                            if ((Integer) params[1] == 0) {
+                                                throw new SQLException("Partition failed");
+                                            }
+                                            long until = System.currentTimeMillis() + 300;
+                                            while (System.currentTimeMillis() < until) {
+                                                try {
+                                                    Thread.sleep(10);
+                                                } catch (InterruptedException e) {
+                                                    // a driver blocked in a socket read does not see the interrupt
+                                                }
+                                            }
+                                            return FakeResultSet.of(new String[]{"id"}, new int[]{Types.INTEGER},
+                                                    Collections.singletonList(new Object[]{1})).resultSet();
+                                        } else if (psMethod.getName().equals("close") && Integer.valueOf(1).equals(params[1])) {
+                                            slowClosed.set(true);
+                                        }
+                                        return null;
+                                    });
+                        }));
+    }
+
+    /**
+     * Key range partitions cover the whole range without overlap.
+     */
+    @Test
+    public void testKeyRangePartitioning() {
+        ExportPartitioning partitioning = ExportPartitioning.keyRange(0, 10, 3);
+        Assert.assertArrayEquals(new Object[]{0L, 4L}, partitioning.parameters(0));
+        Assert.assertArrayEquals(new Object[]{4L, 7L}, partitioning.parameters(1));
+        Assert.assertArrayEquals(new Object[]{7L, 10L}, partitioning.parameters(2));
+
+        // the whole long range, wider than a long can hold
+        ExportPartitioning full = ExportPartitioning.keyRange(Long.MIN_VALUE, Long.MAX_VALUE, 4);
+        Assert.assertEquals(Long.MIN_VALUE, full.parameters(0)[0]);
+        Assert.assertEquals(Long.MIN_VALUE / 2, full.parameters(1)[0]);
+        Assert.assertEquals(0L, full.parameters(2)[0]);
+        Assert.assertEquals(full.parameters(2)[1], full.parameters(3)[0]);
+        Assert.assertEquals(Long.MAX_VALUE, full.parameters(3)[1]);
+    }
+
+    /**
+     * Every partition is written to its own file.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testExportToFiles() throws Exception {
+        Path dir = Files.createTempDirectory("export");
+        try {
+            List<PartitionStats> stats = new ResultSetExporter.ResultSetExporterBuilder(moduloDataSource(),
+                    "select id from t where mod(id, ?) = ?", ExportPartitioning.modulo(4))
+                    .withThreads(2)
+                    .build()
+                    .exportToFiles(dir, "t");
+
+            Assert.assertEquals(4, stats.size());
+            long rows = 0;
+            for (PartitionStats s : stats) {
+                Path file = dir.resolve(String.format("t-%05d.ndjson", s.getPartition()));
+                Assert.assertEquals(Files.size(file), s.getBytes());
+                Assert.assertEquals(s.getRows(), Files.readAllLines(file).size());
+                rows += s.getRows();
+            }
+            Assert.assertEquals(ROWS, rows);
+        } finally {
+            FileUtil.deleteDirectory(dir.toFile());
+        }
+    }
+
+    /**
+     * The merge stage writes all partitions in partition order.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testExportMerged() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new ResultSetExporter.ResultSetExporterBuilder(moduloDataSource(),
+                "select id from t where mod(id, ?) = ?", ExportPartitioning.modulo(3))
+                .build()
+                .exportTo(out);
+
+        String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+        Assert.assertEquals(ROWS, lines.length);
+        Assert.assertEquals("{\"id\":0}", lines[0]);
+        Assert.assertEquals("{\"id\":3}", lines[1]);
+        Assert.assertEquals("{\"id\":1}", lines[334]);
+    }
+
+    /**
+     * A failed export returns once the partitions still running are complete, not while they write.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    public void testFailedExportWaitsForPartitions() throws Exception {
+        AtomicBoolean slowClosed = new AtomicBoolean();
+        try {
+            new ResultSetExporter.ResultSetExporterBuilder(failingDataSource(slowClosed),
+                    "select id from t where mod(id, ?) = ?", ExportPartitioning.modulo(2))
+                    .withThreads(2)
+                    .build()
+                    .exportTo(new ByteArrayOutputStream());
+            Assert.fail("Expected an SQLException");
+        } catch (SQLException e) {
+            Assert.assertEquals("Partition failed", e.getMessage());
+        }
+        Assert.assertTrue(slowClosed.get());
+    }
+}